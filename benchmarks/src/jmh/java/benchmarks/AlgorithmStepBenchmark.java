@@ -0,0 +1,92 @@
+package benchmarks;
+
+import algorithms.AlgorithmFactory;
+import core.Algorithm;
+import core.CountingProblem;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import problems.ProblemFactory;
+
+/**
+ * Throughput of Algorithm.step() for every algorithm at several population
+ * sizes on 30-D Rastrigin. The "evaluations" secondary metric reports
+ * function evaluations per second; run with the gc profiler (the default
+ * in build.gradle) for the allocation rate per step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AlgorithmStepBenchmark {
+    @Param({"rs", "hc", "sa", "sls", "pso", "ga", "de", "aco", "cmaes"})
+    public String algorithm;
+    
+    /**
+     * Population, swarm, ant or neighbour count; ignored by hc and sa
+     */
+    @Param({"20", "100", "1000"})
+    public int populationSize;
+    
+    @Param({"30"})
+    public int dimensions;
+    
+    private Algorithm instance;
+    private CountingProblem problem;
+    
+    /**
+     * Evaluations performed by the measured steps, reported as a rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Evaluations {
+        public long evaluations;
+    }
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, String> params = new HashMap<>();
+        params.put("iterations", Integer.toString(Integer.MAX_VALUE));
+        params.put("seed", "42");
+        String size = Integer.toString(populationSize);
+        switch (algorithm) {
+            case "rs":
+            case "ga":
+            case "de":
+            case "cmaes":
+                params.put("populationSize", size);
+                break;
+            case "sls":
+                params.put("neighbors", size);
+                break;
+            case "pso":
+                params.put("swarmSize", size);
+                break;
+            case "aco":
+                params.put("ants", size);
+                break;
+            default:
+                break;
+        }
+        instance = AlgorithmFactory.create(algorithm, params);
+        problem = new CountingProblem(ProblemFactory.create("rastrigin", dimensions));
+        instance.initialize(problem);
+    }
+    
+    @Benchmark
+    public boolean step(Evaluations counter) {
+        long before = problem.getEvaluations();
+        boolean continuing = instance.step();
+        counter.evaluations += problem.getEvaluations() - before;
+        return continuing;
+    }
+}
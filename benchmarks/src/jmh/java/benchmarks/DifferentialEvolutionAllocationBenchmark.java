@@ -0,0 +1,42 @@
+package benchmarks;
+
+import algorithms.DifferentialEvolution;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import problems.Rastrigin;
+
+/**
+ * DE generation at D=100, NP=200 for every strategy and crossover.
+ * With the gc profiler, gc.alloc.rate.norm must stay at 0 B/op: a step
+ * writes into preallocated generations and allocates nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DifferentialEvolutionAllocationBenchmark {
+    @Param({"RAND_1", "BEST_1", "CURRENT_TO_BEST_1", "RAND_2", "CURRENT_TO_PBEST_1"})
+    public DifferentialEvolution.Strategy strategy;
+    
+    @Param({"BINOMIAL", "EXPONENTIAL"})
+    public DifferentialEvolution.Crossover crossover;
+    
+    private DifferentialEvolution de;
+    
+    @Setup
+    public void setup() {
+        de = new DifferentialEvolution(Integer.MAX_VALUE, 200, 0.5, 0.9, strategy, crossover);
+        de.initialize(new Rastrigin(100));
+    }
+    
+    @Benchmark
+    public boolean step() {
+        return de.step();
+    }
+}
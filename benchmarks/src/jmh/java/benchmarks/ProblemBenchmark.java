@@ -0,0 +1,72 @@
+package benchmarks;
+
+import core.Problem;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import problems.ProblemFactory;
+
+/**
+ * Throughput of Problem.evaluate() for every benchmark function, both one
+ * point at a time and through the packed batch entry point, plain and
+ * wrapped in the shift and rotation decorators
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProblemBenchmark {
+    private static final int BATCH = 64;
+    
+    @Param({"sphere", "rastrigin", "ackley", "schwefel", "griewank", "michalewicz", "levy", "deceptive-trap"})
+    public String problem;
+    
+    @Param({"2", "30", "100", "1000"})
+    public int dimensions;
+    
+    @Param({"none", "shifted-rotated"})
+    public String transform;
+    
+    private Problem instance;
+    private double[] point;
+    private double[] batch;
+    private double[] fitness;
+    
+    @Setup
+    public void setup() {
+        instance = ProblemFactory.create(transform.equals("none") ? problem : transform + "-" + problem, dimensions);
+        SplittableRandom random = new SplittableRandom(42);
+        double lower = instance.getLowerBound();
+        double range = instance.getUpperBound() - lower;
+        
+        point = new double[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            point[i] = lower + random.nextDouble() * range;
+        }
+        batch = new double[BATCH * dimensions];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = lower + random.nextDouble() * range;
+        }
+        fitness = new double[BATCH];
+    }
+    
+    @Benchmark
+    public double evaluate() {
+        return instance.evaluate(point);
+    }
+    
+    /**
+     * One op is a batch of 64 points
+     */
+    @Benchmark
+    public double[] evaluateBatch() {
+        instance.evaluate(batch, fitness, 0, BATCH);
+        return fitness;
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import core.Rng;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the random draws the algorithms make, for each Rng kind against
+ * java.util.Random ("jdk")
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RandomBenchmark {
+    private static final int ROW = 30;
+    
+    @Param({"jdk", "l64x128mix", "xoshiro256pp"})
+    public String generator;
+    
+    private Random jdk;
+    private Rng rng;
+    private double[] row;
+    
+    @Setup
+    public void setup() {
+        if (generator.equals("jdk")) {
+            jdk = new Random(42);
+        } else {
+            rng = Rng.create(Rng.Kind.parse(generator), 42);
+        }
+        row = new double[ROW];
+    }
+    
+    @Benchmark
+    public double nextDouble() {
+        return jdk != null ? jdk.nextDouble() : rng.nextDouble();
+    }
+    
+    @Benchmark
+    public int nextInt() {
+        return jdk != null ? jdk.nextInt(100) : rng.nextInt(100);
+    }
+    
+    @Benchmark
+    public double nextGaussian() {
+        return jdk != null ? jdk.nextGaussian() : rng.nextGaussian();
+    }
+    
+    /**
+     * One op is a 30-D row of deviates, as ACO draws per ant
+     */
+    @Benchmark
+    public double[] gaussianRow() {
+        if (jdk != null) {
+            for (int i = 0; i < ROW; i++) {
+                row[i] = jdk.nextGaussian();
+            }
+        } else {
+            rng.nextGaussians(row, 0, ROW);
+        }
+        return row;
+    }
+}
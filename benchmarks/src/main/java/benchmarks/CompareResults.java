@@ -0,0 +1,149 @@
+package benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark.
+ * A benchmark regresses when its primary score moves the wrong way
+ * (down for throughput, up for time modes) by more than the threshold
+ * percent, or when its normalized allocation rate grows by more than
+ * 1 KiB per op. Exits with status 1 if anything regressed, or if a
+ * benchmark has results in both files but none with matching
+ * parameters, which means its parameters changed and the baseline must
+ * be re-recorded. Other baseline entries with no current result are
+ * only listed as missing, since a partial run (-Pjmh.includes) leaves
+ * them out.
+ *
+ * <pre>
+ * CompareResults BASELINE.json CURRENT.json [THRESHOLD_PERCENT]
+ * </pre>
+ */
+public class CompareResults {
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    private static final double ALLOC_SLACK_BYTES = 1024.0;
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults BASELINE.json CURRENT.json [THRESHOLD_PERCENT]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100.0 : 0.10;
+        Map<String, JsonObject> baseline = load(args[0]);
+        Map<String, JsonObject> current = load(args[1]);
+        
+        int regressions = 0;
+        Set<String> matched = new HashSet<>();
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonObject> entry : new TreeMap<>(current).entrySet()) {
+            JsonObject base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-90s %14s%n", entry.getKey(), "(new)");
+                continue;
+            }
+            matched.add(entry.getValue().get("benchmark").getAsString());
+            JsonObject now = entry.getValue();
+            double baseScore = primaryScore(base);
+            double nowScore = primaryScore(now);
+            double change = (nowScore - baseScore) / baseScore;
+            boolean higherIsBetter = now.get("mode").getAsString().equals("thrpt");
+            boolean regressed = higherIsBetter ? change < -threshold : change > threshold;
+            
+            double baseAlloc = secondaryScore(base, ALLOC_NORM);
+            double nowAlloc = secondaryScore(now, ALLOC_NORM);
+            boolean allocRegressed = !Double.isNaN(baseAlloc) && !Double.isNaN(nowAlloc)
+                                     && nowAlloc > baseAlloc + ALLOC_SLACK_BYTES;
+            
+            String flag = regressed || allocRegressed ? "  REGRESSION" : "";
+            if (allocRegressed) {
+                flag += String.format(" (alloc %.0f -> %.0f B/op)", baseAlloc, nowAlloc);
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n",
+                              entry.getKey(), baseScore, nowScore, change * 100, flag);
+            if (regressed || allocRegressed) {
+                regressions++;
+            }
+        }
+        int missing = 0;
+        Set<String> stale = new TreeSet<>();
+        for (Map.Entry<String, JsonObject> entry : new TreeMap<>(baseline).entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                System.out.printf("%-90s %14s%n", entry.getKey(), "(missing)");
+                missing++;
+                String benchmark = entry.getValue().get("benchmark").getAsString();
+                if (!matched.contains(benchmark) && ran(current, benchmark)) {
+                    stale.add(benchmark);
+                }
+            }
+        }
+        
+        if (missing > 0) {
+            System.out.println("warning: " + missing + " baseline result(s) have no current counterpart");
+        }
+        if (!stale.isEmpty()) {
+            System.out.println("Baseline is stale for " + stale + ": parameters changed; re-record it with jmhBaseline");
+            System.exit(1);
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed beyond " + threshold * 100 + "%");
+            System.exit(1);
+        }
+        System.out.println("No regressions beyond " + threshold * 100 + "%");
+    }
+    
+    /**
+     * Results keyed by benchmark name plus its parameters
+     */
+    private static Map<String, JsonObject> load(String path) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+                JsonObject params = result.getAsJsonObject("params");
+                if (params != null) {
+                    for (String name : new TreeMap<>(params.asMap()).keySet()) {
+                        key.append(' ').append(name).append('=').append(params.get(name).getAsString());
+                    }
+                }
+                results.put(key.toString(), result);
+            }
+        }
+        return results;
+    }
+    
+    private static boolean ran(Map<String, JsonObject> results, String benchmark) {
+        for (JsonObject result : results.values()) {
+            if (result.get("benchmark").getAsString().equals(benchmark)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static double primaryScore(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+    }
+    
+    private static double secondaryScore(JsonObject result, String metric) {
+        JsonObject secondary = result.getAsJsonObject("secondaryMetrics");
+        if (secondary == null || !secondary.has(metric)) {
+            return Double.NaN;
+        }
+        return secondary.getAsJsonObject(metric).get("score").getAsDouble();
+    }
+}
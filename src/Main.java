@@ -1,11 +1,18 @@
+import runner.BatchRunner;
 import visualization.MainFrame;
 import javax.swing.SwingUtilities;
 
 public class Main {
     public static void main(String[] args) {
+        // Any arguments select the headless batch runner
+        if (args.length > 0) {
+            BatchRunner.main(args);
+            return;
+        }
+        
         SwingUtilities.invokeLater(() -> {
             MainFrame frame = new MainFrame();
             frame.setVisible(true);
         });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,278 @@
+package algorithms;
+
+import core.Algorithm;
+import core.AsyncEvaluator;
+import core.Evaluator;
+import core.Rng;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds algorithms by name from string parameters, so the GUI and the
+ * batch runner share one set of defaults. Names are matched like
+ * ProblemFactory names and may be the short id ("de") or the display
+ * name ("Differential Evolution"). Missing parameters take the defaults
+ * below; "iterations" defaults to 1000 for every algorithm, and every
+ * algorithm takes a "seed" (default: a fresh random stream each run) and
+ * an "rng" generator, l64x128mix or xoshiro256pp (default: the process
+ * default, Rng.getDefaultKind()).
+ *
+ * <pre>
+ * rs   populationSize=30
+ * hc   stepSize=1.0
+ * sa   initialTemperature=100 coolingRate=0.99 stepSize=1.0
+ * sls  neighbors=10 stepSize=1.0
+ * pso  swarmSize=30 inertia=0.7298 cognitive=1.49618 social=1.49618
+ *      topology=global threads=1 evaluator=serial
+ * ga   populationSize=40 mutationRate=0.1 crossoverRate=0.8 tournamentSize=3 evaluator=serial
+ *      async=0 insert=worst
+ * de   populationSize=40 F=0.8 CR=0.9 strategy=rand/1 crossover=bin evaluator=serial
+ *      async=0 insert=parent
+ * aco  ants=30 archiveSize=10 exploitation=0.85 q=0.5 evaluator=serial
+ * cmaes  populationSize=0 (4 + 3 ln n) sigma=0.3 restarts=bipop
+ *        separable=auto evaluator=serial
+ * islands  islands=4 island=de migration=ring interval=10 migrants=1
+ *          replacement=worst; every other parameter is passed to each
+ *          island, whose seed is seed + island index
+ * </pre>
+ * async=N runs GA or DE in asynchronous steady-state mode with N
+ * evaluations in flight ("auto": one per available processor); insert
+ * picks whom a finished candidate replaces, the worst individual or its
+ * parent.
+ */
+public final class AlgorithmFactory {
+    private AlgorithmFactory() {
+    }
+    
+    /**
+     * Short ids of every algorithm this factory can build
+     */
+    public static List<String> names() {
+        return List.of("rs", "hc", "sa", "sls", "pso", "ga", "de", "aco", "cmaes", "islands");
+    }
+    
+    public static Algorithm create(String name, Map<String, String> params) {
+        int iterations = getInt(params, "iterations", 1000);
+        
+        switch (normalize(name)) {
+            case "rs":
+            case "randomsearch": {
+                RandomSearch rs = new RandomSearch(iterations, getInt(params, "populationSize", 30));
+                if (params.containsKey("seed")) {
+                    rs.setSeed(Long.parseLong(params.get("seed")));
+                }
+                rs.setRandomGenerator(randomGenerator(params));
+                return rs;
+            }
+            case "hc":
+            case "hillclimber": {
+                HillClimber hc = new HillClimber(iterations, getDouble(params, "stepSize", 1.0));
+                if (params.containsKey("seed")) {
+                    hc.setSeed(Long.parseLong(params.get("seed")));
+                }
+                hc.setRandomGenerator(randomGenerator(params));
+                return hc;
+            }
+            case "sa":
+            case "simulatedannealing": {
+                SimulatedAnnealing sa = new SimulatedAnnealing(iterations,
+                        getDouble(params, "initialTemperature", 100.0),
+                        getDouble(params, "coolingRate", 0.99),
+                        getDouble(params, "stepSize", 1.0));
+                if (params.containsKey("seed")) {
+                    sa.setSeed(Long.parseLong(params.get("seed")));
+                }
+                sa.setRandomGenerator(randomGenerator(params));
+                return sa;
+            }
+            case "sls":
+            case "stochasticlocalsearch": {
+                StochasticLocalSearch sls = new StochasticLocalSearch(iterations,
+                        getInt(params, "neighbors", 10),
+                        getDouble(params, "stepSize", 1.0));
+                if (params.containsKey("seed")) {
+                    sls.setSeed(Long.parseLong(params.get("seed")));
+                }
+                sls.setRandomGenerator(randomGenerator(params));
+                return sls;
+            }
+            case "pso":
+            case "particleswarmoptimization": {
+                ParticleSwarmOptimization pso = new ParticleSwarmOptimization(iterations,
+                        getInt(params, "swarmSize", 30),
+                        getDouble(params, "inertia", 0.7298),
+                        getDouble(params, "cognitive", 1.49618),
+                        getDouble(params, "social", 1.49618));
+                pso.setTopology(ParticleSwarmOptimization.Topology.valueOf(
+                        params.getOrDefault("topology", "global").toUpperCase().replace('-', '_')));
+                pso.setThreads(getInt(params, "threads", 1));
+                pso.setEvaluator(evaluator(params));
+                if (params.containsKey("seed")) {
+                    pso.setSeed(Long.parseLong(params.get("seed")));
+                }
+                pso.setRandomGenerator(randomGenerator(params));
+                return pso;
+            }
+            case "ga":
+            case "geneticalgorithm": {
+                GeneticAlgorithm ga = new GeneticAlgorithm(iterations,
+                        getInt(params, "populationSize", 40),
+                        getDouble(params, "mutationRate", 0.1),
+                        getDouble(params, "crossoverRate", 0.8),
+                        getInt(params, "tournamentSize", 3));
+                ga.setEvaluator(evaluator(params));
+                ga.setSteadyState(inFlight(params), insertion(params, "worst"));
+                if (params.containsKey("seed")) {
+                    ga.setSeed(Long.parseLong(params.get("seed")));
+                }
+                ga.setRandomGenerator(randomGenerator(params));
+                return ga;
+            }
+            case "de":
+            case "differentialevolution": {
+                DifferentialEvolution de = new DifferentialEvolution(iterations,
+                        getInt(params, "populationSize", 40),
+                        getDouble(params, "F", 0.8),
+                        getDouble(params, "CR", 0.9),
+                        strategy(params.getOrDefault("strategy", "rand/1")),
+                        crossover(params.getOrDefault("crossover", "bin")));
+                de.setEvaluator(evaluator(params));
+                de.setSteadyState(inFlight(params), insertion(params, "parent"));
+                if (params.containsKey("seed")) {
+                    de.setSeed(Long.parseLong(params.get("seed")));
+                }
+                de.setRandomGenerator(randomGenerator(params));
+                return de;
+            }
+            case "aco":
+            case "antcolonyoptimization": {
+                AntColonyOptimization aco = new AntColonyOptimization(iterations,
+                        getInt(params, "ants", 30),
+                        getInt(params, "archiveSize", 10),
+                        getDouble(params, "exploitation", 0.85));
+                aco.setLocality(getDouble(params, "q", 0.5));
+                aco.setEvaluator(evaluator(params));
+                if (params.containsKey("seed")) {
+                    aco.setSeed(Long.parseLong(params.get("seed")));
+                }
+                aco.setRandomGenerator(randomGenerator(params));
+                return aco;
+            }
+            case "cmaes":
+            case "cmaevolutionstrategy": {
+                CMAEvolutionStrategy cmaes = new CMAEvolutionStrategy(iterations,
+                        getInt(params, "populationSize", 0),
+                        getDouble(params, "sigma", 0.3),
+                        CMAEvolutionStrategy.Restarts.valueOf(
+                                params.getOrDefault("restarts", "bipop").toUpperCase()));
+                String separable = params.getOrDefault("separable", "auto");
+                if (!separable.equalsIgnoreCase("auto")) {
+                    cmaes.setSeparable(Boolean.parseBoolean(separable));
+                }
+                cmaes.setEvaluator(evaluator(params));
+                if (params.containsKey("seed")) {
+                    cmaes.setSeed(Long.parseLong(params.get("seed")));
+                }
+                cmaes.setRandomGenerator(randomGenerator(params));
+                return cmaes;
+            }
+            case "islands":
+            case "islandmodel":
+                return islandModel(params);
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + name + " (known: " + names() + ")");
+        }
+    }
+    
+    private static IslandModel islandModel(Map<String, String> params) {
+        String island = params.getOrDefault("island", "de");
+        if (normalize(island).equals("islands") || normalize(island).equals("islandmodel")) {
+            throw new IllegalArgumentException("Islands cannot be island models");
+        }
+        IslandModel model = new IslandModel(i -> {
+            Map<String, String> islandParams = new HashMap<>(params);
+            if (params.containsKey("seed")) {
+                islandParams.put("seed", Long.toString(Long.parseLong(params.get("seed")) + i));
+            }
+            return create(island, islandParams);
+        }, getInt(params, "islands", 4));
+        model.setMigrationTopology(IslandModel.MigrationTopology.valueOf(
+                params.getOrDefault("migration", "ring").toUpperCase().replace('-', '_')));
+        model.setReplacement(IslandModel.Replacement.valueOf(
+                params.getOrDefault("replacement", "worst").toUpperCase()));
+        model.setMigrationInterval(getInt(params, "interval", 10));
+        model.setMigrants(getInt(params, "migrants", 1));
+        if (params.containsKey("seed")) {
+            model.setSeed(Long.parseLong(params.get("seed")));
+        }
+        model.setRandomGenerator(randomGenerator(params));
+        return model;
+    }
+    
+    private static Rng.Kind randomGenerator(Map<String, String> params) {
+        String value = params.get("rng");
+        return value == null ? Rng.getDefaultKind() : Rng.Kind.parse(value.trim());
+    }
+    
+    private static Evaluator evaluator(Map<String, String> params) {
+        String name = params.getOrDefault("evaluator", "serial");
+        switch (normalize(name)) {
+            case "serial":
+                return Evaluator.serial();
+            case "forkjoin":
+                return Evaluator.forkJoin();
+            case "virtual":
+            case "virtualthreads":
+                return Evaluator.virtualThreads();
+            default:
+                throw new IllegalArgumentException("Unknown evaluator: " + name);
+        }
+    }
+    
+    private static int inFlight(Map<String, String> params) {
+        String value = params.getOrDefault("async", "0").trim();
+        return value.equalsIgnoreCase("auto") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value);
+    }
+    
+    private static AsyncEvaluator.Insertion insertion(Map<String, String> params, String defaultValue) {
+        String value = params.getOrDefault("insert", defaultValue);
+        try {
+            return AsyncEvaluator.Insertion.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown insertion: " + value + " (known: worst, parent)");
+        }
+    }
+    
+    private static DifferentialEvolution.Strategy strategy(String label) {
+        for (DifferentialEvolution.Strategy strategy : DifferentialEvolution.Strategy.values()) {
+            if (strategy.toString().equalsIgnoreCase(label) || strategy.name().equalsIgnoreCase(label)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown DE strategy: " + label);
+    }
+    
+    private static DifferentialEvolution.Crossover crossover(String label) {
+        for (DifferentialEvolution.Crossover crossover : DifferentialEvolution.Crossover.values()) {
+            if (crossover.toString().equalsIgnoreCase(label) || crossover.name().equalsIgnoreCase(label)) {
+                return crossover;
+            }
+        }
+        throw new IllegalArgumentException("Unknown DE crossover: " + label);
+    }
+    
+    private static int getInt(Map<String, String> params, String key, int defaultValue) {
+        String value = params.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+    
+    private static double getDouble(Map<String, String> params, String key, double defaultValue) {
+        String value = params.get(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+    
+    private static String normalize(String name) {
+        return name.toLowerCase().replaceAll("[\\s_-]", "");
+    }
+}
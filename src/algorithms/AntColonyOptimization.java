@@ -1,40 +1,79 @@
 package algorithms;
 
 import core.Algorithm;
+import core.Evaluator;
+import core.Population;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 
 /**
- * Continuous ACO (ACO_R - ACO for continuous domains)
- * Based on Gaussian kernels around solution archive
+ * ACO_R, ant colony optimization for continuous domains (Socha and Dorigo
+ * 2008). The colony keeps an archive of the k best solutions found so far.
+ * Each ant picks an archive member l with probability proportional to a
+ * Gaussian weight of its rank, exp(-rank^2 / (2 q^2 k^2)), and samples
+ * every coordinate from a normal distribution centred on member l. The
+ * spread in dimension i is xi times the mean distance from member l to
+ * the other members in that dimension.
+ *
+ * <p>The cost per ant is O(D log k), whatever the archive size. The
+ * cumulative rank weights are computed once, so choosing a member is a
+ * binary search. Each coordinate of the archive is also kept as a sorted
+ * column with prefix sums, so the summed distance to all members in a
+ * dimension takes one binary search rather than k subtractions. The
+ * archive rows stay in fixed slots, and only a rank -> slot array is kept
+ * sorted. Inserting an ant therefore costs a few binary searches and
+ * array shifts, and rejecting one costs a single comparison. Archives of
+ * thousands of members stay cheap.
  */
 public class AntColonyOptimization implements Algorithm {
     private Problem problem;
     private SearchSpace searchSpace;
-    private List<Solution> solutionArchive;
+    // Archive rows by slot, and rank -> slot, best first
+    private Population solutionArchive;
+    private int[] ranked;
+    private Population ants;
     private Solution bestSolution;
-    private List<Solution> currentSolutions;
     private int iteration;
     private int maxIterations;
     private int numAnts;
     private int archiveSize;
     private double exploitationFactor;
-    private Random random;
+    private double locality;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
+    private Evaluator evaluator;
     
-    public AntColonyOptimization(int maxIterations, int numAnts, 
+    // Cumulative rank weights; each dimension's archive coordinates in
+    // ascending order (k per dimension) and their prefix sums (k + 1)
+    private double[] cumulativeWeights;
+    private double[] columns;
+    private double[] prefix;
+    
+    /**
+     * @param archiveSize k, at least 2
+     * @param exploitationFactor xi; larger values spread the ants further
+     *                           and slow convergence
+     */
+    public AntColonyOptimization(int maxIterations, int numAnts,
                                 int archiveSize, double exploitationFactor) {
+        if (archiveSize < 2) {
+            throw new IllegalArgumentException("archiveSize must be at least 2");
+        }
         this.maxIterations = maxIterations;
         this.numAnts = numAnts;
         this.archiveSize = archiveSize;
         this.exploitationFactor = exploitationFactor;
-        this.solutionArchive = new ArrayList<>();
-        this.currentSolutions = new ArrayList<>();
+        this.locality = 0.5;
         this.iteration = 0;
-        this.random = new Random();
+        this.evaluator = Evaluator.serial();
     }
     
     public AntColonyOptimization(int maxIterations, int numAnts) {
@@ -42,28 +81,127 @@ public class AntColonyOptimization implements Algorithm {
         this(maxIterations, numAnts, 10, 0.85);
     }
     
+    /**
+     * Set the evaluator used to score each batch of ants
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+    
+    /**
+     * q, the width of the rank weighting relative to the archive size.
+     * Small values almost always pick the best members; large values
+     * pick nearly uniformly. Takes effect on the next initialize().
+     */
+    public void setLocality(double locality) {
+        if (locality <= 0) {
+            throw new IllegalArgumentException("locality must be positive");
+        }
+        this.locality = locality;
+    }
+    
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
+    }
+    
     @Override
     public void initialize(Problem problem) {
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
+        prepare(problem);
+        this.iteration = 0;
+        
+        // Initialize archive with random solutions, generated in the ant
+        // buffer so they are inserted into the archive like any batch
+        ants.setSize(archiveSize);
+        ants.randomize(searchSpace);
+        ants.evaluate(problem, evaluator);
+        solutionArchive.setSize(0);
+        for (int i = 0; i < archiveSize; i++) {
+            insert(i);
+        }
+        ants.setSize(numAnts);
+        updatePrefix();
+        
+        bestSolution = solutionArchive.toSolution(ranked[0]);
+    }
+    
+    /**
+     * Set up the search space, the archive, the ant buffer and the rank
+     * weights without filling the archive
+     */
+    private void prepare(Problem problem) {
         this.problem = problem;
         this.searchSpace = new SearchSpace(
             problem.getDimensions(),
             problem.getLowerBound(),
-            problem.getUpperBound()
+            problem.getUpperBound(),
+            random
         );
-        this.iteration = 0;
-        this.solutionArchive.clear();
-        this.currentSolutions.clear();
+        int dimensions = problem.getDimensions();
+        this.solutionArchive = new Population(archiveSize, dimensions);
+        this.ranked = new int[archiveSize];
+        this.ants = new Population(Math.max(numAnts, archiveSize), dimensions);
+        this.columns = new double[archiveSize * dimensions];
+        this.prefix = new double[(archiveSize + 1) * dimensions];
         
-        // Initialize archive with random solutions
-        for (int i = 0; i < archiveSize; i++) {
-            Solution sol = searchSpace.getRandomSolution();
-            sol.setFitness(problem.evaluate(sol.getPosition()));
-            solutionArchive.add(sol);
+        // The weights depend on rank alone, so they never change
+        this.cumulativeWeights = new double[archiveSize];
+        double width = locality * archiveSize;
+        double total = 0.0;
+        for (int rank = 0; rank < archiveSize; rank++) {
+            total += Math.exp(-(double) rank * rank / (2.0 * width * width));
+            cumulativeWeights[rank] = total;
+        }
+    }
+    
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writePopulation(solutionArchive);
+        out.writeInts(ranked);
+        out.writeSolution(bestSolution);
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.random = in.readRandom();
+        prepare(problem);
+        this.iteration = in.readInt();
+        this.solutionArchive = in.readPopulation(archiveSize, problem.getDimensions());
+        int[] order = in.readInts();
+        if (order.length != archiveSize) {
+            throw new IllegalStateException("Checkpoint archive ranking has " + order.length + " entries where "
+                                            + archiveSize + " were expected");
         }
+        System.arraycopy(order, 0, ranked, 0, archiveSize);
+        this.bestSolution = in.readSolution();
+        ants.setSize(numAnts);
         
-        // Sort archive by fitness
-        solutionArchive.sort((a, b) -> Double.compare(a.getFitness(), b.getFitness()));
-        bestSolution = new Solution(solutionArchive.get(0));
+        int dimensions = problem.getDimensions();
+        for (int d = 0; d < dimensions; d++) {
+            int base = d * archiveSize;
+            for (int slot = 0; slot < archiveSize; slot++) {
+                columns[base + slot] = solutionArchive.get(slot, d);
+            }
+            Arrays.sort(columns, base, base + archiveSize);
+        }
+        updatePrefix();
     }
     
     @Override
@@ -72,83 +210,176 @@ public class AntColonyOptimization implements Algorithm {
             return false;
         }
         
-        currentSolutions.clear();
-        List<Solution> newSolutions = new ArrayList<>();
-        
         // Generate ants
         for (int i = 0; i < numAnts; i++) {
-            Solution ant = generateAnt();
-            ant.setFitness(problem.evaluate(ant.getPosition()));
-            newSolutions.add(ant);
-            currentSolutions.add(new Solution(ant));
+            generateAnt(i);
+        }
+        ants.evaluate(problem, evaluator);
+        
+        // Update archive; ants no better than the worst member are dropped
+        boolean changed = false;
+        for (int i = 0; i < numAnts; i++) {
+            changed |= insert(i);
+        }
+        if (changed) {
+            updatePrefix();
             
             // Update best
-            if (ant.getFitness() < bestSolution.getFitness()) {
-                bestSolution = new Solution(ant);
+            int best = ranked[0];
+            if (solutionArchive.getFitness(best) < bestSolution.getFitness()) {
+                solutionArchive.copyTo(best, bestSolution);
             }
         }
         
-        // Update archive
-        updateArchive(newSolutions);
-        
         iteration++;
         return true;
     }
     
-    private Solution generateAnt() {
-        double[] position = new double[problem.getDimensions()];
+    private void generateAnt(int ant) {
+        double[] archive = solutionArchive.positions();
+        double[] position = ants.positions();
+        int dimensions = ants.getDimensions();
         
-        // Select solution from archive based on weights
-        Solution selected = selectFromArchive();
+        // Pick the guiding member by rank weight, then sample around it
+        int guide = solutionArchive.offset(ranked[selectRank()]);
+        int offset = ants.offset(ant);
+        double scale = exploitationFactor / (archiveSize - 1);
         
-        // Generate new solution using Gaussian distribution around selected
-        double sigma = exploitationFactor * (problem.getUpperBound() - problem.getLowerBound()) / 
-                      (2.0 * archiveSize);
-        
-        for (int i = 0; i < position.length; i++) {
-            position[i] = selected.getPosition()[i] + random.nextGaussian() * sigma;
+        // Draw the whole row of deviates at once, then scale and shift it
+        random.nextGaussians(position, offset, dimensions);
+        for (int i = 0; i < dimensions; i++) {
+            double mean = archive[guide + i];
+            double sigma = scale * distanceSum(i, mean);
+            position[offset + i] = mean + position[offset + i] * sigma;
         }
         
-        searchSpace.clamp(position);
-        return new Solution(position);
+        searchSpace.clamp(position, offset, dimensions);
     }
     
-    private Solution selectFromArchive() {
-        // Rank-based selection - better solutions more likely to be selected
-        double[] weights = new double[solutionArchive.size()];
-        double totalWeight = 0.0;
-        
-        for (int i = 0; i < solutionArchive.size(); i++) {
-            weights[i] = 1.0 / (i + 1); // Rank weight
-            totalWeight += weights[i];
+    /**
+     * Rank drawn with probability proportional to its weight: the first
+     * rank whose cumulative weight exceeds a uniform draw
+     */
+    private int selectRank() {
+        double u = random.nextDouble() * cumulativeWeights[archiveSize - 1];
+        int lo = 0;
+        int hi = archiveSize - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulativeWeights[mid] > u) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Insert ant i into the archive if there is room or it beats the worst
+     * member, whose slot it then takes. Returns whether it was inserted.
+     */
+    private boolean insert(int i) {
+        double value = ants.getFitness(i);
+        int size = solutionArchive.size();
+        int slot;
+        if (size < archiveSize) {
+            slot = size;
+            solutionArchive.setSize(size + 1);
+        } else if (value < solutionArchive.getFitness(ranked[size - 1])) {
+            slot = ranked[--size];
+            removeFromColumns(slot, size + 1);
+        } else {
+            return false;
         }
         
-        double rand = random.nextDouble() * totalWeight;
-        double cumulative = 0.0;
-        
-        for (int i = 0; i < solutionArchive.size(); i++) {
-            cumulative += weights[i];
-            if (rand <= cumulative) {
-                return solutionArchive.get(i);
+        // First rank whose member is worse; equal members keep precedence
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (solutionArchive.getFitness(ranked[mid]) > value) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
             }
         }
-        
-        return solutionArchive.get(0);
+        System.arraycopy(ranked, lo, ranked, lo + 1, size - lo);
+        ranked[lo] = slot;
+        ants.copyTo(i, solutionArchive, slot);
+        addToColumns(slot, size);
+        return true;
     }
     
-    private void updateArchive(List<Solution> newSolutions) {
-        // Merge new solutions with archive
-        solutionArchive.addAll(newSolutions);
-        
-        // Sort by fitness
-        solutionArchive.sort((a, b) -> Double.compare(a.getFitness(), b.getFitness()));
-        
-        // Keep only best archiveSize solutions
-        if (solutionArchive.size() > archiveSize) {
-            solutionArchive = new ArrayList<>(solutionArchive.subList(0, archiveSize));
+    /**
+     * Take the coordinates of the member in slot out of the sorted
+     * columns, which hold length values each
+     */
+    private void removeFromColumns(int slot, int length) {
+        for (int d = 0; d < solutionArchive.getDimensions(); d++) {
+            int base = d * archiveSize;
+            int at = lowerBound(columns, base, length, solutionArchive.get(slot, d));
+            System.arraycopy(columns, base + at + 1, columns, base + at, length - at - 1);
+        }
+    }
+    
+    /**
+     * Put the coordinates of the member in slot into the sorted columns,
+     * which hold length values each
+     */
+    private void addToColumns(int slot, int length) {
+        for (int d = 0; d < solutionArchive.getDimensions(); d++) {
+            int base = d * archiveSize;
+            double v = solutionArchive.get(slot, d);
+            int at = lowerBound(columns, base, length, v);
+            System.arraycopy(columns, base + at, columns, base + at + 1, length - at);
+            columns[base + at] = v;
         }
     }
     
+    private void updatePrefix() {
+        int k = solutionArchive.size();
+        for (int d = 0; d < solutionArchive.getDimensions(); d++) {
+            int column = d * archiveSize;
+            int sums = d * (archiveSize + 1);
+            prefix[sums] = 0.0;
+            for (int j = 0; j < k; j++) {
+                prefix[sums + j + 1] = prefix[sums + j] + columns[column + j];
+            }
+        }
+    }
+    
+    /**
+     * Sum over the archive of |x_e,d - v|. With r members below v, that
+     * is v r - prefix[r] + (total - prefix[r]) - v (k - r).
+     */
+    private double distanceSum(int d, double v) {
+        int k = archiveSize;
+        int sums = d * (k + 1);
+        int r = lowerBound(columns, d * k, k, v);
+        double below = v * r - prefix[sums + r];
+        double above = prefix[sums + k] - prefix[sums + r] - v * (k - r);
+        // Rounding can leave a tiny negative sum once the archive has converged
+        return Math.max(0.0, below + above);
+    }
+    
+    /**
+     * Number of values in sorted[base .. base + length) that are smaller than v
+     */
+    private static int lowerBound(double[] sorted, int base, int length, double v) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[base + mid] < v) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
     @Override
     public Solution getBestSolution() {
         return bestSolution;
@@ -156,14 +387,20 @@ public class AntColonyOptimization implements Algorithm {
     
     @Override
     public List<Solution> getCurrentSolutions() {
-        return new ArrayList<>(currentSolutions);
+        if (ants == null || iteration == 0) {
+            return new ArrayList<>();
+        }
+        return ants.toSolutions();
+    }
+    
+    @Override
+    public Population getCurrentPopulation() {
+        return iteration == 0 ? null : ants;
     }
     
     @Override
     public void reset() {
         iteration = 0;
-        solutionArchive.clear();
-        currentSolutions.clear();
         if (problem != null) {
             initialize(problem);
         }
@@ -178,4 +415,9 @@ public class AntColonyOptimization implements Algorithm {
     public int getIteration() {
         return iteration;
     }
-}
\ No newline at end of file
+    
+    @Override
+    public double getDiversity() {
+        return solutionArchive == null ? Double.NaN : solutionArchive.diversity();
+    }
+}
@@ -0,0 +1,753 @@
+package algorithms;
+
+import core.Algorithm;
+import core.Evaluator;
+import core.Population;
+import core.Problem;
+import core.Rng;
+import core.Solution;
+import core.StateReader;
+import core.StateWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CMA-ES, the covariance matrix adaptation evolution strategy (Hansen,
+ * "The CMA Evolution Strategy: A Tutorial", 2016), with optional IPOP or
+ * BIPOP restarts. It samples lambda points from N(mean, sigma^2 C) each
+ * generation. It then moves the mean to the weighted mean of the best mu,
+ * adapts C from the successful steps (rank-one and rank-mu updates), and
+ * adapts sigma by cumulative step-size control. C learns the correlations
+ * between variables, so rotated and ill-conditioned problems cost little
+ * more than separable ones.
+ *
+ * <p>C is kept as a packed lower triangle. Sampling needs C = B D^2 B^T.
+ * The eigendecomposition costs O(n^3), so it is redone only every
+ * 1 / ((c1 + cmu) n 10) generations, which is often enough for B and D to
+ * stay accurate (the tutorial's lazy update). Above SEPARABLE_DIMENSIONS
+ * variables, C is restricted to its diagonal (sep-CMA-ES, Ros and Hansen
+ * 2008). That makes a generation O(lambda n) and needs no decomposition.
+ *
+ * <p>A run that converges stops according to the tutorial's criteria:
+ * TolFun, TolX, NoEffectAxis, NoEffectCoord and ConditionCov. Then,
+ * depending on the restart strategy, it either ends or restarts from a
+ * uniformly random mean. IPOP doubles lambda on every restart. BIPOP
+ * alternates between that and short runs with a small population and
+ * step size, always choosing the regime that has used fewer evaluations.
+ * Out-of-bounds samples are clamped, and the clamped step is what the
+ * strategy learns from.
+ */
+public class CMAEvolutionStrategy implements Algorithm {
+    /**
+     * What to do when a run has converged
+     */
+    public enum Restarts {
+        /** Stop */
+        NONE,
+        /** Restart with twice the population */
+        IPOP,
+        /** Alternate IPOP restarts with small-population, small-step restarts */
+        BIPOP
+    }
+    
+    /** Above this many variables the covariance matrix is kept diagonal */
+    public static final int SEPARABLE_DIMENSIONS = 500;
+    /** IPOP doubles the population at most this many times */
+    private static final int MAX_LARGE_RESTARTS = 9;
+    private static final double TOL_FUN = 1e-12;
+    private static final double TOL_X = 1e-12;
+    private static final double MAX_CONDITION = 1e14;
+    
+    private Problem problem;
+    private int dimensions;
+    private double lower;
+    private double upper;
+    private Population population;
+    private Solution bestSolution;
+    private int iteration;
+    private int maxIterations;
+    private int defaultLambda;
+    private double initialSigma;
+    private Restarts restarts;
+    private Boolean separable;
+    private boolean diagonal;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
+    private Evaluator evaluator;
+    
+    // Strategy parameters of the current run
+    private int lambda;
+    private int mu;
+    private double[] weights;
+    private double mueff;
+    private double cc;
+    private double cs;
+    private double c1;
+    private double cmu;
+    private double damps;
+    private double chiN;
+    private int eigenInterval;
+    
+    // State of the current run
+    private double[] mean;
+    private double[] oldMean;
+    private double sigma;
+    private double runSigma;
+    private double[] pc;
+    private double[] ps;
+    private double[] covariance;
+    private double[] eigenvectors;
+    private double[] axes;
+    private int generation;
+    private int lastEigen;
+    private double[] history;
+    private int historyCount;
+    private boolean finished;
+    
+    // Restart bookkeeping
+    private int largeRestarts;
+    private boolean largeRegime;
+    private long largeEvaluations;
+    private long smallEvaluations;
+    
+    // Per-generation scratch
+    private double[] z;
+    private int[] order;
+    private int[] sortBuffer;
+    private double[] step;
+    private double[] scratch;
+    private double[] eigenScratch;
+    
+    /**
+     * @param populationSize lambda, or 0 for the default 4 + 3 ln n
+     * @param initialSigma initial step size as a fraction of the bounds' range
+     */
+    public CMAEvolutionStrategy(int maxIterations, int populationSize, double initialSigma,
+                                Restarts restarts) {
+        if (populationSize != 0 && populationSize < 2) {
+            throw new IllegalArgumentException("populationSize must be at least 2 (or 0 for the default)");
+        }
+        if (initialSigma <= 0) {
+            throw new IllegalArgumentException("initialSigma must be positive");
+        }
+        this.maxIterations = maxIterations;
+        this.defaultLambda = populationSize;
+        this.initialSigma = initialSigma;
+        this.restarts = restarts;
+        this.iteration = 0;
+        this.evaluator = Evaluator.serial();
+    }
+    
+    public CMAEvolutionStrategy(int maxIterations) {
+        // Default population, sigma of 0.3 x range, BIPOP restarts
+        this(maxIterations, 0, 0.3, Restarts.BIPOP);
+    }
+    
+    /**
+     * Set the evaluator used to score each generation
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+    
+    /**
+     * Force the diagonal (true) or full (false) covariance model; by
+     * default it is diagonal above SEPARABLE_DIMENSIONS variables
+     */
+    public void setSeparable(boolean separable) {
+        this.separable = separable;
+    }
+    
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
+    }
+    
+    @Override
+    public void initialize(Problem problem) {
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
+        this.problem = problem;
+        this.dimensions = problem.getDimensions();
+        this.lower = problem.getLowerBound();
+        this.upper = problem.getUpperBound();
+        this.diagonal = separable != null ? separable : dimensions > SEPARABLE_DIMENSIONS;
+        this.iteration = 0;
+        this.finished = false;
+        this.largeRestarts = 0;
+        this.largeRegime = true;
+        this.largeEvaluations = 0;
+        this.smallEvaluations = 0;
+        
+        int lambda = defaultLambda > 0 ? defaultLambda : 4 + (int) (3 * Math.log(dimensions));
+        configure(lambda);
+        start(initialSigma * (upper - lower));
+        // The initial mean is the best point known before the first generation
+        this.bestSolution = new Solution(mean);
+        bestSolution.setFitness(problem.evaluate(mean));
+    }
+    
+    /**
+     * Allocate the run's arrays and derive the strategy parameters for
+     * population size lambda (tutorial, Table 1)
+     */
+    private void configure(int lambda) {
+        int n = dimensions;
+        this.lambda = lambda;
+        this.mu = lambda / 2;
+        this.weights = new double[mu];
+        double sum = 0.0;
+        for (int i = 0; i < mu; i++) {
+            weights[i] = Math.log((lambda + 1) / 2.0) - Math.log(i + 1);
+            sum += weights[i];
+        }
+        double squares = 0.0;
+        for (int i = 0; i < mu; i++) {
+            weights[i] /= sum;
+            squares += weights[i] * weights[i];
+        }
+        this.mueff = 1.0 / squares;
+        
+        this.cc = (4 + mueff / n) / (n + 4 + 2 * mueff / n);
+        this.cs = (mueff + 2) / (n + mueff + 5);
+        this.c1 = 2 / ((n + 1.3) * (n + 1.3) + mueff);
+        this.cmu = Math.min(1 - c1, 2 * (mueff - 2 + 1 / mueff) / ((n + 2) * (n + 2) + mueff));
+        if (diagonal) {
+            // sep-CMA-ES learns only n variances, so it can learn them faster
+            c1 *= (n + 2) / 3.0;
+            cmu = Math.min(1 - c1, cmu * (n + 2) / 3.0);
+        }
+        this.damps = 1 + 2 * Math.max(0, Math.sqrt((mueff - 1) / (n + 1)) - 1) + cs;
+        this.chiN = Math.sqrt(n) * (1 - 1.0 / (4 * n) + 1.0 / (21.0 * n * n));
+        this.eigenInterval = Math.max(1, (int) (1.0 / ((c1 + cmu) * n * 10)));
+        
+        this.population = new Population(lambda, n);
+        this.z = new double[lambda * n];
+        this.order = new int[lambda];
+        this.sortBuffer = new int[lambda];
+        this.mean = new double[n];
+        this.oldMean = new double[n];
+        this.pc = new double[n];
+        this.ps = new double[n];
+        this.axes = new double[n];
+        this.step = new double[n];
+        this.scratch = new double[n];
+        this.covariance = new double[diagonal ? n : n * (n + 1) / 2];
+        this.eigenvectors = diagonal ? null : new double[n * n];
+        this.eigenScratch = diagonal ? null : new double[n];
+        this.history = new double[10 + (int) Math.ceil(30.0 * n / lambda)];
+    }
+    
+    /**
+     * Begin a run: uniform random mean, identity covariance, step size sigma
+     */
+    private void start(double sigma) {
+        int n = dimensions;
+        for (int i = 0; i < n; i++) {
+            mean[i] = lower + random.nextDouble() * (upper - lower);
+        }
+        this.sigma = sigma;
+        this.runSigma = sigma;
+        Arrays.fill(pc, 0.0);
+        Arrays.fill(ps, 0.0);
+        Arrays.fill(axes, 1.0);
+        if (diagonal) {
+            Arrays.fill(covariance, 1.0);
+        } else {
+            Arrays.fill(covariance, 0.0);
+            Arrays.fill(eigenvectors, 0.0);
+            for (int i = 0; i < n; i++) {
+                covariance[packed(i, i)] = 1.0;
+                eigenvectors[i * n + i] = 1.0;
+            }
+        }
+        this.generation = 0;
+        this.lastEigen = 0;
+        this.historyCount = 0;
+    }
+    
+    /**
+     * Index of C[i][j], i >= j, in the packed lower triangle
+     */
+    private static int packed(int i, int j) {
+        return i * (i + 1) / 2 + j;
+    }
+    
+    @Override
+    public boolean step() {
+        if (iteration >= maxIterations || finished) {
+            return false;
+        }
+        
+        if (!diagonal && generation - lastEigen >= eigenInterval) {
+            decompose();
+        }
+        sample();
+        population.evaluate(problem, evaluator);
+        if (largeRegime) {
+            largeEvaluations += lambda;
+        } else {
+            smallEvaluations += lambda;
+        }
+        sortByFitness();
+        
+        int best = order[0];
+        if (population.getFitness(best) < bestSolution.getFitness()) {
+            population.copyTo(best, bestSolution);
+        }
+        
+        update();
+        generation++;
+        iteration++;
+        
+        if (converged() && !restart()) {
+            finished = true;
+        }
+        return true;
+    }
+    
+    /**
+     * x_k = mean + sigma B D z_k, clamped; a clamped sample's z is
+     * recomputed from the step actually taken
+     */
+    private void sample() {
+        int n = dimensions;
+        double[] x = population.positions();
+        for (int k = 0; k < lambda; k++) {
+            int offset = k * n;
+            random.nextGaussians(z, offset, n);
+            if (diagonal) {
+                for (int i = 0; i < n; i++) {
+                    x[offset + i] = mean[i] + sigma * axes[i] * z[offset + i];
+                }
+            } else {
+                for (int j = 0; j < n; j++) {
+                    scratch[j] = axes[j] * z[offset + j];
+                }
+                for (int i = 0; i < n; i++) {
+                    double sum = 0.0;
+                    int row = i * n;
+                    for (int j = 0; j < n; j++) {
+                        sum += eigenvectors[row + j] * scratch[j];
+                    }
+                    x[offset + i] = mean[i] + sigma * sum;
+                }
+            }
+            
+            boolean clamped = false;
+            for (int i = offset; i < offset + n; i++) {
+                if (x[i] < lower || x[i] > upper) {
+                    x[i] = Math.max(lower, Math.min(upper, x[i]));
+                    clamped = true;
+                }
+            }
+            if (clamped) {
+                repair(offset);
+            }
+        }
+    }
+    
+    /**
+     * z = D^-1 B^T (x - mean) / sigma for the sample at offset
+     */
+    private void repair(int offset) {
+        int n = dimensions;
+        double[] x = population.positions();
+        for (int i = 0; i < n; i++) {
+            step[i] = (x[offset + i] - mean[i]) / sigma;
+        }
+        if (diagonal) {
+            for (int i = 0; i < n; i++) {
+                z[offset + i] = step[i] / axes[i];
+            }
+            return;
+        }
+        for (int j = 0; j < n; j++) {
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) {
+                sum += eigenvectors[i * n + j] * step[i];
+            }
+            z[offset + j] = sum / axes[j];
+        }
+    }
+    
+    /**
+     * Stable merge sort of the sample indices by fitness into order
+     */
+    private void sortByFitness() {
+        for (int k = 0; k < lambda; k++) {
+            order[k] = k;
+        }
+        double[] fitness = population.fitness();
+        int[] from = order;
+        int[] to = sortBuffer;
+        for (int width = 1; width < lambda; width *= 2) {
+            for (int lo = 0; lo < lambda; lo += 2 * width) {
+                int mid = Math.min(lo + width, lambda);
+                int hi = Math.min(lo + 2 * width, lambda);
+                int a = lo;
+                int b = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (a < mid && (b >= hi || fitness[from[a]] <= fitness[from[b]])) {
+                        to[k] = from[a++];
+                    } else {
+                        to[k] = from[b++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, lambda);
+        }
+    }
+    
+    /**
+     * Recombination, evolution paths, covariance and step-size update
+     */
+    private void update() {
+        int n = dimensions;
+        double[] x = population.positions();
+        
+        // mean = sum w_i x_i:lambda, and z_w = sum w_i z_i:lambda into scratch
+        System.arraycopy(mean, 0, oldMean, 0, n);
+        Arrays.fill(mean, 0.0);
+        Arrays.fill(scratch, 0.0);
+        for (int r = 0; r < mu; r++) {
+            int offset = order[r] * n;
+            double w = weights[r];
+            for (int i = 0; i < n; i++) {
+                mean[i] += w * x[offset + i];
+                scratch[i] += w * z[offset + i];
+            }
+        }
+        
+        // ps = (1 - cs) ps + sqrt(cs (2 - cs) mueff) B z_w
+        double psFactor = Math.sqrt(cs * (2 - cs) * mueff);
+        double psNorm = 0.0;
+        for (int i = 0; i < n; i++) {
+            double bz;
+            if (diagonal) {
+                bz = scratch[i];
+            } else {
+                bz = 0.0;
+                int row = i * n;
+                for (int j = 0; j < n; j++) {
+                    bz += eigenvectors[row + j] * scratch[j];
+                }
+            }
+            ps[i] = (1 - cs) * ps[i] + psFactor * bz;
+            psNorm += ps[i] * ps[i];
+        }
+        psNorm = Math.sqrt(psNorm);
+        
+        // Stall pc when ps is long, so C does not grow too fast after a jump
+        double expected = Math.sqrt(1 - Math.pow(1 - cs, 2.0 * (generation + 1))) * chiN;
+        boolean hsig = psNorm / expected < 1.4 + 2.0 / (n + 1);
+        double pcFactor = hsig ? Math.sqrt(cc * (2 - cc) * mueff) : 0.0;
+        for (int i = 0; i < n; i++) {
+            pc[i] = (1 - cc) * pc[i] + pcFactor * (mean[i] - oldMean[i]) / sigma;
+        }
+        
+        // C = (1 - c1 - cmu + c1 (1 - hsig) cc (2 - cc)) C + c1 pc pc^T + cmu sum w_i y_i y_i^T
+        double decay = 1 - c1 - cmu + (hsig ? 0.0 : c1 * cc * (2 - cc));
+        if (diagonal) {
+            for (int i = 0; i < n; i++) {
+                covariance[i] = decay * covariance[i] + c1 * pc[i] * pc[i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                int rowStart = packed(i, 0);
+                for (int j = 0; j <= i; j++) {
+                    covariance[rowStart + j] = decay * covariance[rowStart + j] + c1 * pc[i] * pc[j];
+                }
+            }
+        }
+        for (int r = 0; r < mu; r++) {
+            int offset = order[r] * n;
+            double w = cmu * weights[r];
+            for (int i = 0; i < n; i++) {
+                step[i] = (x[offset + i] - oldMean[i]) / sigma;
+            }
+            if (diagonal) {
+                for (int i = 0; i < n; i++) {
+                    covariance[i] += w * step[i] * step[i];
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    int rowStart = packed(i, 0);
+                    double wi = w * step[i];
+                    for (int j = 0; j <= i; j++) {
+                        covariance[rowStart + j] += wi * step[j];
+                    }
+                }
+            }
+        }
+        if (diagonal) {
+            for (int i = 0; i < n; i++) {
+                axes[i] = Math.sqrt(covariance[i]);
+            }
+        }
+        
+        // Cumulative step-size adaptation
+        sigma *= Math.exp(Math.min(1.0, (cs / damps) * (psNorm / chiN - 1)));
+        
+        // Flat fitness: widen the search rather than stall
+        if (population.getFitness(order[0]) == population.getFitness(order[(int) Math.ceil(0.7 * lambda) - 1])) {
+            sigma *= Math.exp(0.2 + cs / damps);
+        }
+        
+        history[historyCount++ % history.length] = population.getFitness(order[0]);
+    }
+    
+    /**
+     * Refresh B and D from C
+     */
+    private void decompose() {
+        int n = dimensions;
+        for (int i = 0; i < n; i++) {
+            int rowStart = packed(i, 0);
+            for (int j = 0; j <= i; j++) {
+                eigenvectors[i * n + j] = covariance[rowStart + j];
+                eigenvectors[j * n + i] = covariance[rowStart + j];
+            }
+        }
+        EigenDecomposition.decompose(n, eigenvectors, axes, eigenScratch);
+        for (int i = 0; i < n; i++) {
+            // Rounding can leave tiny negative eigenvalues; ConditionCov then restarts
+            axes[i] = Math.sqrt(Math.max(axes[i], Double.MIN_NORMAL));
+        }
+        lastEigen = generation;
+    }
+    
+    /**
+     * Whether the current run has stopped making progress
+     */
+    private boolean converged() {
+        int n = dimensions;
+        if (!(sigma > 0) || Double.isInfinite(sigma)) {
+            return true;
+        }
+        
+        // TolFun: the best values of recent generations and all values of this one are flat
+        if (historyCount >= history.length) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (double value : history) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            double spread = population.getFitness(order[lambda - 1]) - population.getFitness(order[0]);
+            if (max - min < TOL_FUN && spread < TOL_FUN) {
+                return true;
+            }
+        }
+        
+        // TolX: every coordinate's standard deviation and pc component is tiny
+        boolean small = true;
+        double tolX = TOL_X * runSigma;
+        for (int i = 0; i < n && small; i++) {
+            small = sigma * Math.max(Math.abs(pc[i]), Math.sqrt(variance(i))) < tolX;
+        }
+        if (small) {
+            return true;
+        }
+        
+        // ConditionCov
+        double maxAxis = 0.0;
+        double minAxis = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            maxAxis = Math.max(maxAxis, axes[i]);
+            minAxis = Math.min(minAxis, axes[i]);
+        }
+        if (maxAxis * maxAxis > MAX_CONDITION * minAxis * minAxis) {
+            return true;
+        }
+        
+        // NoEffectCoord: a step of 0.2 standard deviations leaves a coordinate of the mean unchanged
+        for (int i = 0; i < n; i++) {
+            if (mean[i] == mean[i] + 0.2 * sigma * Math.sqrt(variance(i))) {
+                return true;
+            }
+        }
+        
+        // NoEffectAxis: a step of 0.1 sigma along one principal axis, cycling through them
+        if (!diagonal) {
+            int axis = generation % n;
+            boolean noEffect = true;
+            for (int i = 0; i < n && noEffect; i++) {
+                noEffect = mean[i] == mean[i] + 0.1 * sigma * axes[axis] * eigenvectors[i * n + axis];
+            }
+            if (noEffect) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private double variance(int i) {
+        return diagonal ? covariance[i] : covariance[packed(i, i)];
+    }
+    
+    /**
+     * Start the next run, if the restart strategy allows one
+     */
+    private boolean restart() {
+        if (restarts == Restarts.NONE) {
+            return false;
+        }
+        int baseLambda = defaultLambda > 0 ? defaultLambda : 4 + (int) (3 * Math.log(dimensions));
+        double baseSigma = initialSigma * (upper - lower);
+        
+        if (restarts == Restarts.IPOP || largeEvaluations <= smallEvaluations) {
+            if (largeRestarts == MAX_LARGE_RESTARTS) {
+                return false;
+            }
+            largeRestarts++;
+            largeRegime = true;
+            configure(baseLambda << largeRestarts);
+            start(baseSigma);
+        } else {
+            // Small regime: population between the default and half the
+            // current large one, step size between 1/100 and 1 of the default
+            double u = random.nextDouble();
+            double largeLambda = (double) (baseLambda << largeRestarts);
+            int smallLambda = (int) (baseLambda * Math.pow(0.5 * largeLambda / baseLambda, u * u));
+            largeRegime = false;
+            configure(Math.max(2, smallLambda));
+            start(baseSigma * Math.pow(10, -2 * random.nextDouble()));
+        }
+        return true;
+    }
+    
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writeBoolean(finished);
+        out.writeInt(largeRestarts);
+        out.writeBoolean(largeRegime);
+        out.writeLong(largeEvaluations);
+        out.writeLong(smallEvaluations);
+        out.writeInt(lambda);
+        out.writeDouble(sigma);
+        out.writeDouble(runSigma);
+        out.writeInt(generation);
+        out.writeInt(lastEigen);
+        out.writeInt(historyCount);
+        out.writeDoubles(history);
+        out.writeDoubles(mean);
+        out.writeDoubles(pc);
+        out.writeDoubles(ps);
+        out.writeDoubles(covariance);
+        out.writeDoubles(axes);
+        if (!diagonal) {
+            out.writeDoubles(eigenvectors);
+        }
+        out.writeSolution(bestSolution);
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.random = in.readRandom();
+        this.problem = problem;
+        this.dimensions = problem.getDimensions();
+        this.lower = problem.getLowerBound();
+        this.upper = problem.getUpperBound();
+        this.diagonal = separable != null ? separable : dimensions > SEPARABLE_DIMENSIONS;
+        this.iteration = in.readInt();
+        this.finished = in.readBoolean();
+        this.largeRestarts = in.readInt();
+        this.largeRegime = in.readBoolean();
+        this.largeEvaluations = in.readLong();
+        this.smallEvaluations = in.readLong();
+        configure(in.readInt());
+        this.sigma = in.readDouble();
+        this.runSigma = in.readDouble();
+        this.generation = in.readInt();
+        this.lastEigen = in.readInt();
+        this.historyCount = in.readInt();
+        in.readDoubles(history);
+        in.readDoubles(mean);
+        in.readDoubles(pc);
+        in.readDoubles(ps);
+        in.readDoubles(covariance);
+        in.readDoubles(axes);
+        if (!diagonal) {
+            in.readDoubles(eigenvectors);
+        }
+        this.bestSolution = in.readSolution();
+    }
+    
+    @Override
+    public Solution getBestSolution() {
+        return bestSolution;
+    }
+    
+    @Override
+    public List<Solution> getCurrentSolutions() {
+        if (population == null || iteration == 0) {
+            return new ArrayList<>();
+        }
+        return population.toSolutions();
+    }
+    
+    @Override
+    public Population getCurrentPopulation() {
+        return iteration == 0 ? null : population;
+    }
+    
+    @Override
+    public void reset() {
+        iteration = 0;
+        if (problem != null) {
+            initialize(problem);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "CMA-ES";
+    }
+    
+    @Override
+    public int getIteration() {
+        return iteration;
+    }
+    
+    @Override
+    public double getDiversity() {
+        return population == null ? Double.NaN : population.diversity();
+    }
+    
+    /**
+     * Current step size, for display
+     */
+    public double getSigma() {
+        return sigma;
+    }
+    
+    /**
+     * Population size of the current run
+     */
+    public int getLambda() {
+        return lambda;
+    }
+}
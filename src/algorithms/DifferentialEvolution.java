@@ -1,36 +1,132 @@
 package algorithms;
 
 import core.Algorithm;
+import core.AsyncEvaluator;
+import core.Evaluator;
+import core.Instrumented;
+import core.Migratable;
+import core.Population;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
-public class DifferentialEvolution implements Algorithm {
+public class DifferentialEvolution implements Algorithm, Migratable, Instrumented, AutoCloseable {
+    /**
+     * Mutation strategies, named DE/x/y after the base vector and the
+     * number of difference vectors
+     */
+    public enum Strategy {
+        /** v = x_r1 + F (x_r2 - x_r3) */
+        RAND_1("rand/1", 4),
+        /** v = x_best + F (x_r1 - x_r2) */
+        BEST_1("best/1", 3),
+        /** v = x_i + F (x_best - x_i) + F (x_r1 - x_r2) */
+        CURRENT_TO_BEST_1("current-to-best/1", 3),
+        /** v = x_r1 + F (x_r2 - x_r3) + F (x_r4 - x_r5) */
+        RAND_2("rand/2", 6),
+        /**
+         * v = x_i + F (x_pbest - x_i) + F (x_r1 - x~_r2), where x_pbest is one
+         * of the best p * NP individuals and x~_r2 is drawn from the population
+         * united with an external archive of replaced parents (JADE)
+         */
+        CURRENT_TO_PBEST_1("current-to-pbest/1", 3);
+        
+        private final String label;
+        private final int minPopulation;
+        
+        Strategy(String label, int minPopulation) {
+            this.label = label;
+            this.minPopulation = minPopulation;
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
+    /**
+     * How trial vectors inherit coordinates from the mutant
+     */
+    public enum Crossover {
+        /** Each coordinate independently with probability CR, plus one forced */
+        BINOMIAL("bin"),
+        /** A run of consecutive coordinates (wrapping) whose length is geometric in CR */
+        EXPONENTIAL("exp");
+        
+        private final String label;
+        
+        Crossover(String label) {
+            this.label = label;
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
     private Problem problem;
     private SearchSpace searchSpace;
-    private List<Solution> population;
+    private Population population;
+    private Population nextPopulation;
     private Solution bestSolution;
-    private List<Solution> currentSolutions;
     private int iteration;
+    private long proposals;
+    private long acceptances;
     private int maxIterations;
     private int populationSize;
     private double mutationFactor;
     private double crossoverRate;
-    private Random random;
+    private Strategy strategy;
+    private Crossover crossover;
+    private double pBestRate;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
+    private Evaluator evaluator;
+    private MutationKernel kernel;
+    private double[] mutant;
+    private int[] indices;
+    private int[] rankOrder;
+    private double[] archive;
+    private int archiveCount;
+    private int inFlight;
+    private AsyncEvaluator.Insertion insertion;
+    private AsyncEvaluator pipeline;
+    private int nextTarget;
     
-    public DifferentialEvolution(int maxIterations, int populationSize, 
-                                double mutationFactor, double crossoverRate) {
+    public DifferentialEvolution(int maxIterations, int populationSize,
+                                double mutationFactor, double crossoverRate,
+                                Strategy strategy, Crossover crossover) {
+        if (populationSize < strategy.minPopulation) {
+            throw new IllegalArgumentException("DE/" + strategy + " needs a population of at least "
+                                               + strategy.minPopulation);
+        }
         this.maxIterations = maxIterations;
         this.populationSize = populationSize;
         this.mutationFactor = mutationFactor;
         this.crossoverRate = crossoverRate;
-        this.population = new ArrayList<>();
-        this.currentSolutions = new ArrayList<>();
+        this.strategy = strategy;
+        this.crossover = crossover;
+        this.pBestRate = 0.1;
         this.iteration = 0;
-        this.random = new Random();
+        this.evaluator = Evaluator.serial();
+        this.kernel = MutationKernel.create();
+        this.indices = new int[5];
+        this.rankOrder = new int[populationSize];
+        this.insertion = AsyncEvaluator.Insertion.PARENT;
+    }
+    
+    public DifferentialEvolution(int maxIterations, int populationSize,
+                                double mutationFactor, double crossoverRate) {
+        this(maxIterations, populationSize, mutationFactor, crossoverRate,
+             Strategy.RAND_1, Crossover.BINOMIAL);
     }
     
     public DifferentialEvolution(int maxIterations, int populationSize) {
@@ -38,31 +134,122 @@ public class DifferentialEvolution implements Algorithm {
         this(maxIterations, populationSize, 0.8, 0.9);
     }
     
+    /**
+     * Set the evaluator used to score each generation
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+    
+    /**
+     * Fraction of the population current-to-pbest/1 draws x_pbest from (JADE uses 0.05 - 0.2)
+     */
+    public void setPBestRate(double pBestRate) {
+        this.pBestRate = pBestRate;
+    }
+    
+    /**
+     * Switch to asynchronous steady-state DE: inFlight trials are always
+     * being evaluated, each on its own virtual thread, and every finished
+     * one goes through selection at once and is replaced by the trial for
+     * the next target in turn. A step still selects populationSize
+     * trials. 0 (the default) means generational. Steady-state runs are
+     * not reproducible, and a checkpoint does not include the trials in
+     * flight.
+     */
+    public void setSteadyState(int inFlight, AsyncEvaluator.Insertion insertion) {
+        if (inFlight < 0) {
+            throw new IllegalArgumentException("inFlight must not be negative");
+        }
+        this.inFlight = inFlight;
+        this.insertion = insertion;
+    }
+    
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
+    }
+    
     @Override
     public void initialize(Problem problem) {
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
+        prepare(problem);
+        this.iteration = 0;
+        this.archiveCount = 0;
+        this.proposals = 0;
+        this.acceptances = 0;
+        
+        // Initialize random population
+        population.randomize(searchSpace);
+        population.evaluate(problem, evaluator);
+        
+        // Find initial best
+        bestSolution = population.toSolution(population.bestIndex());
+    }
+    
+    /**
+     * Set up the search space, both generations and the scratch buffers
+     * without filling them
+     */
+    private void prepare(Problem problem) {
+        close();
         this.problem = problem;
+        this.nextTarget = 0;
         this.searchSpace = new SearchSpace(
             problem.getDimensions(),
             problem.getLowerBound(),
-            problem.getUpperBound()
+            problem.getUpperBound(),
+            random
         );
-        this.iteration = 0;
-        this.population.clear();
-        this.currentSolutions.clear();
-        
-        // Initialize random population
-        for (int i = 0; i < populationSize; i++) {
-            Solution individual = searchSpace.getRandomSolution();
-            individual.setFitness(problem.evaluate(individual.getPosition()));
-            population.add(individual);
+        int dimensions = problem.getDimensions();
+        this.population = new Population(populationSize, dimensions);
+        this.nextPopulation = new Population(populationSize, dimensions);
+        this.mutant = new double[dimensions];
+        this.archive = strategy == Strategy.CURRENT_TO_PBEST_1
+                     ? new double[populationSize * dimensions]
+                     : null;
+    }
+    
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writePopulation(population);
+        out.writeSolution(bestSolution);
+        if (archive != null) {
+            out.writeInt(archiveCount);
+            out.writeDoubles(archive, 0, archiveCount * population.getDimensions());
         }
-        
-        // Find initial best
-        bestSolution = new Solution(population.get(0));
-        for (Solution ind : population) {
-            if (ind.getFitness() < bestSolution.getFitness()) {
-                bestSolution = new Solution(ind);
-            }
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.random = in.readRandom();
+        prepare(problem);
+        this.iteration = in.readInt();
+        this.population = in.readPopulation(populationSize, problem.getDimensions());
+        this.bestSolution = in.readSolution();
+        this.archiveCount = 0;
+        this.proposals = 0;
+        this.acceptances = 0;
+        if (archive != null) {
+            this.archiveCount = in.readInt();
+            double[] stored = in.readDoubles();
+            System.arraycopy(stored, 0, archive, 0, stored.length);
         }
     }
     
@@ -72,68 +259,277 @@ public class DifferentialEvolution implements Algorithm {
             return false;
         }
         
-        List<Solution> newPopulation = new ArrayList<>();
+        // Both generations are preallocated in initialize(); a step only
+        // writes into them and swaps, so it allocates nothing
+        double[] current = population.positions();
+        double[] trial = nextPopulation.positions();
+        int best = population.bestIndex();
+        int pBestCount = rankPBest();
+        
+        if (inFlight > 0) {
+            steadyStateStep(best, pBestCount);
+            iteration++;
+            return true;
+        }
         
         for (int i = 0; i < populationSize; i++) {
-            // Select three random distinct individuals
-            int[] indices = getThreeRandomIndices(i);
-            Solution a = population.get(indices[0]);
-            Solution b = population.get(indices[1]);
-            Solution c = population.get(indices[2]);
-            
-            // Mutation: v = a + F * (b - c)
-            double[] mutant = new double[problem.getDimensions()];
-            for (int j = 0; j < mutant.length; j++) {
-                mutant[j] = a.getPosition()[j] + 
-                           mutationFactor * (b.getPosition()[j] - c.getPosition()[j]);
+            mutate(i, best, pBestCount, current);
+            int offset = population.offset(i);
+            cross(current, offset, trial, offset);
+        }
+        
+        // Evaluate all trials in one phase
+        nextPopulation.evaluate(problem, evaluator);
+        
+        // Selection: a trial survives only if strictly better than its target
+        proposals += populationSize;
+        for (int i = 0; i < populationSize; i++) {
+            if (nextPopulation.getFitness(i) < population.getFitness(i)) {
+                acceptances++;
+                if (archive != null) {
+                    archiveParent(i);
+                }
+                
+                // Update best
+                if (nextPopulation.getFitness(i) < bestSolution.getFitness()) {
+                    nextPopulation.copyTo(i, bestSolution);
+                }
+            } else {
+                population.copyTo(i, nextPopulation, i);
             }
-            searchSpace.clamp(mutant);
+        }
+        
+        Population previous = population;
+        population = nextPopulation;
+        nextPopulation = previous;
+        
+        iteration++;
+        return true;
+    }
+    
+    /**
+     * Select populationSize trials as their evaluations finish, breeding
+     * the trial for the next target straight away. The p-best ranks are
+     * those of the population at the start of the step.
+     */
+    private void steadyStateStep(int best, int pBestCount) {
+        if (pipeline == null) {
+            pipeline = new AsyncEvaluator(problem, inFlight);
+            for (int slot = 0; slot < inFlight; slot++) {
+                breed(slot, best, pBestCount);
+            }
+        }
+        double[] candidates = pipeline.positions();
+        for (int k = 0; k < populationSize; k++) {
+            int slot = pipeline.take();
+            double value = pipeline.getFitness(slot);
+            int target = insertion == AsyncEvaluator.Insertion.PARENT
+                       ? pipeline.getParent(slot)
+                       : population.worstIndex();
             
-            // Crossover
-            double[] trial = new double[problem.getDimensions()];
-            int jRand = random.nextInt(problem.getDimensions());
+            // Selection: a trial survives only if strictly better than what it replaces
+            proposals++;
+            if (value < population.getFitness(target)) {
+                acceptances++;
+                if (archive != null) {
+                    archiveParent(target);
+                }
+                population.setIndividual(target, candidates, pipeline.offset(slot), value);
+                if (value < bestSolution.getFitness()) {
+                    population.copyTo(target, bestSolution);
+                    best = target;
+                }
+            }
             
-            for (int j = 0; j < trial.length; j++) {
+            breed(slot, best, pBestCount);
+        }
+    }
+    
+    /**
+     * Build the trial for the next target in turn into slot and submit it
+     */
+    private void breed(int slot, int best, int pBestCount) {
+        int i = nextTarget;
+        nextTarget = nextTarget + 1 == populationSize ? 0 : nextTarget + 1;
+        double[] current = population.positions();
+        mutate(i, best, pBestCount, current);
+        cross(current, population.offset(i), pipeline.positions(), pipeline.offset(slot));
+        pipeline.submit(slot, i);
+    }
+    
+    /**
+     * Number of p-best candidates, after moving them to the front of
+     * rankOrder; 0 unless the strategy is current-to-pbest/1
+     */
+    private int rankPBest() {
+        if (strategy != Strategy.CURRENT_TO_PBEST_1) {
+            return 0;
+        }
+        int pBestCount = Math.max(1, (int) Math.round(pBestRate * populationSize));
+        selectTopRanks(pBestCount);
+        return pBestCount;
+    }
+    
+    /**
+     * Cross the mutant with the target row of current into the trial row
+     */
+    private void cross(double[] current, int target, double[] trial, int offset) {
+        int dimensions = mutant.length;
+        if (crossover == Crossover.BINOMIAL) {
+            int jRand = random.nextInt(dimensions);
+            for (int j = 0; j < dimensions; j++) {
                 if (random.nextDouble() < crossoverRate || j == jRand) {
-                    trial[j] = mutant[j];
+                    trial[offset + j] = mutant[j];
                 } else {
-                    trial[j] = population.get(i).getPosition()[j];
+                    trial[offset + j] = current[target + j];
                 }
             }
-            
-            // Selection
-            Solution trialSolution = new Solution(trial);
-            trialSolution.setFitness(problem.evaluate(trial));
-            
-            if (trialSolution.getFitness() < population.get(i).getFitness()) {
-                newPopulation.add(trialSolution);
+        } else {
+            System.arraycopy(current, target, trial, offset, dimensions);
+            int j = random.nextInt(dimensions);
+            int length = 0;
+            do {
+                trial[offset + j] = mutant[j];
+                j = j + 1 == dimensions ? 0 : j + 1;
+                length++;
+            } while (length < dimensions && random.nextDouble() < crossoverRate);
+        }
+    }
+    
+    /**
+     * Build the clamped mutant for target i into the mutant scratch row
+     */
+    private void mutate(int i, int best, int pBestCount, double[] current) {
+        int dimensions = mutant.length;
+        double lower = problem.getLowerBound();
+        double upper = problem.getUpperBound();
+        double f = mutationFactor;
+        int target = population.offset(i);
+        
+        switch (strategy) {
+            case RAND_1: {
+                selectRandomIndices(i, 3);
+                kernel.mutate(mutant,
+                              current, population.offset(indices[0]),
+                              current, population.offset(indices[1]),
+                              current, population.offset(indices[2]),
+                              f, lower, upper, dimensions);
+                break;
+            }
+            case BEST_1: {
+                selectRandomIndices(i, 2);
+                kernel.mutate(mutant,
+                              current, population.offset(best),
+                              current, population.offset(indices[0]),
+                              current, population.offset(indices[1]),
+                              f, lower, upper, dimensions);
+                break;
+            }
+            case CURRENT_TO_BEST_1: {
+                selectRandomIndices(i, 2);
+                kernel.mutate(mutant,
+                              current, target,
+                              current, population.offset(best),
+                              current, target,
+                              current, population.offset(indices[0]),
+                              current, population.offset(indices[1]),
+                              f, lower, upper, dimensions);
+                break;
+            }
+            case RAND_2: {
+                selectRandomIndices(i, 5);
+                kernel.mutate(mutant,
+                              current, population.offset(indices[0]),
+                              current, population.offset(indices[1]),
+                              current, population.offset(indices[2]),
+                              current, population.offset(indices[3]),
+                              current, population.offset(indices[4]),
+                              f, lower, upper, dimensions);
+                break;
+            }
+            case CURRENT_TO_PBEST_1: {
+                int pBest = rankOrder[random.nextInt(pBestCount)];
+                selectRandomIndices(i, 1);
+                int r1 = indices[0];
                 
-                // Update best
-                if (trialSolution.getFitness() < bestSolution.getFitness()) {
-                    bestSolution = new Solution(trialSolution);
+                // x~_r2 comes from population + archive, distinct from i and r1
+                int r2;
+                do {
+                    r2 = random.nextInt(populationSize + archiveCount);
+                } while (r2 == i || r2 == r1);
+                double[] source = r2 < populationSize ? current : archive;
+                int sourceOffset = r2 < populationSize
+                                 ? population.offset(r2)
+                                 : (r2 - populationSize) * dimensions;
+                
+                kernel.mutate(mutant,
+                              current, target,
+                              current, population.offset(pBest),
+                              current, target,
+                              current, population.offset(r1),
+                              source, sourceOffset,
+                              f, lower, upper, dimensions);
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Move the parent replaced at index i into the external archive,
+     * overwriting a random member once the archive holds NP vectors
+     */
+    private void archiveParent(int i) {
+        int dimensions = population.getDimensions();
+        int slot = archiveCount < populationSize ? archiveCount++ : random.nextInt(populationSize);
+        System.arraycopy(population.positions(), population.offset(i), archive, slot * dimensions, dimensions);
+    }
+    
+    /**
+     * Partially order rankOrder so its first count entries are the
+     * count best individuals (quickselect, no allocation)
+     */
+    private void selectTopRanks(int count) {
+        for (int i = 0; i < populationSize; i++) {
+            rankOrder[i] = i;
+        }
+        double[] fitness = population.fitness();
+        int lo = 0;
+        int hi = populationSize - 1;
+        int k = count - 1;
+        while (lo < hi) {
+            double pivot = fitness[rankOrder[(lo + hi) >>> 1]];
+            int a = lo;
+            int b = hi;
+            while (a <= b) {
+                while (fitness[rankOrder[a]] < pivot) a++;
+                while (fitness[rankOrder[b]] > pivot) b--;
+                if (a <= b) {
+                    int tmp = rankOrder[a];
+                    rankOrder[a++] = rankOrder[b];
+                    rankOrder[b--] = tmp;
                 }
+            }
+            if (k <= b) {
+                hi = b;
+            } else if (k >= a) {
+                lo = a;
             } else {
-                newPopulation.add(new Solution(population.get(i)));
+                break;
             }
         }
-        
-        population = newPopulation;
-        currentSolutions = new ArrayList<>(population);
-        
-        iteration++;
-        return true;
     }
     
-    private int[] getThreeRandomIndices(int exclude) {
-        int[] indices = new int[3];
-        for (int i = 0; i < 3; i++) {
+    /**
+     * Fill indices[0 .. count) with distinct population indices other than exclude
+     */
+    private void selectRandomIndices(int exclude, int count) {
+        for (int i = 0; i < count; i++) {
             int index;
             do {
                 index = random.nextInt(populationSize);
             } while (index == exclude || contains(indices, i, index));
             indices[i] = index;
         }
-        return indices;
     }
     
     private boolean contains(int[] array, int length, int value) {
@@ -143,6 +539,22 @@ public class DifferentialEvolution implements Algorithm {
         return false;
     }
     
+    @Override
+    public Population getPopulation() {
+        return population;
+    }
+    
+    @Override
+    public void immigrate(int[] targets, List<Solution> migrants) {
+        for (int k = 0; k < targets.length; k++) {
+            Solution migrant = migrants.get(k);
+            population.setIndividual(targets[k], migrant.getPosition(), migrant.getFitness());
+            if (migrant.getFitness() < bestSolution.getFitness()) {
+                population.copyTo(targets[k], bestSolution);
+            }
+        }
+    }
+    
     @Override
     public Solution getBestSolution() {
         return bestSolution;
@@ -150,19 +562,36 @@ public class DifferentialEvolution implements Algorithm {
     
     @Override
     public List<Solution> getCurrentSolutions() {
-        return new ArrayList<>(currentSolutions);
+        if (population == null || iteration == 0) {
+            return new ArrayList<>();
+        }
+        return population.toSolutions();
+    }
+    
+    @Override
+    public Population getCurrentPopulation() {
+        return iteration == 0 ? null : population;
     }
     
     @Override
     public void reset() {
         iteration = 0;
-        population.clear();
-        currentSolutions.clear();
         if (problem != null) {
             initialize(problem);
         }
     }
     
+    /**
+     * Abandon the trials in flight in steady-state mode
+     */
+    @Override
+    public void close() {
+        if (pipeline != null) {
+            pipeline.close();
+            pipeline = null;
+        }
+    }
+    
     @Override
     public String getName() {
         return "Differential Evolution";
@@ -172,4 +601,27 @@ public class DifferentialEvolution implements Algorithm {
     public int getIteration() {
         return iteration;
     }
-}
\ No newline at end of file
+    
+    @Override
+    public long getProposals() {
+        return proposals;
+    }
+    
+    @Override
+    public long getAcceptances() {
+        return acceptances;
+    }
+    
+    @Override
+    public double getDiversity() {
+        return population == null ? Double.NaN : population.diversity();
+    }
+    
+    public Strategy getStrategy() {
+        return strategy;
+    }
+    
+    public Crossover getCrossover() {
+        return crossover;
+    }
+}
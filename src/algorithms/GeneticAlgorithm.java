@@ -1,39 +1,50 @@
 package algorithms;
 
 import core.Algorithm;
+import core.AsyncEvaluator;
+import core.Evaluator;
+import core.Migratable;
+import core.Population;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
-public class GeneticAlgorithm implements Algorithm {
+public class GeneticAlgorithm implements Algorithm, Migratable, AutoCloseable {
     private Problem problem;
     private SearchSpace searchSpace;
-    private List<Solution> population;
+    private Population population;
+    private Population offspring;
     private Solution bestSolution;
-    private List<Solution> currentSolutions;
     private int iteration;
     private int maxIterations;
     private int populationSize;
     private double mutationRate;
     private double crossoverRate;
     private int tournamentSize;
-    private Random random;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
+    private Evaluator evaluator;
+    private int inFlight;
+    private AsyncEvaluator.Insertion insertion;
+    private AsyncEvaluator pipeline;
     
-    public GeneticAlgorithm(int maxIterations, int populationSize, 
-                           double mutationRate, double crossoverRate, 
+    public GeneticAlgorithm(int maxIterations, int populationSize,
+                           double mutationRate, double crossoverRate,
                            int tournamentSize) {
         this.maxIterations = maxIterations;
         this.populationSize = populationSize;
         this.mutationRate = mutationRate;
         this.crossoverRate = crossoverRate;
         this.tournamentSize = tournamentSize;
-        this.population = new ArrayList<>();
-        this.currentSolutions = new ArrayList<>();
         this.iteration = 0;
-        this.random = new Random();
+        this.evaluator = Evaluator.serial();
+        this.insertion = AsyncEvaluator.Insertion.WORST;
     }
     
     public GeneticAlgorithm(int maxIterations, int populationSize) {
@@ -41,32 +52,94 @@ public class GeneticAlgorithm implements Algorithm {
         this(maxIterations, populationSize, 0.1, 0.8, 3);
     }
     
+    /**
+     * Set the evaluator used to score each generation
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+    
+    /**
+     * Switch to asynchronous steady-state evolution: inFlight offspring
+     * are always being evaluated, each on its own virtual thread, and
+     * every finished one is inserted at once and replaced by a new one.
+     * A step still inserts populationSize offspring. 0 (the default)
+     * means generational. Steady-state runs are not reproducible, and
+     * a checkpoint does not include the offspring in flight.
+     */
+    public void setSteadyState(int inFlight, AsyncEvaluator.Insertion insertion) {
+        if (inFlight < 0) {
+            throw new IllegalArgumentException("inFlight must not be negative");
+        }
+        this.inFlight = inFlight;
+        this.insertion = insertion;
+    }
+    
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
+    }
+    
     @Override
     public void initialize(Problem problem) {
-        this.problem = problem;
-        this.searchSpace = new SearchSpace(
-            problem.getDimensions(),
-            problem.getLowerBound(),
-            problem.getUpperBound()
-        );
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
+        prepare(problem);
         this.iteration = 0;
-        this.population.clear();
-        this.currentSolutions.clear();
         
         // Initialize random population
-        for (int i = 0; i < populationSize; i++) {
-            Solution individual = searchSpace.getRandomSolution();
-            individual.setFitness(problem.evaluate(individual.getPosition()));
-            population.add(individual);
-        }
+        population.randomize(searchSpace);
+        population.evaluate(problem, evaluator);
         
         // Find initial best
-        bestSolution = new Solution(population.get(0));
-        for (Solution ind : population) {
-            if (ind.getFitness() < bestSolution.getFitness()) {
-                bestSolution = new Solution(ind);
-            }
-        }
+        bestSolution = population.toSolution(population.bestIndex());
+    }
+    
+    /**
+     * Set up the search space and both generations without filling them
+     */
+    private void prepare(Problem problem) {
+        close();
+        this.problem = problem;
+        this.searchSpace = new SearchSpace(
+            problem.getDimensions(),
+            problem.getLowerBound(),
+            problem.getUpperBound(),
+            random
+        );
+        int dimensions = problem.getDimensions();
+        this.population = new Population(populationSize, dimensions);
+        this.offspring = new Population(populationSize, dimensions);
+    }
+    
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writePopulation(population);
+        out.writeSolution(bestSolution);
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.random = in.readRandom();
+        prepare(problem);
+        this.iteration = in.readInt();
+        this.population = in.readPopulation(populationSize, problem.getDimensions());
+        this.bestSolution = in.readSolution();
     }
     
     @Override
@@ -75,82 +148,144 @@ public class GeneticAlgorithm implements Algorithm {
             return false;
         }
         
-        List<Solution> newPopulation = new ArrayList<>();
+        if (inFlight > 0) {
+            steadyStateStep();
+            iteration++;
+            return true;
+        }
+        
+        // Generate the offspring rows; the last row is reserved for the elite
+        int offspringCount = populationSize - 1;
+        double[] positions = offspring.positions();
+        for (int k = 0; k < offspringCount; k++) {
+            breed(positions, offspring.offset(k));
+        }
+        
+        // Evaluate the whole generation in one phase
+        evaluator.evaluate(problem, positions, offspring.fitness(), offspringCount);
         
         // Elitism - keep best solution
-        newPopulation.add(new Solution(bestSolution));
+        offspring.setIndividual(offspringCount, bestSolution.getPosition(), bestSolution.getFitness());
         
-        // Generate rest of new population
-        while (newPopulation.size() < populationSize) {
-            // Selection
-            Solution parent1 = tournamentSelection();
-            Solution parent2 = tournamentSelection();
-            
-            // Crossover
-            Solution offspring;
-            if (random.nextDouble() < crossoverRate) {
-                offspring = crossover(parent1, parent2);
-            } else {
-                offspring = new Solution(parent1);
+        // Update best
+        int best = offspring.bestIndex();
+        if (offspring.getFitness(best) < bestSolution.getFitness()) {
+            offspring.copyTo(best, bestSolution);
+        }
+        
+        Population previous = population;
+        population = offspring;
+        offspring = previous;
+        
+        iteration++;
+        return true;
+    }
+    
+    /**
+     * Insert populationSize offspring as their evaluations finish,
+     * breeding a replacement for each one straight away
+     */
+    private void steadyStateStep() {
+        if (pipeline == null) {
+            pipeline = new AsyncEvaluator(problem, inFlight);
+            for (int slot = 0; slot < inFlight; slot++) {
+                pipeline.submit(slot, breed(pipeline.positions(), pipeline.offset(slot)));
             }
+        }
+        double[] candidates = pipeline.positions();
+        for (int k = 0; k < populationSize; k++) {
+            int slot = pipeline.take();
+            int offset = pipeline.offset(slot);
+            double value = pipeline.getFitness(slot);
             
-            // Mutation
-            mutate(offspring);
-            
-            // Evaluate
-            offspring.setFitness(problem.evaluate(offspring.getPosition()));
-            newPopulation.add(offspring);
-            
-            // Update best
-            if (offspring.getFitness() < bestSolution.getFitness()) {
-                bestSolution = new Solution(offspring);
+            // Only a better offspring gets in, so the best is never lost
+            int target = insertion == AsyncEvaluator.Insertion.WORST
+                       ? population.worstIndex()
+                       : pipeline.getParent(slot);
+            if (value < population.getFitness(target)) {
+                population.setIndividual(target, candidates, offset, value);
+                if (value < bestSolution.getFitness()) {
+                    population.copyTo(target, bestSolution);
+                }
             }
+            
+            pipeline.submit(slot, breed(candidates, offset));
         }
+    }
+    
+    /**
+     * Select, recombine and mutate one child into positions at offset;
+     * returns its first parent
+     */
+    private int breed(double[] positions, int offset) {
+        int dimensions = problem.getDimensions();
         
-        population = newPopulation;
-        currentSolutions = new ArrayList<>(population);
+        // Selection
+        int parent1 = tournamentSelection();
+        int parent2 = tournamentSelection();
         
-        iteration++;
-        return true;
+        // Crossover
+        if (random.nextDouble() < crossoverRate) {
+            crossover(parent1, parent2, positions, offset);
+        } else {
+            System.arraycopy(population.positions(), population.offset(parent1),
+                             positions, offset, dimensions);
+        }
+        
+        // Mutation
+        mutate(positions, offset, dimensions);
+        return parent1;
     }
     
-    private Solution tournamentSelection() {
-        Solution best = null;
+    private int tournamentSelection() {
+        int best = -1;
         for (int i = 0; i < tournamentSize; i++) {
-            Solution candidate = population.get(random.nextInt(population.size()));
-            if (best == null || candidate.getFitness() < best.getFitness()) {
+            int candidate = random.nextInt(populationSize);
+            if (best < 0 || population.getFitness(candidate) < population.getFitness(best)) {
                 best = candidate;
             }
         }
         return best;
     }
     
-    private Solution crossover(Solution parent1, Solution parent2) {
-        double[] pos1 = parent1.getPosition();
-        double[] pos2 = parent2.getPosition();
-        double[] childPos = new double[pos1.length];
+    private void crossover(int parent1, int parent2, double[] child, int offset) {
+        double[] parents = population.positions();
+        int offset1 = population.offset(parent1);
+        int offset2 = population.offset(parent2);
         
         // Uniform crossover
-        for (int i = 0; i < childPos.length; i++) {
-            childPos[i] = random.nextBoolean() ? pos1[i] : pos2[i];
+        for (int i = 0; i < population.getDimensions(); i++) {
+            child[offset + i] = random.nextBoolean() ? parents[offset1 + i] : parents[offset2 + i];
         }
-        
-        return new Solution(childPos);
     }
     
-    private void mutate(Solution solution) {
-        double[] pos = solution.getPosition();
+    private void mutate(double[] positions, int offset, int dimensions) {
         double range = problem.getUpperBound() - problem.getLowerBound();
         
-        for (int i = 0; i < pos.length; i++) {
+        for (int i = offset; i < offset + dimensions; i++) {
             if (random.nextDouble() < mutationRate) {
                 // Gaussian mutation
-                pos[i] += random.nextGaussian() * range * 0.1;
+                positions[i] += random.nextGaussian() * range * 0.1;
             }
         }
         
-        searchSpace.clamp(pos);
-        solution.setPosition(pos);
+        searchSpace.clamp(positions, offset, dimensions);
+    }
+    
+    @Override
+    public Population getPopulation() {
+        return population;
+    }
+    
+    @Override
+    public void immigrate(int[] targets, List<Solution> migrants) {
+        for (int k = 0; k < targets.length; k++) {
+            Solution migrant = migrants.get(k);
+            population.setIndividual(targets[k], migrant.getPosition(), migrant.getFitness());
+            if (migrant.getFitness() < bestSolution.getFitness()) {
+                population.copyTo(targets[k], bestSolution);
+            }
+        }
     }
     
     @Override
@@ -160,19 +295,36 @@ public class GeneticAlgorithm implements Algorithm {
     
     @Override
     public List<Solution> getCurrentSolutions() {
-        return new ArrayList<>(currentSolutions);
+        if (population == null || iteration == 0) {
+            return new ArrayList<>();
+        }
+        return population.toSolutions();
+    }
+    
+    @Override
+    public Population getCurrentPopulation() {
+        return iteration == 0 ? null : population;
     }
     
     @Override
     public void reset() {
         iteration = 0;
-        population.clear();
-        currentSolutions.clear();
         if (problem != null) {
             initialize(problem);
         }
     }
     
+    /**
+     * Abandon the offspring in flight in steady-state mode
+     */
+    @Override
+    public void close() {
+        if (pipeline != null) {
+            pipeline.close();
+            pipeline = null;
+        }
+    }
+    
     @Override
     public String getName() {
         return "Genetic Algorithm";
@@ -182,4 +334,9 @@ public class GeneticAlgorithm implements Algorithm {
     public int getIteration() {
         return iteration;
     }
-}
\ No newline at end of file
+    
+    @Override
+    public double getDiversity() {
+        return population == null ? Double.NaN : population.diversity();
+    }
+}
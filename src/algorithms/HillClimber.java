@@ -1,41 +1,65 @@
 package algorithms;
 
 import core.Algorithm;
+import core.Instrumented;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
-public class HillClimber implements Algorithm {
+public class HillClimber implements Algorithm, Instrumented {
     private Problem problem;
     private SearchSpace searchSpace;
     private Solution currentSolution;
     private Solution bestSolution;
     private List<Solution> currentSolutions;
     private int iteration;
+    private long proposals;
+    private long acceptances;
     private int maxIterations;
     private double stepSize;
-    private Random random;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
     
     public HillClimber(int maxIterations, double stepSize) {
         this.maxIterations = maxIterations;
         this.stepSize = stepSize;
         this.currentSolutions = new ArrayList<>();
         this.iteration = 0;
-        this.random = new Random();
+    }
+    
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
     }
     
     @Override
     public void initialize(Problem problem) {
         this.problem = problem;
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
         this.searchSpace = new SearchSpace(
             problem.getDimensions(),
             problem.getLowerBound(),
-            problem.getUpperBound()
+            problem.getUpperBound(),
+            random
         );
         this.iteration = 0;
+        this.proposals = 0;
+        this.acceptances = 0;
         this.currentSolutions.clear();
         
         // Start with random solution
@@ -67,7 +91,9 @@ public class HillClimber implements Algorithm {
         currentSolutions.add(neighbor);
         
         // Accept if better (hill climbing - minimize)
+        proposals++;
         if (neighbor.getFitness() < currentSolution.getFitness()) {
+            acceptances++;
             currentSolution = new Solution(neighbor);
             
             // Update global best
@@ -80,6 +106,37 @@ public class HillClimber implements Algorithm {
         return true;
     }
     
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writeSolution(currentSolution);
+        out.writeSolution(bestSolution);
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.problem = problem;
+        this.random = in.readRandom();
+        this.searchSpace = new SearchSpace(
+            problem.getDimensions(),
+            problem.getLowerBound(),
+            problem.getUpperBound(),
+            random
+        );
+        this.iteration = in.readInt();
+        this.proposals = 0;
+        this.acceptances = 0;
+        this.currentSolution = in.readSolution();
+        this.bestSolution = in.readSolution();
+        this.currentSolutions.clear();
+    }
+    
     @Override
     public Solution getBestSolution() {
         return bestSolution;
@@ -108,4 +165,14 @@ public class HillClimber implements Algorithm {
     public int getIteration() {
         return iteration;
     }
+    
+    @Override
+    public long getProposals() {
+        return proposals;
+    }
+    
+    @Override
+    public long getAcceptances() {
+        return acceptances;
+    }
 }
\ No newline at end of file
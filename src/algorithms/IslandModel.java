@@ -0,0 +1,384 @@
+package algorithms;
+
+import core.Algorithm;
+import core.Migratable;
+import core.Problem;
+import core.Rng;
+import core.Solution;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * Island model: runs several instances of a population algorithm, each on
+ * its own thread, and periodically sends copies of each island's best
+ * individuals to other islands.
+ *
+ * <p>Islands never wait for each other. Migrants go through a lock-free
+ * inbox per island (ConcurrentLinkedQueue) and are taken in whenever the
+ * receiver next gets round to it. Each call to step() lets every island
+ * run ahead of the slowest by at most one migration interval. It returns
+ * once every island has done at least one more step. Runs are not
+ * reproducible, because migrants arrive whenever the threads interleave.
+ *
+ * <p>The islands' threads are daemons. close() (or reset()) stops them.
+ */
+public class IslandModel implements Algorithm, AutoCloseable {
+    /**
+     * Where an island sends its emigrants
+     */
+    public enum MigrationTopology {
+        /** To the next island, wrapping around */
+        RING,
+        /** To every other island */
+        FULLY_CONNECTED,
+        /** To one other island chosen at random each time */
+        RANDOM
+    }
+    
+    /**
+     * Which individuals immigrants overwrite
+     */
+    public enum Replacement {
+        /** The worst individuals, and only if the immigrant is better */
+        WORST,
+        /** Random individuals other than the island's best, unconditionally */
+        RANDOM
+    }
+    
+    private final IntFunction<Algorithm> factory;
+    private final int islandCount;
+    private MigrationTopology migrationTopology;
+    private Replacement replacement;
+    private int migrationInterval;
+    private int migrants;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
+    
+    private Problem problem;
+    private Island[] islands;
+    private Solution bestSolution;
+    private int iteration;
+    private volatile int permitted;
+    private volatile boolean stopped;
+    private volatile Thread waiter;
+    
+    /**
+     * @param factory builds island i; every island must implement Migratable
+     */
+    public IslandModel(IntFunction<Algorithm> factory, int islandCount) {
+        if (islandCount < 1) {
+            throw new IllegalArgumentException("islandCount must be at least 1");
+        }
+        this.factory = factory;
+        this.islandCount = islandCount;
+        this.migrationTopology = MigrationTopology.RING;
+        this.replacement = Replacement.WORST;
+        this.migrationInterval = 10;
+        this.migrants = 1;
+    }
+    
+    public void setMigrationTopology(MigrationTopology migrationTopology) {
+        this.migrationTopology = migrationTopology;
+    }
+    
+    public void setReplacement(Replacement replacement) {
+        this.replacement = replacement;
+    }
+    
+    /**
+     * Each island emigrates every interval of its own steps
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("migrationInterval must be at least 1");
+        }
+        this.migrationInterval = migrationInterval;
+    }
+    
+    /**
+     * Number of best individuals sent per migration
+     */
+    public void setMigrants(int migrants) {
+        if (migrants < 1) {
+            throw new IllegalArgumentException("migrants must be at least 1");
+        }
+        this.migrants = migrants;
+    }
+    
+    /**
+     * Seed for migration decisions; islands are seeded by the factory
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
+    }
+    
+    public int getIslandCount() {
+        return islandCount;
+    }
+    
+    @Override
+    public void initialize(Problem problem) {
+        close();
+        this.problem = problem;
+        this.iteration = 0;
+        this.permitted = 0;
+        this.stopped = false;
+        this.waiter = Thread.currentThread();
+        
+        Rng master = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
+        Island[] created = new Island[islandCount];
+        for (int i = 0; i < islandCount; i++) {
+            Algorithm algorithm = factory.apply(i);
+            if (!(algorithm instanceof Migratable)) {
+                throw new IllegalArgumentException(algorithm.getName() + " does not support migration");
+            }
+            created[i] = new Island(i, algorithm, master.split());
+        }
+        islands = created;
+        
+        // Islands initialize concurrently on their own threads
+        for (Island island : islands) {
+            island.thread.start();
+        }
+        awaitSteps(0);
+        
+        bestSolution = new Solution(problem.getDimensions());
+        collectBest();
+    }
+    
+    @Override
+    public boolean step() {
+        if (islands == null || allFinished()) {
+            return false;
+        }
+        
+        waiter = Thread.currentThread();
+        permitted = iteration + 1 + migrationInterval;
+        for (Island island : islands) {
+            LockSupport.unpark(island.thread);
+        }
+        awaitSteps(iteration + 1);
+        
+        collectBest();
+        iteration++;
+        return true;
+    }
+    
+    /**
+     * Park until every live island has completed at least steps steps
+     */
+    private void awaitSteps(int steps) {
+        while (true) {
+            boolean done = true;
+            for (Island island : islands) {
+                if (island.failure != null) {
+                    close();
+                    throw new IllegalStateException("Island " + island.index + " failed", island.failure);
+                }
+                if (!island.finished && island.steps < steps) {
+                    done = false;
+                }
+            }
+            if (done) {
+                return;
+            }
+            LockSupport.park(this);
+        }
+    }
+    
+    private boolean allFinished() {
+        for (Island island : islands) {
+            if (!island.finished) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void collectBest() {
+        for (Island island : islands) {
+            synchronized (island) {
+                if (island.best != null && island.best.getFitness() < bestSolution.getFitness()) {
+                    System.arraycopy(island.best.getPosition(), 0, bestSolution.getPosition(), 0,
+                                     bestSolution.getDimensions());
+                    bestSolution.setFitness(island.best.getFitness());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stop the island threads, wait for them to exit and close any
+     * island algorithm that holds resources of its own
+     */
+    @Override
+    public void close() {
+        if (islands == null) {
+            return;
+        }
+        stopped = true;
+        for (Island island : islands) {
+            LockSupport.unpark(island.thread);
+        }
+        for (Island island : islands) {
+            try {
+                island.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        for (Island island : islands) {
+            if (island.algorithm instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) island.algorithm).close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not shut down island " + island.index, e);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public Solution getBestSolution() {
+        return bestSolution;
+    }
+    
+    /**
+     * The best individual of each island
+     */
+    @Override
+    public List<Solution> getCurrentSolutions() {
+        List<Solution> solutions = new ArrayList<>();
+        if (islands == null || iteration == 0) {
+            return solutions;
+        }
+        for (Island island : islands) {
+            synchronized (island) {
+                if (island.best != null) {
+                    solutions.add(new Solution(island.best));
+                }
+            }
+        }
+        return solutions;
+    }
+    
+    @Override
+    public void reset() {
+        iteration = 0;
+        if (problem != null) {
+            initialize(problem);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "Island Model";
+    }
+    
+    @Override
+    public int getIteration() {
+        return iteration;
+    }
+    
+    /**
+     * One sub-population and the thread that steps it
+     */
+    private final class Island implements Runnable {
+        final int index;
+        final Algorithm algorithm;
+        final Migratable migratable;
+        final Rng random;
+        final ConcurrentLinkedQueue<Solution> inbox = new ConcurrentLinkedQueue<>();
+        final Thread thread;
+        final List<Solution> arrivals = new ArrayList<>();
+        volatile int steps = -1;
+        volatile boolean finished;
+        volatile Throwable failure;
+        // Guarded by this
+        Solution best;
+        
+        Island(int index, Algorithm algorithm, Rng random) {
+            this.index = index;
+            this.algorithm = algorithm;
+            this.migratable = (Migratable) algorithm;
+            this.random = random;
+            this.thread = new Thread(this, "island-" + index);
+            thread.setDaemon(true);
+        }
+        
+        @Override
+        public void run() {
+            try {
+                algorithm.initialize(problem);
+                publish();
+                steps = 0;
+                LockSupport.unpark(waiter);
+                
+                while (!stopped) {
+                    if (steps >= permitted) {
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    receive();
+                    if (!algorithm.step()) {
+                        break;
+                    }
+                    if ((steps + 1) % migrationInterval == 0) {
+                        emigrate();
+                    }
+                    publish();
+                    steps++;
+                    LockSupport.unpark(waiter);
+                }
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                finished = true;
+                LockSupport.unpark(waiter);
+            }
+        }
+        
+        private void publish() {
+            Solution current = algorithm.getBestSolution();
+            synchronized (this) {
+                if (best == null) {
+                    best = new Solution(current);
+                } else {
+                    System.arraycopy(current.getPosition(), 0, best.getPosition(), 0, best.getDimensions());
+                    best.setFitness(current.getFitness());
+                }
+            }
+        }
+        
+        private void emigrate() {
+            // Migrants are never modified after this, so destinations can share them
+            List<Solution> outgoing = Migration.emigrants(migratable, migrants);
+            for (int destination : Migration.destinations(migrationTopology, index, islandCount, random)) {
+                Island target = islands[destination];
+                if (!target.finished) {
+                    target.inbox.addAll(outgoing);
+                }
+            }
+        }
+        
+        private void receive() {
+            Solution migrant;
+            while ((migrant = inbox.poll()) != null) {
+                arrivals.add(migrant);
+            }
+            Migration.accept(migratable, arrivals, replacement, random);
+            arrivals.clear();
+        }
+    }
+}
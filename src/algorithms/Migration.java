@@ -0,0 +1,134 @@
+package algorithms;
+
+import core.Migratable;
+import core.Population;
+import core.Rng;
+import core.Solution;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Migration rules shared by the in-process IslandModel and the
+ * distributed islands: who emigrates, where to, and whom immigrants
+ * replace
+ */
+public final class Migration {
+    private Migration() {
+    }
+    
+    /**
+     * Independent copies of the count best individuals of an island, best first
+     */
+    public static List<Solution> emigrants(Migratable island, int count) {
+        Population population = island.getPopulation();
+        int[] chosen = extremes(population, Math.min(count, population.size()), true);
+        List<Solution> outgoing = new ArrayList<>(chosen.length);
+        for (int i : chosen) {
+            outgoing.add(population.toSolution(i));
+        }
+        return outgoing;
+    }
+    
+    /**
+     * Islands that receive the emigrants of source, never source itself
+     */
+    public static int[] destinations(IslandModel.MigrationTopology topology, int source, int islandCount,
+                                     Rng random) {
+        if (islandCount < 2) {
+            return new int[0];
+        }
+        switch (topology) {
+            case RING:
+                return new int[] {(source + 1) % islandCount};
+            case FULLY_CONNECTED: {
+                int[] all = new int[islandCount - 1];
+                for (int j = 0, k = 0; j < islandCount; j++) {
+                    if (j != source) {
+                        all[k++] = j;
+                    }
+                }
+                return all;
+            }
+            default: {
+                int j = random.nextInt(islandCount - 1);
+                return new int[] {j >= source ? j + 1 : j};
+            }
+        }
+    }
+    
+    /**
+     * Place arrivals into an island under the given replacement policy.
+     * Sorts arrivals; if more arrive than can be placed, the best are kept.
+     */
+    public static void accept(Migratable island, List<Solution> arrivals, IslandModel.Replacement replacement,
+                              Rng random) {
+        if (arrivals.isEmpty()) {
+            return;
+        }
+        Population population = island.getPopulation();
+        arrivals.sort((a, b) -> Double.compare(a.getFitness(), b.getFitness()));
+        int count = Math.min(arrivals.size(), population.size() - 1);
+        
+        int[] targets;
+        if (replacement == IslandModel.Replacement.WORST) {
+            int[] worst = extremes(population, count, false);
+            // Best arrival against worst resident, second best against second worst, ...
+            int kept = 0;
+            while (kept < count && arrivals.get(kept).getFitness() < population.getFitness(worst[kept])) {
+                kept++;
+            }
+            targets = Arrays.copyOf(worst, kept);
+        } else {
+            targets = randomTargets(population, count, random);
+        }
+        if (targets.length > 0) {
+            island.immigrate(targets, arrivals.subList(0, targets.length));
+        }
+    }
+    
+    /**
+     * Indices of the count best (or worst) individuals, best or worst first
+     */
+    private static int[] extremes(Population population, int count, boolean best) {
+        int[] order = new int[population.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        double[] fitness = population.fitness();
+        // Partial selection sort: count is a handful of migrants
+        for (int k = 0; k < count; k++) {
+            int pick = k;
+            for (int i = k + 1; i < order.length; i++) {
+                if (best ? fitness[order[i]] < fitness[order[pick]] : fitness[order[i]] > fitness[order[pick]]) {
+                    pick = i;
+                }
+            }
+            int tmp = order[k];
+            order[k] = order[pick];
+            order[pick] = tmp;
+        }
+        return Arrays.copyOf(order, count);
+    }
+    
+    /**
+     * count distinct random indices, never the current best individual
+     */
+    private static int[] randomTargets(Population population, int count, Rng random) {
+        int size = population.size();
+        int bestIndex = population.bestIndex();
+        int[] pool = new int[size - 1];
+        for (int i = 0, k = 0; i < size; i++) {
+            if (i != bestIndex) {
+                pool[k++] = i;
+            }
+        }
+        for (int k = 0; k < count; k++) {
+            int j = k + random.nextInt(pool.length - k);
+            int tmp = pool[k];
+            pool[k] = pool[j];
+            pool[j] = tmp;
+        }
+        return Arrays.copyOf(pool, count);
+    }
+}
@@ -0,0 +1,48 @@
+package algorithms;
+
+/**
+ * Arithmetic kernels for differential mutation. Every kernel writes a
+ * full mutant row and clamps it to [lower, upper] in the same pass.
+ * Implementations must round exactly like the scalar expressions in
+ * ScalarMutationKernel so results do not depend on the kernel in use.
+ */
+interface MutationKernel {
+    /**
+     * out = base + f * (plus - minus), clamped
+     */
+    void mutate(double[] out,
+                double[] base, int baseOffset,
+                double[] plus, int plusOffset,
+                double[] minus, int minusOffset,
+                double f, double lower, double upper, int length);
+    
+    /**
+     * out = base + f * (plus1 - minus1) + f * (plus2 - minus2), clamped
+     */
+    void mutate(double[] out,
+                double[] base, int baseOffset,
+                double[] plus1, int plus1Offset,
+                double[] minus1, int minus1Offset,
+                double[] plus2, int plus2Offset,
+                double[] minus2, int minus2Offset,
+                double f, double lower, double upper, int length);
+    
+    /**
+     * Pick the SIMD kernel when the jdk.incubator.vector module is loaded
+     * (run with --add-modules jdk.incubator.vector), otherwise the scalar one.
+     * Setting -Dswarmop.vector=false forces the scalar kernel.
+     */
+    static MutationKernel create() {
+        boolean allowed = Boolean.parseBoolean(System.getProperty("swarmop.vector", "true"));
+        if (allowed && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (MutationKernel) Class.forName("algorithms.VectorMutationKernel")
+                                             .getDeclaredConstructor()
+                                             .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar kernel
+            }
+        }
+        return new ScalarMutationKernel();
+    }
+}
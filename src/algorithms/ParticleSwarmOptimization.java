@@ -1,52 +1,82 @@
 package algorithms;
 
 import core.Algorithm;
+import core.Evaluator;
+import core.Migratable;
+import core.Population;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-public class ParticleSwarmOptimization implements Algorithm {
+/**
+ * PSO with a selectable neighbourhood topology. Every particle draws from
+ * its own random stream split off one master generator, so a seeded run
+ * produces the same swarm bit for bit whether it is updated on one thread
+ * or many. The worker pool is started on first use and stopped by close().
+ */
+public class ParticleSwarmOptimization implements Algorithm, Migratable, AutoCloseable {
+    /**
+     * Which particles' personal bests attract each particle
+     */
+    public enum Topology {
+        /** Whole swarm (gbest) */
+        GLOBAL,
+        /** Self and the two ring neighbours (lbest) */
+        RING,
+        /** Self and the four grid neighbours on a torus */
+        VON_NEUMANN,
+        /** Self plus random informants, rebuilt every few iterations */
+        RANDOM
+    }
+    
     private Problem problem;
     private SearchSpace searchSpace;
-    private List<Particle> particles;
+    private Population positions;
+    private Population personalBests;
+    private double[] velocities;
     private Solution globalBest;
-    private List<Solution> currentSolutions;
     private int iteration;
     private int maxIterations;
     private int swarmSize;
     private double inertiaWeight;
     private double cognitiveWeight;
     private double socialWeight;
-    private Random random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
+    private Rng[] streams;
+    private int threads;
+    private ForkJoinPool pool;
+    private int[] chunkBest;
+    private Evaluator evaluator;
+    private Topology topologyType;
+    private SwarmTopology topology;
+    private Rng topologyRandom;
+    private int informants;
+    private int rebuildInterval;
+    private boolean[] improved;
     
-    // Inner class to represent a particle
-    private class Particle {
-        Solution position;
-        double[] velocity;
-        Solution personalBest;
-        
-        Particle(int dimensions) {
-            position = new Solution(dimensions);
-            velocity = new double[dimensions];
-            personalBest = new Solution(dimensions);
-        }
-    }
-    
-    public ParticleSwarmOptimization(int maxIterations, int swarmSize, 
-                                     double inertiaWeight, double cognitiveWeight, 
+    public ParticleSwarmOptimization(int maxIterations, int swarmSize,
+                                     double inertiaWeight, double cognitiveWeight,
                                      double socialWeight) {
         this.maxIterations = maxIterations;
         this.swarmSize = swarmSize;
         this.inertiaWeight = inertiaWeight;
         this.cognitiveWeight = cognitiveWeight;
         this.socialWeight = socialWeight;
-        this.particles = new ArrayList<>();
-        this.currentSolutions = new ArrayList<>();
         this.iteration = 0;
-        this.random = new Random();
+        this.threads = 1;
+        this.evaluator = Evaluator.serial();
+        this.topologyType = Topology.GLOBAL;
+        this.informants = 3;
+        this.rebuildInterval = 10;
     }
     
     public ParticleSwarmOptimization(int maxIterations, int swarmSize) {
@@ -54,74 +84,236 @@ public class ParticleSwarmOptimization implements Algorithm {
         this(maxIterations, swarmSize, 0.7298, 1.49618, 1.49618);
     }
     
+    /**
+     * Set the evaluator used to score the swarm each step
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+    
+    /**
+     * Fix the master seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
+    }
+    
+    /**
+     * Update velocities and positions on this many worker threads.
+     * Results for a given seed do not depend on the value.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (threads != this.threads) {
+            close();
+            this.threads = threads;
+            if (chunkBest != null) {
+                chunkBest = new int[threads];
+            }
+        }
+    }
+    
+    /**
+     * Select the neighbourhood topology; takes effect on the next initialize()
+     */
+    public void setTopology(Topology topology) {
+        this.topologyType = topology;
+    }
+    
+    /**
+     * Configure the RANDOM topology: how many particles each particle
+     * informs, and how many iterations pass between rebuilds
+     */
+    public void setRandomTopology(int informants, int rebuildInterval) {
+        if (informants < 1 || rebuildInterval < 1) {
+            throw new IllegalArgumentException("informants and rebuildInterval must be at least 1");
+        }
+        this.informants = informants;
+        this.rebuildInterval = rebuildInterval;
+    }
+    
+    public Topology getTopology() {
+        return topologyType;
+    }
+    
     @Override
     public void initialize(Problem problem) {
-        this.problem = problem;
-        this.searchSpace = new SearchSpace(
-            problem.getDimensions(),
-            problem.getLowerBound(),
-            problem.getUpperBound()
-        );
+        prepare(problem);
         this.iteration = 0;
-        this.particles.clear();
-        this.currentSolutions.clear();
         
-        double range = problem.getUpperBound() - problem.getLowerBound();
+        // One independent stream per particle, split in particle order
+        Rng master = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
+        for (int i = 0; i < swarmSize; i++) {
+            streams[i] = master.split();
+        }
+        this.topologyRandom = master.split();
         
-        // Initialize swarm
+        // Initialize swarm: random positions and velocities
+        double range = problem.getUpperBound() - problem.getLowerBound();
+        double lower = problem.getLowerBound();
+        int dimensions = problem.getDimensions();
+        double[] pos = positions.positions();
         for (int i = 0; i < swarmSize; i++) {
-            Particle particle = new Particle(problem.getDimensions());
-            
-            // Random position
-            Solution randomPos = searchSpace.getRandomSolution();
-            particle.position = randomPos;
-            particle.position.setFitness(problem.evaluate(particle.position.getPosition()));
-            
-            // Random velocity
-            for (int j = 0; j < problem.getDimensions(); j++) {
-                particle.velocity[j] = (random.nextDouble() - 0.5) * range * 0.1;
+            Rng stream = streams[i];
+            int offset = positions.offset(i);
+            for (int k = offset; k < offset + dimensions; k++) {
+                pos[k] = lower + stream.nextDouble() * range;
+                velocities[k] = (stream.nextDouble() - 0.5) * range * 0.1;
             }
-            
-            // Set personal best to initial position
-            particle.personalBest = new Solution(particle.position);
-            
-            particles.add(particle);
+        }
+        positions.evaluate(problem, evaluator);
+        
+        // Set personal bests to initial positions
+        for (int i = 0; i < swarmSize; i++) {
+            positions.copyTo(i, personalBests, i);
         }
         
         // Initialize global best
-        globalBest = new Solution(particles.get(0).position);
-        for (Particle p : particles) {
-            if (p.position.getFitness() < globalBest.getFitness()) {
-                globalBest = new Solution(p.position);
-            }
+        globalBest = positions.toSolution(positions.bestIndex());
+        
+        buildTopology();
+    }
+    
+    /**
+     * Set up the search space, swarm arrays and scratch buffers without filling them
+     */
+    private void prepare(Problem problem) {
+        this.problem = problem;
+        this.searchSpace = new SearchSpace(
+            problem.getDimensions(),
+            problem.getLowerBound(),
+            problem.getUpperBound()
+        );
+        int dimensions = problem.getDimensions();
+        this.positions = new Population(swarmSize, dimensions);
+        this.personalBests = new Population(swarmSize, dimensions);
+        this.velocities = new double[swarmSize * dimensions];
+        this.streams = new Rng[swarmSize];
+        this.chunkBest = new int[threads];
+        this.improved = new boolean[swarmSize];
+    }
+    
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeInt(iteration);
+        out.writePopulation(positions);
+        out.writePopulation(personalBests);
+        out.writeDoubles(velocities);
+        out.writeSolution(globalBest);
+        for (Rng stream : streams) {
+            out.writeRandom(stream);
+        }
+        out.writeRandom(topologyRandom);
+        out.writeBoolean(topology != null);
+        if (topology != null) {
+            topology.write(out);
+        }
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        prepare(problem);
+        int dimensions = problem.getDimensions();
+        this.iteration = in.readInt();
+        this.positions = in.readPopulation(swarmSize, dimensions);
+        this.personalBests = in.readPopulation(swarmSize, dimensions);
+        in.readDoubles(velocities);
+        this.globalBest = in.readSolution();
+        for (int i = 0; i < swarmSize; i++) {
+            streams[i] = in.readRandom();
+        }
+        this.topologyRandom = in.readRandom();
+        this.topology = in.readBoolean() ? SwarmTopology.read(in) : null;
+        if ((topology != null) != (topologyType != Topology.GLOBAL)) {
+            throw new IllegalStateException("Checkpoint was written with a different topology than "
+                                            + topologyType);
         }
     }
     
+    private void buildTopology() {
+        switch (topologyType) {
+            case RING:
+                topology = SwarmTopology.ring(swarmSize);
+                break;
+            case VON_NEUMANN:
+                topology = SwarmTopology.vonNeumann(swarmSize);
+                break;
+            case RANDOM:
+                topology = SwarmTopology.random(swarmSize, informants, topologyRandom);
+                break;
+            default:
+                topology = null;
+                return;
+        }
+        topology.recompute(personalBests.fitness());
+    }
+    
     @Override
     public boolean step() {
         if (iteration >= maxIterations) {
             return false;
         }
         
-        currentSolutions.clear();
+        // Move every particle against the global best of the previous step
+        forEachChunk((chunk, from, to) -> {
+            for (int i = from; i < to; i++) {
+                updateVelocity(i);
+                updatePosition(i);
+            }
+        });
         
-        // Update each particle
-        for (Particle particle : particles) {
-            updateVelocity(particle);
-            updatePosition(particle);
-            
-            // Evaluate new position
-            particle.position.setFitness(problem.evaluate(particle.position.getPosition()));
-            currentSolutions.add(new Solution(particle.position));
-            
-            // Update personal best
-            if (particle.position.getFitness() < particle.personalBest.getFitness()) {
-                particle.personalBest = new Solution(particle.position);
+        // Evaluate the whole swarm in one phase
+        positions.evaluate(problem, evaluator);
+        
+        // Update personal bests and find each chunk's best particle
+        forEachChunk((chunk, from, to) -> {
+            int best = -1;
+            for (int i = from; i < to; i++) {
+                improved[i] = positions.getFitness(i) < personalBests.getFitness(i);
+                if (improved[i]) {
+                    positions.copyTo(i, personalBests, i);
+                }
+                if (best < 0 || positions.getFitness(i) < positions.getFitness(best)) {
+                    best = i;
+                }
             }
-            
-            // Update global best
-            if (particle.position.getFitness() < globalBest.getFitness()) {
-                globalBest = new Solution(particle.position);
+            chunkBest[chunk] = best;
+        });
+        
+        // Synchronous global best reduction, in chunk order so ties always
+        // resolve to the lowest particle index
+        for (int chunk = 0; chunk < chunkBest.length; chunk++) {
+            int best = chunkBest[chunk];
+            if (best >= 0 && positions.getFitness(best) < globalBest.getFitness()) {
+                positions.copyTo(best, globalBest);
+            }
+        }
+        
+        // Push improved personal bests into the neighbourhoods that see
+        // them, in particle order so the outcome is thread-count independent
+        if (topology != null) {
+            double[] personalBestFitness = personalBests.fitness();
+            for (int i = 0; i < swarmSize; i++) {
+                if (improved[i]) {
+                    topology.improved(i, personalBestFitness);
+                }
+            }
+            if (topologyType == Topology.RANDOM && (iteration + 1) % rebuildInterval == 0) {
+                buildTopology();
             }
         }
         
@@ -129,36 +321,115 @@ public class ParticleSwarmOptimization implements Algorithm {
         return true;
     }
     
-    private void updateVelocity(Particle particle) {
-        double[] pos = particle.position.getPosition();
-        double[] pBest = particle.personalBest.getPosition();
-        double[] gBest = globalBest.getPosition();
+    private void updateVelocity(int particle) {
+        double[] pos = positions.positions();
+        double[] pBest = personalBests.positions();
+        int offset = positions.offset(particle);
+        int dimensions = positions.getDimensions();
+        double maxVelocity = (problem.getUpperBound() - problem.getLowerBound()) * 0.2;
+        Rng stream = streams[particle];
+        
+        // Social attractor: the global best, or the best personal best in the neighbourhood
+        double[] social;
+        int socialOffset;
+        if (topology == null) {
+            social = globalBest.getPosition();
+            socialOffset = 0;
+        } else {
+            social = pBest;
+            socialOffset = personalBests.offset(topology.best(particle));
+        }
         
-        for (int i = 0; i < particle.velocity.length; i++) {
-            double r1 = random.nextDouble();
-            double r2 = random.nextDouble();
+        for (int i = 0; i < dimensions; i++) {
+            int k = offset + i;
+            double r1 = stream.nextDouble();
+            double r2 = stream.nextDouble();
             
             // PSO velocity update equation
-            particle.velocity[i] = inertiaWeight * particle.velocity[i]
-                                 + cognitiveWeight * r1 * (pBest[i] - pos[i])
-                                 + socialWeight * r2 * (gBest[i] - pos[i]);
+            velocities[k] = inertiaWeight * velocities[k]
+                          + cognitiveWeight * r1 * (pBest[k] - pos[k])
+                          + socialWeight * r2 * (social[socialOffset + i] - pos[k]);
             
             // Velocity clamping (optional but helps stability)
-            double maxVelocity = (problem.getUpperBound() - problem.getLowerBound()) * 0.2;
-            particle.velocity[i] = Math.max(-maxVelocity, Math.min(maxVelocity, particle.velocity[i]));
+            velocities[k] = Math.max(-maxVelocity, Math.min(maxVelocity, velocities[k]));
         }
     }
     
-    private void updatePosition(Particle particle) {
-        double[] pos = particle.position.getPosition();
+    private void updatePosition(int particle) {
+        double[] pos = positions.positions();
+        int offset = positions.offset(particle);
+        int dimensions = positions.getDimensions();
         
-        for (int i = 0; i < pos.length; i++) {
-            pos[i] += particle.velocity[i];
+        for (int k = offset; k < offset + dimensions; k++) {
+            pos[k] += velocities[k];
         }
         
         // Clamp to search space bounds
-        searchSpace.clamp(pos);
-        particle.position.setPosition(pos);
+        searchSpace.clamp(pos, offset, dimensions);
+    }
+    
+    /**
+     * Split [0, swarmSize) into one contiguous chunk per thread and run the
+     * action on each, in parallel when more than one thread is configured
+     */
+    private void forEachChunk(ChunkAction action) {
+        int chunks = chunkBest.length;
+        if (chunks == 1) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                action.run(chunk, chunkStart(chunk, chunks), chunkStart(chunk + 1, chunks));
+            }
+            return;
+        }
+        
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int c = chunk;
+            tasks.add(ForkJoinTask.adapt(() -> action.run(c, chunkStart(c, chunks), chunkStart(c + 1, chunks))));
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+    
+    private int chunkStart(int chunk, int chunks) {
+        return (int) ((long) swarmSize * chunk / chunks);
+    }
+    
+    private interface ChunkAction {
+        void run(int chunk, int from, int to);
+    }
+    
+    /**
+     * The personal bests: they are what a particle remembers, so they
+     * are what emigrates and what an immigrant overwrites
+     */
+    @Override
+    public Population getPopulation() {
+        return personalBests;
+    }
+    
+    /**
+     * An immigrant becomes both the position and the personal best of its
+     * particle, and the particle restarts from rest
+     */
+    @Override
+    public void immigrate(int[] targets, List<Solution> migrants) {
+        int dimensions = positions.getDimensions();
+        for (int k = 0; k < targets.length; k++) {
+            int i = targets[k];
+            Solution migrant = migrants.get(k);
+            positions.setIndividual(i, migrant.getPosition(), migrant.getFitness());
+            personalBests.setIndividual(i, migrant.getPosition(), migrant.getFitness());
+            Arrays.fill(velocities, positions.offset(i), positions.offset(i) + dimensions, 0.0);
+            if (migrant.getFitness() < globalBest.getFitness()) {
+                positions.copyTo(i, globalBest);
+            }
+        }
+        if (topology != null) {
+            // A personal best may have got worse, so incremental updates do not apply
+            topology.recompute(personalBests.fitness());
+        }
     }
     
     @Override
@@ -168,19 +439,36 @@ public class ParticleSwarmOptimization implements Algorithm {
     
     @Override
     public List<Solution> getCurrentSolutions() {
-        return new ArrayList<>(currentSolutions);
+        if (positions == null || iteration == 0) {
+            return new ArrayList<>();
+        }
+        return positions.toSolutions();
+    }
+    
+    @Override
+    public Population getCurrentPopulation() {
+        return iteration == 0 ? null : positions;
     }
     
     @Override
     public void reset() {
         iteration = 0;
-        particles.clear();
-        currentSolutions.clear();
         if (problem != null) {
             initialize(problem);
         }
     }
     
+    /**
+     * Stop the worker threads; the next parallel update starts new ones
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+    
     @Override
     public String getName() {
         return "Particle Swarm Optimization";
@@ -191,15 +479,17 @@ public class ParticleSwarmOptimization implements Algorithm {
         return iteration;
     }
     
-    // Getter methods for visualization
-    public List<Particle> getParticles() {
-        return particles;
+    @Override
+    public double getDiversity() {
+        return positions == null ? Double.NaN : positions.diversity();
     }
     
+    // Getter methods for visualization
     public double[] getVelocity(int particleIndex) {
-        if (particleIndex >= 0 && particleIndex < particles.size()) {
-            return particles.get(particleIndex).velocity.clone();
+        if (positions != null && particleIndex >= 0 && particleIndex < swarmSize) {
+            int offset = positions.offset(particleIndex);
+            return Arrays.copyOfRange(velocities, offset, offset + positions.getDimensions());
         }
         return null;
     }
-}
\ No newline at end of file
+}
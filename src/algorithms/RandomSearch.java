@@ -2,8 +2,11 @@ package algorithms;
 
 import core.Algorithm;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +18,9 @@ public class RandomSearch implements Algorithm {
     private int iteration;
     private int maxIterations;
     private int populationSize;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
     
     public RandomSearch(int maxIterations, int populationSize) {
         this.maxIterations = maxIterations;
@@ -23,13 +29,29 @@ public class RandomSearch implements Algorithm {
         this.iteration = 0;
     }
     
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
+    }
+    
     @Override
     public void initialize(Problem problem) {
         this.problem = problem;
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
         this.searchSpace = new SearchSpace(
             problem.getDimensions(),
             problem.getLowerBound(),
-            problem.getUpperBound()
+            problem.getUpperBound(),
+            random
         );
         this.iteration = 0;
         this.currentSolutions.clear();
@@ -63,6 +85,33 @@ public class RandomSearch implements Algorithm {
         return true;
     }
     
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writeSolution(bestSolution);
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.problem = problem;
+        this.random = in.readRandom();
+        this.searchSpace = new SearchSpace(
+            problem.getDimensions(),
+            problem.getLowerBound(),
+            problem.getUpperBound(),
+            random
+        );
+        this.iteration = in.readInt();
+        this.bestSolution = in.readSolution();
+        this.currentSolutions.clear();
+    }
+    
     @Override
     public Solution getBestSolution() {
         return bestSolution;
@@ -0,0 +1,34 @@
+package algorithms;
+
+/**
+ * Plain loop implementation of the mutation kernels
+ */
+final class ScalarMutationKernel implements MutationKernel {
+    @Override
+    public void mutate(double[] out,
+                       double[] base, int baseOffset,
+                       double[] plus, int plusOffset,
+                       double[] minus, int minusOffset,
+                       double f, double lower, double upper, int length) {
+        for (int j = 0; j < length; j++) {
+            double v = base[baseOffset + j] + f * (plus[plusOffset + j] - minus[minusOffset + j]);
+            out[j] = Math.max(lower, Math.min(upper, v));
+        }
+    }
+    
+    @Override
+    public void mutate(double[] out,
+                       double[] base, int baseOffset,
+                       double[] plus1, int plus1Offset,
+                       double[] minus1, int minus1Offset,
+                       double[] plus2, int plus2Offset,
+                       double[] minus2, int minus2Offset,
+                       double f, double lower, double upper, int length) {
+        for (int j = 0; j < length; j++) {
+            double v = base[baseOffset + j]
+                     + f * (plus1[plus1Offset + j] - minus1[minus1Offset + j])
+                     + f * (plus2[plus2Offset + j] - minus2[minus2Offset + j]);
+            out[j] = Math.max(lower, Math.min(upper, v));
+        }
+    }
+}
@@ -1,26 +1,33 @@
 package algorithms;
 
 import core.Algorithm;
+import core.Instrumented;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
-public class SimulatedAnnealing implements Algorithm {
+public class SimulatedAnnealing implements Algorithm, Instrumented {
     private Problem problem;
     private SearchSpace searchSpace;
     private Solution currentSolution;
     private Solution bestSolution;
     private List<Solution> currentSolutions;
     private int iteration;
+    private long proposals;
+    private long acceptances;
     private int maxIterations;
     private double initialTemperature;
     private double currentTemperature;
     private double coolingRate;
     private double stepSize;
-    private Random random;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
     
     public SimulatedAnnealing(int maxIterations, double initialTemperature, 
                               double coolingRate, double stepSize) {
@@ -31,18 +38,35 @@ public class SimulatedAnnealing implements Algorithm {
         this.stepSize = stepSize;
         this.currentSolutions = new ArrayList<>();
         this.iteration = 0;
-        this.random = new Random();
+    }
+    
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
     }
     
     @Override
     public void initialize(Problem problem) {
         this.problem = problem;
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
         this.searchSpace = new SearchSpace(
             problem.getDimensions(),
             problem.getLowerBound(),
-            problem.getUpperBound()
+            problem.getUpperBound(),
+            random
         );
         this.iteration = 0;
+        this.proposals = 0;
+        this.acceptances = 0;
         this.currentSolutions.clear();
         this.currentTemperature = initialTemperature;
         
@@ -78,7 +102,9 @@ public class SimulatedAnnealing implements Algorithm {
         double delta = neighbor.getFitness() - currentSolution.getFitness();
         
         // Accept if better OR with probability based on temperature
+        proposals++;
         if (delta < 0 || random.nextDouble() < Math.exp(-delta / currentTemperature)) {
+            acceptances++;
             currentSolution = new Solution(neighbor);
             
             // Update global best
@@ -94,6 +120,39 @@ public class SimulatedAnnealing implements Algorithm {
         return true;
     }
     
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writeDouble(currentTemperature);
+        out.writeSolution(currentSolution);
+        out.writeSolution(bestSolution);
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.problem = problem;
+        this.random = in.readRandom();
+        this.searchSpace = new SearchSpace(
+            problem.getDimensions(),
+            problem.getLowerBound(),
+            problem.getUpperBound(),
+            random
+        );
+        this.iteration = in.readInt();
+        this.currentTemperature = in.readDouble();
+        this.proposals = 0;
+        this.acceptances = 0;
+        this.currentSolution = in.readSolution();
+        this.bestSolution = in.readSolution();
+        this.currentSolutions.clear();
+    }
+    
     @Override
     public Solution getBestSolution() {
         return bestSolution;
@@ -124,6 +183,16 @@ public class SimulatedAnnealing implements Algorithm {
         return iteration;
     }
     
+    @Override
+    public long getProposals() {
+        return proposals;
+    }
+    
+    @Override
+    public long getAcceptances() {
+        return acceptances;
+    }
+    
     public double getCurrentTemperature() {
         return currentTemperature;
     }
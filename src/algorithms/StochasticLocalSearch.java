@@ -2,11 +2,13 @@ package algorithms;
 
 import core.Algorithm;
 import core.Problem;
+import core.Rng;
 import core.Solution;
 import core.SearchSpace;
+import core.StateReader;
+import core.StateWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 public class StochasticLocalSearch implements Algorithm {
     private Problem problem;
@@ -18,7 +20,9 @@ public class StochasticLocalSearch implements Algorithm {
     private int maxIterations;
     private int numNeighbors;
     private double stepSize;
-    private Random random;
+    private Rng random;
+    private Long seed;
+    private Rng.Kind randomGenerator = Rng.getDefaultKind();
     
     public StochasticLocalSearch(int maxIterations, int numNeighbors, double stepSize) {
         this.maxIterations = maxIterations;
@@ -26,16 +30,31 @@ public class StochasticLocalSearch implements Algorithm {
         this.stepSize = stepSize;
         this.currentSolutions = new ArrayList<>();
         this.iteration = 0;
-        this.random = new Random();
+    }
+    
+    /**
+     * Fix the seed so that initialize() reproduces the same run
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Generator algorithm behind the random stream
+     */
+    public void setRandomGenerator(Rng.Kind kind) {
+        this.randomGenerator = kind;
     }
     
     @Override
     public void initialize(Problem problem) {
         this.problem = problem;
+        this.random = seed != null ? Rng.create(randomGenerator, seed) : Rng.create(randomGenerator);
         this.searchSpace = new SearchSpace(
             problem.getDimensions(),
             problem.getLowerBound(),
-            problem.getUpperBound()
+            problem.getUpperBound(),
+            random
         );
         this.iteration = 0;
         this.currentSolutions.clear();
@@ -89,6 +108,35 @@ public class StochasticLocalSearch implements Algorithm {
         return true;
     }
     
+    @Override
+    public boolean supportsCheckpoints() {
+        return true;
+    }
+    
+    @Override
+    public void saveState(StateWriter out) {
+        out.writeRandom(random);
+        out.writeInt(iteration);
+        out.writeSolution(currentSolution);
+        out.writeSolution(bestSolution);
+    }
+    
+    @Override
+    public void restoreState(Problem problem, StateReader in) {
+        this.problem = problem;
+        this.random = in.readRandom();
+        this.searchSpace = new SearchSpace(
+            problem.getDimensions(),
+            problem.getLowerBound(),
+            problem.getUpperBound(),
+            random
+        );
+        this.iteration = in.readInt();
+        this.currentSolution = in.readSolution();
+        this.bestSolution = in.readSolution();
+        this.currentSolutions.clear();
+    }
+    
     @Override
     public Solution getBestSolution() {
         return bestSolution;
@@ -0,0 +1,202 @@
+package algorithms;
+
+import core.Rng;
+import core.StateReader;
+import core.StateWriter;
+import java.util.Arrays;
+
+/**
+ * Local-best neighbourhood structure for PSO. Neighbourhoods are stored
+ * twice in compressed rows: forward (who particle i listens to) for full
+ * recomputation, and reverse (who listens to particle j) so that a
+ * personal-best improvement is pushed only to the particles it can
+ * affect. Personal bests never get worse, so the pushed neighbourhood
+ * bests stay exact and best(i) is a plain array read.
+ */
+final class SwarmTopology {
+    private final int size;
+    private final int[] best;
+    private int[] neighborStart;
+    private int[] neighbors;
+    private int[] listenerStart;
+    private int[] listeners;
+    
+    private SwarmTopology(int size) {
+        this.size = size;
+        this.best = new int[size];
+    }
+    
+    /**
+     * Each particle sees itself and its two ring neighbours
+     */
+    static SwarmTopology ring(int size) {
+        SwarmTopology topology = new SwarmTopology(size);
+        int[][] lists = new int[size][];
+        for (int i = 0; i < size; i++) {
+            lists[i] = distinct(i, (i + size - 1) % size, (i + 1) % size);
+        }
+        topology.link(lists);
+        return topology;
+    }
+    
+    /**
+     * Particles laid out row-major on a wrapping grid of ceil(sqrt(n))
+     * columns; each sees itself and its north, south, east and west cells
+     */
+    static SwarmTopology vonNeumann(int size) {
+        SwarmTopology topology = new SwarmTopology(size);
+        int columns = (int) Math.ceil(Math.sqrt(size));
+        int[][] lists = new int[size][];
+        for (int i = 0; i < size; i++) {
+            lists[i] = distinct(i,
+                                (i + size - columns % size) % size,
+                                (i + columns) % size,
+                                (i + size - 1) % size,
+                                (i + 1) % size);
+        }
+        topology.link(lists);
+        return topology;
+    }
+    
+    /**
+     * Every particle informs itself and informants others chosen at random
+     * (the adaptive random topology of SPSO 2011)
+     */
+    static SwarmTopology random(int size, int informants, Rng random) {
+        SwarmTopology topology = new SwarmTopology(size);
+        int[] counts = new int[size];
+        int[] targets = new int[size * informants];
+        for (int j = 0; j < size; j++) {
+            for (int k = 0; k < informants; k++) {
+                int i = random.nextInt(size);
+                targets[j * informants + k] = i;
+                counts[i]++;
+            }
+        }
+        
+        int[][] lists = new int[size][];
+        int[] fill = new int[size];
+        for (int i = 0; i < size; i++) {
+            lists[i] = new int[counts[i] + 1];
+            lists[i][fill[i]++] = i;
+        }
+        for (int j = 0; j < size; j++) {
+            for (int k = 0; k < informants; k++) {
+                int i = targets[j * informants + k];
+                if (i != j && !contains(lists[i], fill[i], j)) {
+                    lists[i][fill[i]++] = j;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (fill[i] < lists[i].length) {
+                lists[i] = Arrays.copyOf(lists[i], fill[i]);
+            }
+        }
+        topology.link(lists);
+        return topology;
+    }
+    
+    /**
+     * Write the neighbourhoods and their current bests for a checkpoint
+     */
+    void write(StateWriter out) {
+        out.writeInt(size);
+        out.writeInts(best);
+        out.writeInts(neighborStart);
+        out.writeInts(neighbors);
+        out.writeInts(listenerStart);
+        out.writeInts(listeners);
+    }
+    
+    /**
+     * A topology as written by write(), including which best each particle sees
+     */
+    static SwarmTopology read(StateReader in) {
+        SwarmTopology topology = new SwarmTopology(in.readInt());
+        int[] best = in.readInts();
+        System.arraycopy(best, 0, topology.best, 0, topology.size);
+        topology.neighborStart = in.readInts();
+        topology.neighbors = in.readInts();
+        topology.listenerStart = in.readInts();
+        topology.listeners = in.readInts();
+        return topology;
+    }
+    
+    /**
+     * Index of the best personal best in particle i's neighbourhood
+     */
+    int best(int i) {
+        return best[i];
+    }
+    
+    /**
+     * Recompute every neighbourhood best from scratch
+     */
+    void recompute(double[] personalBestFitness) {
+        for (int i = 0; i < size; i++) {
+            int b = neighbors[neighborStart[i]];
+            for (int k = neighborStart[i] + 1; k < neighborStart[i + 1]; k++) {
+                if (personalBestFitness[neighbors[k]] < personalBestFitness[b]) {
+                    b = neighbors[k];
+                }
+            }
+            best[i] = b;
+        }
+    }
+    
+    /**
+     * Push an improved personal best of particle j to every particle that listens to it
+     */
+    void improved(int j, double[] personalBestFitness) {
+        double value = personalBestFitness[j];
+        for (int k = listenerStart[j]; k < listenerStart[j + 1]; k++) {
+            int i = listeners[k];
+            if (value < personalBestFitness[best[i]]) {
+                best[i] = j;
+            }
+        }
+    }
+    
+    private void link(int[][] lists) {
+        neighborStart = new int[size + 1];
+        listenerStart = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            neighborStart[i + 1] = neighborStart[i] + lists[i].length;
+            for (int j : lists[i]) {
+                listenerStart[j + 1]++;
+            }
+        }
+        for (int j = 0; j < size; j++) {
+            listenerStart[j + 1] += listenerStart[j];
+        }
+        
+        neighbors = new int[neighborStart[size]];
+        listeners = new int[neighborStart[size]];
+        int[] fill = new int[size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(lists[i], 0, neighbors, neighborStart[i], lists[i].length);
+            for (int j : lists[i]) {
+                listeners[listenerStart[j] + fill[j]++] = i;
+            }
+        }
+    }
+    
+    private static int[] distinct(int... candidates) {
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int c : candidates) {
+            if (!contains(result, count, c)) {
+                result[count++] = c;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+    
+    private static boolean contains(int[] array, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) return true;
+        }
+        return false;
+    }
+}
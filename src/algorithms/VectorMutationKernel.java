@@ -0,0 +1,65 @@
+package algorithms;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD mutation kernels on the incubating Vector API. Only loaded
+ * reflectively by MutationKernel.create(), so the rest of the code runs
+ * without the incubator module. Lane operations follow the scalar
+ * evaluation order (no fused multiply-add) to stay bit-identical.
+ */
+final class VectorMutationKernel implements MutationKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    
+    @Override
+    public void mutate(double[] out,
+                       double[] base, int baseOffset,
+                       double[] plus, int plusOffset,
+                       double[] minus, int minusOffset,
+                       double f, double lower, double upper, int length) {
+        int j = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; j < bound; j += SPECIES.length()) {
+            DoubleVector b = DoubleVector.fromArray(SPECIES, base, baseOffset + j);
+            DoubleVector p = DoubleVector.fromArray(SPECIES, plus, plusOffset + j);
+            DoubleVector m = DoubleVector.fromArray(SPECIES, minus, minusOffset + j);
+            p.sub(m).mul(f).add(b)
+             .min(upper).max(lower)
+             .intoArray(out, j);
+        }
+        for (; j < length; j++) {
+            double v = base[baseOffset + j] + f * (plus[plusOffset + j] - minus[minusOffset + j]);
+            out[j] = Math.max(lower, Math.min(upper, v));
+        }
+    }
+    
+    @Override
+    public void mutate(double[] out,
+                       double[] base, int baseOffset,
+                       double[] plus1, int plus1Offset,
+                       double[] minus1, int minus1Offset,
+                       double[] plus2, int plus2Offset,
+                       double[] minus2, int minus2Offset,
+                       double f, double lower, double upper, int length) {
+        int j = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; j < bound; j += SPECIES.length()) {
+            DoubleVector b = DoubleVector.fromArray(SPECIES, base, baseOffset + j);
+            DoubleVector p1 = DoubleVector.fromArray(SPECIES, plus1, plus1Offset + j);
+            DoubleVector m1 = DoubleVector.fromArray(SPECIES, minus1, minus1Offset + j);
+            DoubleVector p2 = DoubleVector.fromArray(SPECIES, plus2, plus2Offset + j);
+            DoubleVector m2 = DoubleVector.fromArray(SPECIES, minus2, minus2Offset + j);
+            p1.sub(m1).mul(f).add(b)
+              .add(p2.sub(m2).mul(f))
+              .min(upper).max(lower)
+              .intoArray(out, j);
+        }
+        for (; j < length; j++) {
+            double v = base[baseOffset + j]
+                     + f * (plus1[plus1Offset + j] - minus1[minus1Offset + j])
+                     + f * (plus2[plus2Offset + j] - minus2[minus2Offset + j]);
+            out[j] = Math.max(lower, Math.min(upper, v));
+        }
+    }
+}
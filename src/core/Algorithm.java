@@ -24,6 +24,15 @@ public interface Algorithm {
      */
     List<Solution> getCurrentSolutions();
     
+    /**
+     * The points getCurrentSolutions() returns, as the algorithm's own
+     * Population instead of copies, or null if it keeps none. Read-only,
+     * and valid only until the next step.
+     */
+    default Population getCurrentPopulation() {
+        return null;
+    }
+    
     /**
      * Reset the algorithm to initial state
      */
@@ -38,4 +47,39 @@ public interface Algorithm {
      * Get the current iteration number
      */
     int getIteration();
+    
+    /**
+     * Spread of the current population (see Population.diversity()),
+     * NaN for single-point methods
+     */
+    default double getDiversity() {
+        return Double.NaN;
+    }
+    
+    /**
+     * Whether saveState and restoreState are implemented; callers check
+     * before checkpointing rather than relying on the defaults throwing
+     */
+    default boolean supportsCheckpoints() {
+        return false;
+    }
+    
+    /**
+     * Write everything needed to continue this run bit for bit: population
+     * or archive, velocities, personal bests, temperature, iteration and
+     * random number state. Parameters fixed at construction (population
+     * size, rates, ...) are not written; restore into an algorithm built
+     * with the same ones.
+     */
+    default void saveState(StateWriter out) {
+        throw new UnsupportedOperationException(getName() + " does not support checkpoints");
+    }
+    
+    /**
+     * Continue from a state written by saveState, in place of
+     * initialize(problem); nothing is evaluated
+     */
+    default void restoreState(Problem problem, StateReader in) {
+        throw new UnsupportedOperationException(getName() + " does not support checkpoints");
+    }
 }
\ No newline at end of file
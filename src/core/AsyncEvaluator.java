@@ -0,0 +1,159 @@
+package core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a fixed number of single-point evaluations in flight for a
+ * steady-state algorithm. Each slot holds one candidate row. The
+ * algorithm writes a candidate into a free slot and submits it; take()
+ * hands back slots in the order their evaluations finish, so a slow
+ * point holds up only itself. The algorithm then inserts the result and
+ * refills the same slot at once. With as many slots as cores, the cores
+ * stay busy however much evaluation times vary.
+ *
+ * <p>Slots and their tasks are preallocated, so a submission allocates
+ * nothing beyond what the executor needs to run a task. Only the thread
+ * that submits and takes may touch the slot rows; the completion queue
+ * publishes each result to it.
+ */
+public class AsyncEvaluator implements AutoCloseable {
+    /**
+     * Which individual a steady-state insertion overwrites
+     */
+    public enum Insertion {
+        /** The worst individual, if the newcomer is better */
+        WORST,
+        /** The individual the candidate was bred from, if the candidate is better */
+        PARENT
+    }
+    
+    private final int slots;
+    private final int dimensions;
+    private final double[] positions;
+    private final double[] fitness;
+    private final int[] parents;
+    private final Runnable[] tasks;
+    private final BlockingQueue<Integer> completed;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private volatile Throwable failure;
+    private int pending;
+    
+    /**
+     * @param executor runs the evaluations; it is not shut down by close()
+     */
+    public AsyncEvaluator(Problem problem, int slots, ExecutorService executor) {
+        this(problem, slots, executor, false);
+    }
+    
+    /**
+     * Evaluate each point on its own virtual thread
+     */
+    public AsyncEvaluator(Problem problem, int slots) {
+        this(problem, slots, Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+    
+    private AsyncEvaluator(Problem problem, int slots, ExecutorService executor, boolean ownsExecutor) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("slots must be at least 1");
+        }
+        this.slots = slots;
+        this.dimensions = problem.getDimensions();
+        this.positions = new double[slots * dimensions];
+        this.fitness = new double[slots];
+        this.parents = new int[slots];
+        this.completed = new ArrayBlockingQueue<>(slots);
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.tasks = new Runnable[slots];
+        for (int i = 0; i < slots; i++) {
+            int slot = i;
+            tasks[i] = () -> {
+                try {
+                    problem.evaluate(positions, fitness, slot, slot + 1);
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                completed.add(slot);
+            };
+        }
+    }
+    
+    public int getSlots() {
+        return slots;
+    }
+    
+    /**
+     * Number of submitted slots not yet taken back
+     */
+    public int getPending() {
+        return pending;
+    }
+    
+    /**
+     * Candidate rows, slot i starting at offset(i); write a slot only
+     * while it is not pending
+     */
+    public double[] positions() {
+        return positions;
+    }
+    
+    public int offset(int slot) {
+        return slot * dimensions;
+    }
+    
+    /**
+     * Start evaluating the candidate in slot
+     *
+     * @param parent index of the individual it was bred from, handed back by getParent()
+     */
+    public void submit(int slot, int parent) {
+        parents[slot] = parent;
+        pending++;
+        executor.execute(tasks[slot]);
+    }
+    
+    /**
+     * Wait for the next evaluation to finish and return its slot
+     */
+    public int take() {
+        if (pending == 0) {
+            throw new IllegalStateException("No evaluation in flight");
+        }
+        int slot;
+        try {
+            slot = completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an evaluation", e);
+        }
+        pending--;
+        if (failure != null) {
+            throw new IllegalStateException("Evaluation failed", failure);
+        }
+        return slot;
+    }
+    
+    public double getFitness(int slot) {
+        return fitness[slot];
+    }
+    
+    public int getParent(int slot) {
+        return parents[slot];
+    }
+    
+    /**
+     * Abandon the evaluations in flight; their results are never taken.
+     * Stops the executor if this evaluator created it.
+     */
+    @Override
+    public void close() {
+        pending = 0;
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+}
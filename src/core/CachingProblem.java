@@ -0,0 +1,322 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Decorator that memoizes fitness by the exact bits of the position, so
+ * re-scoring an unchanged point (a GA clone, a DE trial clamped back onto
+ * its parent, a hill-climbing step stuck on a bound) costs a table lookup
+ * instead of a call to the delegate.
+ *
+ * <p>The table holds at most maxEntries points. Keys live in one packed
+ * long[] of raw double bits, indexed through an open-addressing (linear
+ * probing) slot array, so lookups allocate nothing and box nothing. When
+ * the table is full, the entry to evict is chosen with the CLOCK
+ * algorithm: a hand sweeps the entries, giving each recently used entry
+ * a second chance.
+ *
+ * <p>Lookups are serialized on the cache, but the delegate is called
+ * outside the lock, so parallel evaluators still evaluate misses
+ * concurrently. Two threads missing on the same point may both evaluate it.
+ */
+public class CachingProblem implements Problem {
+    private static final int EMPTY = -1;
+    /** Largest maxEntries whose slot array size still fits in an int */
+    private static final int MAX_ENTRIES = 1 << 29;
+    
+    private final Problem delegate;
+    private final int dimensions;
+    private final int maxEntries;
+    
+    // Entry storage, indexed by entry number
+    private final long[] keys;
+    private final long[] hashes;
+    private final double[] values;
+    private final boolean[] referenced;
+    private int entries;
+    private int hand;
+    
+    // Open-addressing index: slot -> entry number or EMPTY
+    private final int[] slots;
+    private final int mask;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    public CachingProblem(Problem delegate, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.delegate = delegate;
+        this.dimensions = delegate.getDimensions();
+        if (maxEntries > MAX_ENTRIES || (long) maxEntries * dimensions > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxEntries " + maxEntries + " is too large for "
+                                               + dimensions + " dimensions");
+        }
+        this.maxEntries = maxEntries;
+        this.keys = new long[maxEntries * dimensions];
+        this.hashes = new long[maxEntries];
+        this.values = new double[maxEntries];
+        this.referenced = new boolean[maxEntries];
+        
+        // Keep the load factor at or below one half
+        int capacity = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(slots, EMPTY);
+    }
+    
+    public Problem getDelegate() {
+        return delegate;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * Fraction of lookups answered from the cache
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+    
+    /**
+     * Number of points currently cached
+     */
+    public synchronized int size() {
+        return entries;
+    }
+    
+    /**
+     * Drop every cached point and reset the counters
+     */
+    public synchronized void clear() {
+        Arrays.fill(slots, EMPTY);
+        Arrays.fill(referenced, false);
+        entries = 0;
+        hand = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+    
+    @Override
+    public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
+        long hash = hash(positions, offset);
+        synchronized (this) {
+            int entry = find(positions, offset, hash);
+            if (entry != EMPTY) {
+                referenced[entry] = true;
+                hits++;
+                return values[entry];
+            }
+            misses++;
+        }
+        
+        double value = delegate.evaluate(positions, offset);
+        
+        synchronized (this) {
+            // Another thread may have stored the same point meanwhile
+            if (find(positions, offset, hash) == EMPTY) {
+                insert(positions, offset, hash, value);
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * Answers hits from the table and forwards each run of consecutive
+     * misses to the delegate as one block, so a batched delegate still
+     * sees batches
+     */
+    @Override
+    public void evaluate(double[] positions, double[] fitness, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int start;
+            synchronized (this) {
+                for (; i < to; i++) {
+                    int offset = i * dimensions;
+                    int entry = find(positions, offset, hash(positions, offset));
+                    if (entry == EMPTY) {
+                        break;
+                    }
+                    referenced[entry] = true;
+                    hits++;
+                    fitness[i] = values[entry];
+                }
+                start = i;
+                for (; i < to; i++) {
+                    int offset = i * dimensions;
+                    if (find(positions, offset, hash(positions, offset)) != EMPTY) {
+                        break;
+                    }
+                    misses++;
+                }
+            }
+            if (start == i) {
+                break;
+            }
+            
+            delegate.evaluate(positions, fitness, start, i);
+            
+            synchronized (this) {
+                for (int k = start; k < i; k++) {
+                    int offset = k * dimensions;
+                    long hash = hash(positions, offset);
+                    // Another thread, or an equal point earlier in the block, may have stored it
+                    if (find(positions, offset, hash) == EMPTY) {
+                        insert(positions, offset, hash, fitness[k]);
+                    }
+                }
+            }
+        }
+    }
+    
+    private long hash(double[] positions, int offset) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = offset; i < offset + dimensions; i++) {
+            h = (h ^ Double.doubleToRawLongBits(positions[i])) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        // Final avalanche (MurmurHash3 fmix64)
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private int find(double[] positions, int offset, long hash) {
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                return EMPTY;
+            }
+            if (hashes[entry] == hash && matches(entry, positions, offset)) {
+                return entry;
+            }
+        }
+    }
+    
+    private boolean matches(int entry, double[] positions, int offset) {
+        int base = entry * dimensions;
+        for (int d = 0; d < dimensions; d++) {
+            if (keys[base + d] != Double.doubleToRawLongBits(positions[offset + d])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void insert(double[] positions, int offset, long hash, double value) {
+        int entry;
+        if (entries < maxEntries) {
+            entry = entries++;
+        } else {
+            entry = victim();
+            unlink(entry);
+            evictions++;
+        }
+        
+        int base = entry * dimensions;
+        for (int d = 0; d < dimensions; d++) {
+            keys[base + d] = Double.doubleToRawLongBits(positions[offset + d]);
+        }
+        hashes[entry] = hash;
+        values[entry] = value;
+        referenced[entry] = false;
+        
+        int slot = (int) hash & mask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+    }
+    
+    /**
+     * CLOCK: advance the hand, clearing reference bits, until it reaches
+     * an entry that has not been used since the last sweep
+     */
+    private int victim() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = hand + 1 == maxEntries ? 0 : hand + 1;
+        }
+        int entry = hand;
+        hand = hand + 1 == maxEntries ? 0 : hand + 1;
+        return entry;
+    }
+    
+    /**
+     * Remove an entry from the slot array, shifting later members of its
+     * probe run back so no lookup stops early at the hole
+     */
+    private void unlink(int entry) {
+        int hole = (int) hashes[entry] & mask;
+        while (slots[hole] != entry) {
+            hole = (hole + 1) & mask;
+        }
+        
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int moved = slots[slot];
+            if (moved == EMPTY) {
+                break;
+            }
+            int home = (int) hashes[moved] & mask;
+            // Move back only if the hole lies on the path from home to slot
+            boolean reachable = hole <= slot
+                ? home <= hole || home > slot
+                : home <= hole && home > slot;
+            if (reachable) {
+                slots[hole] = moved;
+                hole = slot;
+            }
+        }
+        slots[hole] = EMPTY;
+    }
+    
+    @Override
+    public int getDimensions() {
+        return dimensions;
+    }
+    
+    @Override
+    public double getLowerBound() {
+        return delegate.getLowerBound();
+    }
+    
+    @Override
+    public double getUpperBound() {
+        return delegate.getUpperBound();
+    }
+    
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+    
+    @Override
+    public double[] getOptimum() {
+        return delegate.getOptimum();
+    }
+}
@@ -0,0 +1,143 @@
+package core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A saved algorithm state on disk. The file is a fixed header (magic,
+ * format version, CRC-32 of the payload, evaluations used, payload length,
+ * algorithm class) followed by the bytes the algorithm wrote in saveState.
+ *
+ * <p>Files are written through a memory mapping into a temporary file,
+ * forced to disk and then moved over the target, so a crash mid-write
+ * leaves the previous checkpoint intact. They are read back through a
+ * read-only mapping.
+ */
+public final class Checkpoint {
+    /** "SWCK" */
+    static final int MAGIC = 0x5357434B;
+    static final int VERSION = 2;
+    
+    private final String algorithmClass;
+    private final long evaluations;
+    private final ByteBuffer payload;
+    
+    private Checkpoint(String algorithmClass, long evaluations, ByteBuffer payload) {
+        this.algorithmClass = algorithmClass;
+        this.evaluations = evaluations;
+        this.payload = payload;
+    }
+    
+    /**
+     * Class name of the algorithm that wrote the checkpoint
+     */
+    public String getAlgorithmClass() {
+        return algorithmClass;
+    }
+    
+    /**
+     * Function evaluations used by the run when it was saved
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+    
+    /**
+     * Snapshot an initialized algorithm and write it to path
+     */
+    public static void save(Path path, Algorithm algorithm, long evaluations) throws IOException {
+        StateWriter state = new StateWriter();
+        algorithm.saveState(state);
+        write(path, algorithm.getClass().getName(), evaluations, state);
+    }
+    
+    /**
+     * Write an already captured state to path, replacing any previous file
+     */
+    static void write(Path path, String algorithmClass, long evaluations, StateWriter state) throws IOException {
+        ByteBuffer payload = state.contents();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        byte[] name = algorithmClass.getBytes(StandardCharsets.UTF_8);
+        int length = 4 + 4 + 8 + 8 + 4 + 4 + name.length + payload.remaining();
+        
+        Path parent = path.toAbsolutePath().getParent();
+        Path temp = parent.resolve(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            map.putInt(MAGIC)
+               .putInt(VERSION)
+               .putLong(crc.getValue())
+               .putLong(evaluations)
+               .putInt(payload.remaining())
+               .putInt(name.length)
+               .put(name)
+               .put(payload);
+            map.force();
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Map a checkpoint file and check its header and CRC
+     */
+    public static Checkpoint load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.remaining() < 32 || map.getInt() != MAGIC) {
+                throw new IOException(path + " is not a checkpoint");
+            }
+            int version = map.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " has unsupported checkpoint version " + version);
+            }
+            long expected = map.getLong();
+            long evaluations = map.getLong();
+            int payloadLength = map.getInt();
+            int nameLength = map.getInt();
+            if (nameLength < 0 || payloadLength < 0 || nameLength + (long) payloadLength != map.remaining()) {
+                throw new IOException(path + " is truncated");
+            }
+            byte[] name = new byte[nameLength];
+            map.get(name);
+            ByteBuffer payload = map.slice();
+            
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != expected) {
+                throw new IOException(path + " is corrupt (CRC mismatch)");
+            }
+            return new Checkpoint(new String(name, StandardCharsets.UTF_8), evaluations, payload);
+        }
+    }
+    
+    /**
+     * Restore the saved state into algorithm, which must be of the same
+     * class and built with the same parameters as the one that saved it
+     */
+    public void restore(Algorithm algorithm, Problem problem) {
+        if (!algorithm.getClass().getName().equals(algorithmClass)) {
+            throw new IllegalArgumentException("Checkpoint was written by " + algorithmClass + ", not "
+                                               + algorithm.getClass().getName());
+        }
+        if (problem instanceof CountingProblem) {
+            ((CountingProblem) problem).resumeFrom(evaluations);
+        }
+        algorithm.restoreState(problem, new StateReader(payload.duplicate()));
+    }
+}
@@ -0,0 +1,132 @@
+package core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checkpoints a run every interval iterations without stalling it. The
+ * state is captured on the stepping thread (a copy into a reused buffer)
+ * and written to disk on a background thread. If the previous write is
+ * still in flight when the next checkpoint is due, that checkpoint is
+ * skipped rather than waited for.
+ *
+ * <p>A failed write is rethrown as UncheckedIOException from the next
+ * call to afterStep, flush or close.
+ */
+public class Checkpointer implements AutoCloseable {
+    private final Path path;
+    private final int interval;
+    private final ExecutorService writer;
+    // One buffer is captured into while the other may still be being written
+    private StateWriter capturing = new StateWriter();
+    private StateWriter writing = new StateWriter();
+    private Future<?> pending;
+    private volatile IOException failure;
+    private long written;
+    private long skipped;
+    
+    public Checkpointer(Path path, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1");
+        }
+        this.path = path;
+        this.interval = interval;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    /**
+     * Number of checkpoints written so far
+     */
+    public long getWritten() {
+        return written;
+    }
+    
+    /**
+     * Number of checkpoints skipped because the previous one was still being written
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+    
+    /**
+     * Call after every step; checkpoints when the iteration is a multiple of the interval
+     */
+    public void afterStep(Algorithm algorithm, long evaluations) {
+        rethrow();
+        if (algorithm.getIteration() % interval == 0) {
+            checkpoint(algorithm, evaluations);
+        }
+    }
+    
+    /**
+     * Capture the algorithm's state now and write it in the background,
+     * unless the previous write has not finished
+     */
+    public void checkpoint(Algorithm algorithm, long evaluations) {
+        if (pending != null && !pending.isDone()) {
+            skipped++;
+            return;
+        }
+        capturing.clear();
+        algorithm.saveState(capturing);
+        
+        StateWriter state = capturing;
+        capturing = writing;
+        writing = state;
+        String algorithmClass = algorithm.getClass().getName();
+        pending = writer.submit(() -> {
+            try {
+                Checkpoint.write(path, algorithmClass, evaluations, state);
+            } catch (IOException e) {
+                failure = e;
+            }
+        });
+        written++;
+    }
+    
+    /**
+     * Wait for the write in flight, if any
+     */
+    public void flush() {
+        if (pending != null) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Checkpoint write failed", e.getCause());
+            }
+        }
+        rethrow();
+    }
+    
+    private void rethrow() {
+        IOException e = failure;
+        if (e != null) {
+            failure = null;
+            throw new UncheckedIOException("Could not write checkpoint " + path, e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            writer.shutdown();
+        }
+    }
+}
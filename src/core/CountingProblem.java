@@ -0,0 +1,109 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorator that counts every function evaluation, including points
+ * scored through the batch entry point, so budgets are measured in
+ * evaluations rather than iterations. With a budget set, points
+ * requested after it is spent are not evaluated and score +infinity,
+ * so a step can never overshoot the budget or improve on the best.
+ */
+public class CountingProblem implements Problem {
+    private final Problem delegate;
+    private final AtomicLong requested = new AtomicLong();
+    private volatile long budget = Long.MAX_VALUE;
+    
+    public CountingProblem(Problem delegate) {
+        this.delegate = delegate;
+    }
+    
+    /**
+     * Hard cap on the number of evaluations passed to the delegate
+     */
+    public void setBudget(long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        this.budget = budget;
+    }
+    
+    public long getBudget() {
+        return budget;
+    }
+    
+    public long getEvaluations() {
+        return Math.min(requested.get(), budget);
+    }
+    
+    /**
+     * Whether the budget has been used up
+     */
+    public boolean isExhausted() {
+        return requested.get() >= budget;
+    }
+    
+    /**
+     * Continue counting from a run that had already used evaluations
+     */
+    public void resumeFrom(long evaluations) {
+        requested.set(evaluations);
+    }
+    
+    public Problem getDelegate() {
+        return delegate;
+    }
+    
+    /**
+     * Reserve up to count evaluations and return how many were granted
+     */
+    private int acquire(int count) {
+        long before = requested.getAndAdd(count);
+        long left = budget - before;
+        return left >= count ? count : (int) Math.max(left, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] position) {
+        return acquire(1) == 1 ? delegate.evaluate(position) : Double.POSITIVE_INFINITY;
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
+        return acquire(1) == 1 ? delegate.evaluate(positions, offset) : Double.POSITIVE_INFINITY;
+    }
+    
+    @Override
+    public void evaluate(double[] positions, double[] fitness, int from, int to) {
+        int granted = acquire(to - from);
+        delegate.evaluate(positions, fitness, from, from + granted);
+        for (int i = from + granted; i < to; i++) {
+            fitness[i] = Double.POSITIVE_INFINITY;
+        }
+    }
+    
+    @Override
+    public int getDimensions() {
+        return delegate.getDimensions();
+    }
+    
+    @Override
+    public double getLowerBound() {
+        return delegate.getLowerBound();
+    }
+    
+    @Override
+    public double getUpperBound() {
+        return delegate.getUpperBound();
+    }
+    
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+    
+    @Override
+    public double[] getOptimum() {
+        return delegate.getOptimum();
+    }
+}
@@ -0,0 +1,37 @@
+package core;
+
+/**
+ * Strategy for scoring a batch of packed points against a problem.
+ * Algorithms collect a whole generation into one array and hand it
+ * to an evaluator, so evaluation becomes a single (possibly parallel)
+ * phase per step.
+ */
+public interface Evaluator {
+    /**
+     * Evaluate count points packed row-major in positions
+     * (point i starts at i * problem.getDimensions()) into fitness[0 .. count)
+     */
+    void evaluate(Problem problem, double[] positions, double[] fitness, int count);
+    
+    /**
+     * Evaluate everything on the calling thread
+     */
+    static Evaluator serial() {
+        return SerialEvaluator.INSTANCE;
+    }
+    
+    /**
+     * Split the batch recursively over the common fork-join pool
+     */
+    static Evaluator forkJoin() {
+        return new ForkJoinEvaluator();
+    }
+    
+    /**
+     * Run each chunk of the batch on its own virtual thread.
+     * Best suited to objectives that block (simulators, I/O, remote calls).
+     */
+    static Evaluator virtualThreads() {
+        return new VirtualThreadEvaluator();
+    }
+}
@@ -0,0 +1,66 @@
+package core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a batch by recursively halving the index range on a
+ * fork-join pool. Leaves call the problem's batch entry point on
+ * their sub-range.
+ */
+public class ForkJoinEvaluator implements Evaluator {
+    private final ForkJoinPool pool;
+    private final int threshold;
+    
+    public ForkJoinEvaluator(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be at least 1");
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+    
+    public ForkJoinEvaluator(ForkJoinPool pool) {
+        this(pool, 1);
+    }
+    
+    public ForkJoinEvaluator() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    @Override
+    public void evaluate(Problem problem, double[] positions, double[] fitness, int count) {
+        if (count <= threshold) {
+            problem.evaluate(positions, fitness, 0, count);
+            return;
+        }
+        pool.invoke(new EvaluateTask(problem, positions, fitness, 0, count));
+    }
+    
+    private class EvaluateTask extends RecursiveAction {
+        private final Problem problem;
+        private final double[] positions;
+        private final double[] fitness;
+        private final int from;
+        private final int to;
+        
+        EvaluateTask(Problem problem, double[] positions, double[] fitness, int from, int to) {
+            this.problem = problem;
+            this.positions = positions;
+            this.fitness = fitness;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                problem.evaluate(positions, fitness, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new EvaluateTask(problem, positions, fitness, from, mid),
+                      new EvaluateTask(problem, positions, fitness, mid, to));
+        }
+    }
+}
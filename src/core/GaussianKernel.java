@@ -0,0 +1,34 @@
+package core;
+
+/**
+ * Fast path of the ziggurat over a block of draws. For each random long
+ * bits[k], the kernel picks its layer and either accepts it, writing
+ * the deviate to dest[offset + k], or writes NaN to leave it to the
+ * scalar slow path. Implementations must round exactly like
+ * ScalarGaussianKernel so deviates do not depend on the kernel in use.
+ */
+interface GaussianKernel {
+    /**
+     * layers is scratch of at least count entries
+     */
+    void accept(long[] bits, int[] layers, int count, double[] dest, int offset);
+    
+    /**
+     * Pick the SIMD kernel when the jdk.incubator.vector module is loaded
+     * (run with --add-modules jdk.incubator.vector), otherwise the scalar one.
+     * Setting -Dswarmop.vector=false forces the scalar kernel.
+     */
+    static GaussianKernel create() {
+        boolean allowed = Boolean.parseBoolean(System.getProperty("swarmop.vector", "true"));
+        if (allowed && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (GaussianKernel) Class.forName("core.VectorGaussianKernel")
+                                             .getDeclaredConstructor()
+                                             .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar kernel
+            }
+        }
+        return new ScalarGaussianKernel();
+    }
+}
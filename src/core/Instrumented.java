@@ -0,0 +1,20 @@
+package core;
+
+/**
+ * Implemented by algorithms that accept or reject candidate moves, so
+ * metrics can report the acceptance rate (simulated annealing, hill
+ * climbing) or success rate (differential evolution). Counts start at
+ * zero on initialize() and restoreState(), and are read from other
+ * threads without synchronization.
+ */
+public interface Instrumented {
+    /**
+     * Candidate moves evaluated so far
+     */
+    long getProposals();
+    
+    /**
+     * Candidate moves that replaced the point they competed with
+     */
+    long getAcceptances();
+}
@@ -0,0 +1,22 @@
+package core;
+
+import java.util.List;
+
+/**
+ * Population-based algorithm that can exchange individuals with other
+ * instances of itself, e.g. islands of an island model. Both methods are
+ * called between steps, on the thread that steps the algorithm.
+ */
+public interface Migratable {
+    /**
+     * Individuals that compete for emigration and can be replaced by
+     * immigrants. Callers must not modify it directly.
+     */
+    Population getPopulation();
+    
+    /**
+     * Overwrite individual targets[k] of getPopulation() with migrants.get(k),
+     * keeping any derived state (best solution, velocities, ...) consistent
+     */
+    void immigrate(int[] targets, List<Solution> migrants);
+}
@@ -0,0 +1,220 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Structure-of-arrays store for a fixed-capacity set of points.
+ * All positions live in one row-major array (individual i occupies
+ * positions[i * dimensions .. (i + 1) * dimensions)) with a parallel
+ * fitness array, so a generation is two allocations instead of one
+ * Solution plus one double[] per individual.
+ */
+public class Population {
+    private final int dimensions;
+    private final int capacity;
+    private final double[] positions;
+    private final double[] fitness;
+    private int size;
+    
+    public Population(int capacity, int dimensions) {
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.positions = new double[capacity * dimensions];
+        this.fitness = new double[capacity];
+        this.size = capacity;
+        Arrays.fill(fitness, Double.MAX_VALUE);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Change the number of live individuals; must not exceed the capacity
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > capacity) {
+            throw new IllegalArgumentException("size " + size + " outside [0, " + capacity + "]");
+        }
+        this.size = size;
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public int getDimensions() {
+        return dimensions;
+    }
+    
+    /**
+     * Backing position array, row-major. Writes go straight into the population.
+     */
+    public double[] positions() {
+        return positions;
+    }
+    
+    /**
+     * Backing fitness array. Writes go straight into the population.
+     */
+    public double[] fitness() {
+        return fitness;
+    }
+    
+    /**
+     * Index of the first coordinate of individual i in positions()
+     */
+    public int offset(int i) {
+        return i * dimensions;
+    }
+    
+    public double get(int i, int d) {
+        return positions[i * dimensions + d];
+    }
+    
+    public void set(int i, int d, double value) {
+        positions[i * dimensions + d] = value;
+    }
+    
+    public double getFitness(int i) {
+        return fitness[i];
+    }
+    
+    public void setFitness(int i, double value) {
+        fitness[i] = value;
+    }
+    
+    /**
+     * Copy individual i (position and fitness) into row j of dest
+     */
+    public void copyTo(int i, Population dest, int j) {
+        System.arraycopy(positions, i * dimensions, dest.positions, j * dimensions, dimensions);
+        dest.fitness[j] = fitness[i];
+    }
+    
+    /**
+     * Copy individual i (position and fitness) into an existing Solution
+     */
+    public void copyTo(int i, Solution dest) {
+        System.arraycopy(positions, i * dimensions, dest.getPosition(), 0, dimensions);
+        dest.setFitness(fitness[i]);
+    }
+    
+    /**
+     * Copy the position of individual i into dest[0 .. dimensions)
+     */
+    public void copyPosition(int i, double[] dest) {
+        System.arraycopy(positions, i * dimensions, dest, 0, dimensions);
+    }
+    
+    /**
+     * Overwrite individual i with the given position and fitness
+     */
+    public void setIndividual(int i, double[] position, double value) {
+        System.arraycopy(position, 0, positions, i * dimensions, dimensions);
+        fitness[i] = value;
+    }
+    
+    /**
+     * Overwrite individual i with the row of source starting at offset
+     */
+    public void setIndividual(int i, double[] source, int offset, double value) {
+        System.arraycopy(source, offset, positions, i * dimensions, dimensions);
+        fitness[i] = value;
+    }
+    
+    /**
+     * Fill the first size() individuals uniformly at random within the bounds
+     */
+    public void randomize(SearchSpace searchSpace) {
+        searchSpace.fillRandom(positions, 0, size * dimensions);
+    }
+    
+    /**
+     * Score the first size() individuals in one batch
+     */
+    public void evaluate(Problem problem, Evaluator evaluator) {
+        evaluator.evaluate(problem, positions, fitness, size);
+    }
+    
+    /**
+     * Index of the individual with the lowest fitness (first one on ties)
+     */
+    public int bestIndex() {
+        int best = 0;
+        for (int i = 1; i < size; i++) {
+            if (fitness[i] < fitness[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Index of the individual with the highest fitness (first one on ties)
+     */
+    public int worstIndex() {
+        int worst = 0;
+        for (int i = 1; i < size; i++) {
+            if (fitness[i] > fitness[worst]) {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+    
+    /**
+     * Mean Euclidean distance of the first size() individuals to their
+     * centroid; tends to zero as the population collapses onto one point
+     */
+    public double diversity() {
+        if (size == 0) {
+            return 0.0;
+        }
+        double[] centroid = new double[dimensions];
+        for (int i = 0; i < size; i++) {
+            int offset = i * dimensions;
+            for (int d = 0; d < dimensions; d++) {
+                centroid[d] += positions[offset + d];
+            }
+        }
+        for (int d = 0; d < dimensions; d++) {
+            centroid[d] /= size;
+        }
+        
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            int offset = i * dimensions;
+            double sum = 0.0;
+            for (int d = 0; d < dimensions; d++) {
+                double diff = positions[offset + d] - centroid[d];
+                sum += diff * diff;
+            }
+            total += Math.sqrt(sum);
+        }
+        return total / size;
+    }
+    
+    /**
+     * Materialize individual i as an independent Solution
+     */
+    public Solution toSolution(int i) {
+        Solution solution = new Solution(dimensions);
+        System.arraycopy(positions, i * dimensions, solution.getPosition(), 0, dimensions);
+        solution.setFitness(fitness[i]);
+        return solution;
+    }
+    
+    /**
+     * Copy the whole population out as independent Solutions
+     */
+    public List<Solution> toSolutions() {
+        List<Solution> solutions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            solutions.add(toSolution(i));
+        }
+        return solutions;
+    }
+}
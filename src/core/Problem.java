@@ -1,5 +1,7 @@
 package core;
 
+import java.util.Arrays;
+
 public interface Problem {
     /**
      * Evaluate the fitness of a solution
@@ -7,6 +9,27 @@ public interface Problem {
      */
     double evaluate(double[] position);
     
+    /**
+     * Evaluate the point stored at positions[offset .. offset + getDimensions()).
+     * The default copies the point out; implementations should override this
+     * to read the packed array in place.
+     */
+    default double evaluate(double[] positions, int offset) {
+        return evaluate(Arrays.copyOfRange(positions, offset, offset + getDimensions()));
+    }
+    
+    /**
+     * Evaluate a batch of points packed row-major into one array
+     * (point i starts at i * getDimensions()), writing fitness[i] for
+     * every i in [from, to). Falls back to one call per point.
+     */
+    default void evaluate(double[] positions, double[] fitness, int from, int to) {
+        int dimensions = getDimensions();
+        for (int i = from; i < to; i++) {
+            fitness[i] = evaluate(positions, i * dimensions);
+        }
+    }
+    
     /**
      * Get the number of dimensions for this problem
      */
@@ -26,4 +49,11 @@ public interface Problem {
      * Get the name of this problem
      */
     String getName();
+    
+    /**
+     * Location of the global minimum, or null if it is not known
+     */
+    default double[] getOptimum() {
+        return null;
+    }
 }
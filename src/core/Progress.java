@@ -0,0 +1,31 @@
+package core;
+
+/**
+ * Read-only view of a run in progress, as seen by Termination criteria
+ */
+public interface Progress {
+    /**
+     * Function evaluations spent so far
+     */
+    long getEvaluations();
+    
+    /**
+     * Wall-clock time since the run started
+     */
+    long getElapsedNanos();
+    
+    /**
+     * Iterations completed so far
+     */
+    int getIteration();
+    
+    /**
+     * Fitness of the best solution found so far
+     */
+    double getBestFitness();
+    
+    /**
+     * Spread of the current population, NaN when the algorithm has none
+     */
+    double getDiversity();
+}
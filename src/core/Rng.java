@@ -0,0 +1,369 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * The random number generator every algorithm draws from. Unlike
+ * java.util.Random it is not synchronized, its whole state is a few longs
+ * that a checkpoint can save, and nextGaussian uses a ziggurat sampler
+ * instead of the polar method.
+ *
+ * <p>Two algorithms are available. L64X128MixRandom (the default) is the
+ * LXM generator of JDK 17, which splits into statistically independent
+ * child streams. Xoshiro256++ is slightly faster and makes child streams
+ * by jumping 2^128 steps ahead. Either way, split() is how a component or
+ * a thread gets a stream of its own from a seeded parent.
+ *
+ * <p>A generator must not be shared between threads.
+ */
+public abstract class Rng implements RandomGenerator {
+    /**
+     * Generator algorithm
+     */
+    public enum Kind {
+        L64X128_MIX("l64x128mix"),
+        XOSHIRO256_PLUS_PLUS("xoshiro256pp");
+        
+        private final String label;
+        
+        Kind(String label) {
+            this.label = label;
+        }
+        
+        /**
+         * Parse a label ("l64x128mix", "xoshiro256pp") or constant name
+         */
+        public static Kind parse(String value) {
+            for (Kind kind : values()) {
+                if (kind.label.equalsIgnoreCase(value) || kind.name().equalsIgnoreCase(value)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown random generator: " + value);
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final AtomicLong SEEDER = new AtomicLong(mix64(System.nanoTime() ^ System.currentTimeMillis()));
+    private static volatile Kind defaultKind = Kind.L64X128_MIX;
+    private static final GaussianKernel GAUSSIANS = GaussianKernel.create();
+    /** Draws nextGaussians feeds to the kernel at a time */
+    private static final int GAUSSIAN_BLOCK = 64;
+    
+    // Scratch for nextGaussians, not part of the state
+    private long[] gaussianBits;
+    private int[] gaussianLayers;
+    
+    /**
+     * Algorithm used by create(seed) and create(); set once at startup.
+     * Code that runs with a chosen kind passes it to create(kind, seed).
+     */
+    public static void setDefaultKind(Kind kind) {
+        defaultKind = kind;
+    }
+    
+    public static Kind getDefaultKind() {
+        return defaultKind;
+    }
+    
+    /**
+     * A generator of the default kind whose output depends only on seed
+     */
+    public static Rng create(long seed) {
+        return create(defaultKind, seed);
+    }
+    
+    public static Rng create(Kind kind, long seed) {
+        // SplitMix64 expands the seed into the initial state
+        long[] state = new long[4];
+        long z = seed;
+        for (int i = 0; i < state.length; i++) {
+            z += GOLDEN_GAMMA;
+            state[i] = mix64(z);
+        }
+        return kind == Kind.XOSHIRO256_PLUS_PLUS
+             ? new Xoshiro256PlusPlus(state[0], state[1], state[2], state[3])
+             : new L64X128Mix(state[0], state[1], state[2], state[3]);
+    }
+    
+    /**
+     * An unseeded generator; every call gets a different stream
+     */
+    public static Rng create() {
+        return create(defaultKind);
+    }
+    
+    /**
+     * An unseeded generator of the given kind
+     */
+    public static Rng create(Kind kind) {
+        return create(kind, SEEDER.getAndAdd(GOLDEN_GAMMA));
+    }
+    
+    public abstract Kind getKind();
+    
+    /**
+     * A new generator whose stream is independent of this one's. The
+     * children split off a seeded parent are the same on every run.
+     */
+    public abstract Rng split();
+    
+    /**
+     * An identical generator that continues from the same state
+     */
+    public abstract Rng copy();
+    
+    /**
+     * Write the algorithm and its state
+     */
+    public void write(StateWriter out) {
+        out.writeInt(getKind().ordinal());
+        for (long word : state()) {
+            out.writeLong(word);
+        }
+    }
+    
+    /**
+     * A generator as written by write()
+     */
+    public static Rng read(StateReader in) {
+        int ordinal = in.readInt();
+        if (ordinal < 0 || ordinal >= Kind.values().length) {
+            throw new IllegalStateException("Corrupt random state in checkpoint");
+        }
+        long s0 = in.readLong();
+        long s1 = in.readLong();
+        long s2 = in.readLong();
+        long s3 = in.readLong();
+        return Kind.values()[ordinal] == Kind.XOSHIRO256_PLUS_PLUS
+             ? new Xoshiro256PlusPlus(s0, s1, s2, s3)
+             : new L64X128Mix(s0, s1, s2, s3);
+    }
+    
+    abstract long[] state();
+    
+    @Override
+    public abstract long nextLong();
+    
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+    
+    /**
+     * Uniform in [0, bound), by Lemire's multiply-and-reject method
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & 0xFFFFFFFFL) < bound) {
+            long threshold = (1L << 32) % bound;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+    
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+    
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+    
+    /**
+     * Standard normal deviate from the ziggurat
+     */
+    @Override
+    public double nextGaussian() {
+        return Ziggurat.sample(this);
+    }
+    
+    /**
+     * Fill dest[offset .. offset + length) with standard normal deviates.
+     * Draws a block of longs at a time and runs the ziggurat's fast path
+     * over the whole block (in SIMD lanes when available) before the
+     * rejected draws take the scalar slow path, so the deviates differ
+     * from length calls to nextGaussian(), but not between kernels.
+     */
+    public void nextGaussians(double[] dest, int offset, int length) {
+        if (gaussianBits == null) {
+            gaussianBits = new long[GAUSSIAN_BLOCK];
+            gaussianLayers = new int[GAUSSIAN_BLOCK];
+        }
+        long[] bits = gaussianBits;
+        int end = offset + length;
+        for (int start = offset; start < end; start += GAUSSIAN_BLOCK) {
+            int count = Math.min(GAUSSIAN_BLOCK, end - start);
+            for (int k = 0; k < count; k++) {
+                bits[k] = nextLong();
+            }
+            GAUSSIANS.accept(bits, gaussianLayers, count, dest, start);
+            for (int k = 0; k < count; k++) {
+                if (Double.isNaN(dest[start + k])) {
+                    dest[start + k] = Ziggurat.sample(this, bits[k]);
+                }
+            }
+        }
+    }
+    
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * L64X128MixRandom: a 64-bit LCG and xoroshiro128 combined through the
+     * lea64 mixer (Steele and Vigna, "LXM", 2021)
+     */
+    private static final class L64X128Mix extends Rng {
+        private static final long M = 0xD1342543DE82EF95L;
+        // LCG additive parameter (odd) and state
+        private final long a;
+        private long s;
+        // xoroshiro128 state, never both zero
+        private long x0;
+        private long x1;
+        
+        L64X128Mix(long a, long s, long x0, long x1) {
+            this.a = a | 1;
+            this.s = s;
+            this.x0 = x0;
+            this.x1 = (x0 | x1) == 0 ? GOLDEN_GAMMA : x1;
+        }
+        
+        @Override
+        public long nextLong() {
+            long z = s + x0;
+            z = (z ^ (z >>> 32)) * 0xDABA0B6EB09322E3L;
+            z = (z ^ (z >>> 32)) * 0xDABA0B6EB09322E3L;
+            z ^= z >>> 32;
+            
+            s = M * s + a;
+            long q0 = x0;
+            long q1 = x1 ^ q0;
+            x0 = Long.rotateLeft(q0, 24) ^ q1 ^ (q1 << 16);
+            x1 = Long.rotateLeft(q1, 37);
+            return z;
+        }
+        
+        /**
+         * A child with its own additive parameter, i.e. a different LCG
+         * sequence, as in the JDK's split()
+         */
+        @Override
+        public Rng split() {
+            return new L64X128Mix(nextLong(), nextLong(), nextLong(), nextLong());
+        }
+        
+        @Override
+        public Rng copy() {
+            return new L64X128Mix(a, s, x0, x1);
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.L64X128_MIX;
+        }
+        
+        @Override
+        long[] state() {
+            return new long[] {a, s, x0, x1};
+        }
+    }
+    
+    /**
+     * Xoshiro256++ (Blackman and Vigna, 2019)
+     */
+    private static final class Xoshiro256PlusPlus extends Rng {
+        private static final long[] JUMP = {
+            0x180EC6D33CFD0ABAL, 0xD5A61266F0C9392CL, 0xA9582618E03FC9AAL, 0x39ABDC4529B1661CL
+        };
+        private long s0;
+        private long s1;
+        private long s2;
+        private long s3;
+        
+        Xoshiro256PlusPlus(long s0, long s1, long s2, long s3) {
+            this.s0 = s0;
+            this.s1 = s1;
+            this.s2 = s2;
+            this.s3 = (s0 | s1 | s2 | s3) == 0 ? GOLDEN_GAMMA : s3;
+        }
+        
+        @Override
+        public long nextLong() {
+            long result = Long.rotateLeft(s0 + s3, 23) + s0;
+            long t = s1 << 17;
+            s2 ^= s0;
+            s3 ^= s1;
+            s1 ^= s2;
+            s0 ^= s3;
+            s2 ^= t;
+            s3 = Long.rotateLeft(s3, 45);
+            return result;
+        }
+        
+        /**
+         * The child takes over the current position and this generator
+         * jumps 2^128 steps ahead, so the two never overlap
+         */
+        @Override
+        public Rng split() {
+            Rng child = copy();
+            jump();
+            return child;
+        }
+        
+        private void jump() {
+            long t0 = 0;
+            long t1 = 0;
+            long t2 = 0;
+            long t3 = 0;
+            for (long word : JUMP) {
+                for (int b = 0; b < 64; b++) {
+                    if ((word & (1L << b)) != 0) {
+                        t0 ^= s0;
+                        t1 ^= s1;
+                        t2 ^= s2;
+                        t3 ^= s3;
+                    }
+                    nextLong();
+                }
+            }
+            s0 = t0;
+            s1 = t1;
+            s2 = t2;
+            s3 = t3;
+        }
+        
+        @Override
+        public Rng copy() {
+            return new Xoshiro256PlusPlus(s0, s1, s2, s3);
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.XOSHIRO256_PLUS_PLUS;
+        }
+        
+        @Override
+        long[] state() {
+            return new long[] {s0, s1, s2, s3};
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Drives an algorithm until a Termination criterion is met or the
+ * algorithm stops by itself. The criterion is checked after
+ * initialization and after every step, so a run ends as soon as it
+ * converges rather than when the iteration cap is reached.
+ *
+ * <p>With a Checkpointer set, the run is checkpointed as it goes; with a
+ * checkpoint to resume from, the algorithm restores it instead of
+ * initializing. Termination criteria start afresh either way. Every
+ * RunObserver added is told how long initialization and each step took.
+ */
+public class RunController implements Progress {
+    /** Stop reason reported when the algorithm ran out of iterations */
+    public static final String ALGORITHM_FINISHED = "maxIterations";
+    
+    private final Algorithm algorithm;
+    private final CountingProblem problem;
+    private final Termination termination;
+    private Checkpointer checkpointer;
+    private Checkpoint resume;
+    private RunObserver[] observers = new RunObserver[0];
+    private long start;
+    private long end;
+    private String stopReason;
+    
+    public RunController(Algorithm algorithm, CountingProblem problem, Termination termination) {
+        this.algorithm = algorithm;
+        this.problem = problem;
+        this.termination = termination;
+    }
+    
+    public void setCheckpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+    
+    /**
+     * Continue the next run from this checkpoint instead of initializing
+     */
+    public void setResume(Checkpoint resume) {
+        this.resume = resume;
+    }
+    
+    public void addObserver(RunObserver observer) {
+        observers = Arrays.copyOf(observers, observers.length + 1);
+        observers[observers.length - 1] = observer;
+    }
+    
+    /**
+     * Initialize the algorithm on the problem and step it to completion
+     */
+    public void run() {
+        termination.reset();
+        stopReason = null;
+        start = System.nanoTime();
+        end = 0;
+        for (RunObserver observer : observers) {
+            observer.started();
+        }
+        if (resume != null) {
+            resume.restore(algorithm, problem);
+        } else {
+            algorithm.initialize(problem);
+        }
+        long initialized = System.nanoTime() - start;
+        for (RunObserver observer : observers) {
+            observer.initialized(initialized);
+        }
+        while (true) {
+            if (termination.isMet(this)) {
+                stopReason = termination.describe();
+                break;
+            }
+            long before = System.nanoTime();
+            boolean continuing = algorithm.step();
+            long stepped = System.nanoTime() - before;
+            for (RunObserver observer : observers) {
+                observer.stepped(stepped);
+            }
+            if (!continuing) {
+                stopReason = ALGORITHM_FINISHED;
+                break;
+            }
+            if (checkpointer != null) {
+                checkpointer.afterStep(algorithm, problem.getEvaluations());
+            }
+        }
+        end = System.nanoTime();
+        for (RunObserver observer : observers) {
+            observer.finished();
+        }
+        if (checkpointer != null) {
+            checkpointer.flush();
+        }
+    }
+    
+    /**
+     * Description of the criterion that ended the last run, or null while running
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+    
+    @Override
+    public long getEvaluations() {
+        return problem.getEvaluations();
+    }
+    
+    @Override
+    public long getElapsedNanos() {
+        return (end != 0 ? end : System.nanoTime()) - start;
+    }
+    
+    @Override
+    public int getIteration() {
+        return algorithm.getIteration();
+    }
+    
+    @Override
+    public double getBestFitness() {
+        Solution best = algorithm.getBestSolution();
+        return best != null ? best.getFitness() : Double.POSITIVE_INFINITY;
+    }
+    
+    @Override
+    public double getDiversity() {
+        return algorithm.getDiversity();
+    }
+}
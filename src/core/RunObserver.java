@@ -0,0 +1,27 @@
+package core;
+
+/**
+ * Told by RunController how long each phase of a run takes. All calls
+ * come from the thread running the algorithm.
+ */
+public interface RunObserver {
+    /**
+     * The run is about to initialize or restore the algorithm
+     */
+    void started();
+    
+    /**
+     * initialize() or restoreState() took this long
+     */
+    void initialized(long nanos);
+    
+    /**
+     * One step() took this long
+     */
+    void stepped(long nanos);
+    
+    /**
+     * The run has ended
+     */
+    void finished();
+}
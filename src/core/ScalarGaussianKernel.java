@@ -0,0 +1,15 @@
+package core;
+
+/**
+ * Plain loop implementation of the ziggurat fast path
+ */
+final class ScalarGaussianKernel implements GaussianKernel {
+    @Override
+    public void accept(long[] bits, int[] layers, int count, double[] dest, int offset) {
+        for (int k = 0; k < count; k++) {
+            int i = (int) bits[k] & (Ziggurat.LAYERS - 1);
+            double u = (bits[k] >> 11) * 0x1.0p-52;
+            dest[offset + k] = Math.abs(u) < Ziggurat.RATIO[i] ? u * Ziggurat.X[i] : Double.NaN;
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package core;
 
-import java.util.Random;
-
 public class SearchSpace {
     private int dimensions;
     private double lowerBound;
     private double upperBound;
-    private Random random;
+    private Rng random;
     
     public SearchSpace(int dimensions, double lowerBound, double upperBound) {
+        this(dimensions, lowerBound, upperBound, Rng.create());
+    }
+    
+    /**
+     * Draw random points from the given generator, typically the owning algorithm's
+     */
+    public SearchSpace(int dimensions, double lowerBound, double upperBound, Rng random) {
         this.dimensions = dimensions;
         this.lowerBound = lowerBound;
         this.upperBound = upperBound;
-        this.random = new Random();
+        this.random = random;
     }
     
     public Solution getRandomSolution() {
@@ -23,9 +28,25 @@ public class SearchSpace {
         return new Solution(position);
     }
     
+    /**
+     * Fill positions[offset .. offset + length) with uniform random coordinates
+     */
+    public void fillRandom(double[] positions, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            positions[i] = lowerBound + random.nextDouble() * (upperBound - lowerBound);
+        }
+    }
+    
     public void clamp(double[] position) {
-        for (int i = 0; i < position.length; i++) {
-            position[i] = Math.max(lowerBound, Math.min(upperBound, position[i]));
+        clamp(position, 0, position.length);
+    }
+    
+    /**
+     * Clamp positions[offset .. offset + length) to the bounds
+     */
+    public void clamp(double[] positions, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            positions[i] = Math.max(lowerBound, Math.min(upperBound, positions[i]));
         }
     }
     
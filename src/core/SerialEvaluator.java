@@ -0,0 +1,14 @@
+package core;
+
+/**
+ * Evaluates the whole batch on the calling thread through the
+ * problem's batch entry point.
+ */
+public class SerialEvaluator implements Evaluator {
+    static final SerialEvaluator INSTANCE = new SerialEvaluator();
+    
+    @Override
+    public void evaluate(Problem problem, double[] positions, double[] fitness, int count) {
+        problem.evaluate(positions, fitness, 0, count);
+    }
+}
@@ -0,0 +1,111 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads back, in the same order, what a StateWriter wrote. Malformed
+ * input surfaces as IllegalStateException.
+ */
+public final class StateReader {
+    private final ByteBuffer buffer;
+    
+    public StateReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+    
+    public int readInt() {
+        return buffer.getInt();
+    }
+    
+    public long readLong() {
+        return buffer.getLong();
+    }
+    
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+    
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+    
+    public String readString() {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+    
+    public byte[] readBytes() {
+        byte[] values = new byte[length()];
+        buffer.get(values);
+        return values;
+    }
+    
+    public double[] readDoubles() {
+        double[] values = new double[length()];
+        readInto(values, 0, values.length);
+        return values;
+    }
+    
+    /**
+     * Read an array written with exactly dest.length elements into dest
+     */
+    public void readDoubles(double[] dest) {
+        int length = length();
+        if (length != dest.length) {
+            throw new IllegalStateException("Checkpoint has " + length + " values where " + dest.length
+                                            + " were expected; was it written with other parameters?");
+        }
+        readInto(dest, 0, length);
+    }
+    
+    public int[] readInts() {
+        int[] values = new int[length()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+    
+    public Rng readRandom() {
+        return Rng.read(this);
+    }
+    
+    public Solution readSolution() {
+        Solution solution = new Solution(readDoubles());
+        solution.setFitness(readDouble());
+        return solution;
+    }
+    
+    /**
+     * A population as written by writePopulation, checked against the
+     * capacity and dimensions the caller expects
+     */
+    public Population readPopulation(int capacity, int dimensions) {
+        int storedCapacity = readInt();
+        int storedDimensions = readInt();
+        if (storedCapacity != capacity || storedDimensions != dimensions) {
+            throw new IllegalStateException("Checkpoint holds a population of " + storedCapacity + " x "
+                                            + storedDimensions + " but " + capacity + " x " + dimensions
+                                            + " was expected");
+        }
+        Population population = new Population(capacity, dimensions);
+        population.setSize(readInt());
+        int length = length();
+        readInto(population.positions(), 0, length);
+        length = length();
+        readInto(population.fitness(), 0, length);
+        return population;
+    }
+    
+    private int length() {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Corrupt checkpoint: array length " + length);
+        }
+        return length;
+    }
+    
+    private void readInto(double[] dest, int offset, int length) {
+        buffer.asDoubleBuffer().get(dest, offset, length);
+        buffer.position(buffer.position() + length * Double.BYTES);
+    }
+}
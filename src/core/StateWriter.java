@@ -0,0 +1,127 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Growable binary buffer an algorithm writes its state into for a
+ * checkpoint. Primitive arrays are copied in bulk; StateReader reads the
+ * same sequence back.
+ */
+public final class StateWriter {
+    private ByteBuffer buffer;
+    
+    public StateWriter() {
+        this.buffer = ByteBuffer.allocate(4096);
+    }
+    
+    /**
+     * Discard the contents so the buffer can be reused
+     */
+    public void clear() {
+        buffer.clear();
+    }
+    
+    /**
+     * Number of bytes written so far
+     */
+    public int size() {
+        return buffer.position();
+    }
+    
+    /**
+     * Read-only view of the bytes written so far
+     */
+    ByteBuffer contents() {
+        return buffer.asReadOnlyBuffer().flip();
+    }
+    
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            larger.put(buffer.flip());
+            buffer = larger;
+        }
+    }
+    
+    public void writeInt(int value) {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+    
+    public void writeLong(long value) {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+    
+    public void writeDouble(double value) {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+    }
+    
+    public void writeBoolean(boolean value) {
+        ensure(1);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+    
+    public void writeString(String value) {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public void writeBytes(byte[] values) {
+        writeInt(values.length);
+        ensure(values.length);
+        buffer.put(values);
+    }
+    
+    /**
+     * Length-prefixed array
+     */
+    public void writeDoubles(double[] values) {
+        writeDoubles(values, 0, values.length);
+    }
+    
+    /**
+     * Length-prefixed range values[offset .. offset + length)
+     */
+    public void writeDoubles(double[] values, int offset, int length) {
+        writeInt(length);
+        ensure(length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values, offset, length);
+        buffer.position(buffer.position() + length * Double.BYTES);
+    }
+    
+    /**
+     * Length-prefixed array
+     */
+    public void writeInts(int[] values) {
+        writeInt(values.length);
+        ensure(values.length * Integer.BYTES);
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+    
+    /**
+     * Generator algorithm and state
+     */
+    public void writeRandom(Rng random) {
+        random.write(this);
+    }
+    
+    public void writeSolution(Solution solution) {
+        writeDoubles(solution.getPosition());
+        writeDouble(solution.getFitness());
+    }
+    
+    /**
+     * Capacity, dimensions and the live individuals of a population
+     */
+    public void writePopulation(Population population) {
+        writeInt(population.capacity());
+        writeInt(population.getDimensions());
+        writeInt(population.size());
+        writeDoubles(population.positions(), 0, population.size() * population.getDimensions());
+        writeDoubles(population.fitness(), 0, population.size());
+    }
+}
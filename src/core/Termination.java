@@ -0,0 +1,226 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * A stopping rule checked between steps of a run. Criteria combine with
+ * and()/or() (or allOf()/anyOf()); stateful ones (deadline, stagnation)
+ * are re-armed by reset() at the start of every run.
+ */
+public interface Termination {
+    /**
+     * Whether the run should stop now
+     */
+    boolean isMet(Progress progress);
+    
+    /**
+     * Forget any state from a previous run
+     */
+    default void reset() {
+    }
+    
+    /**
+     * Short description used to report why a run stopped
+     */
+    default String describe() {
+        return getClass().getSimpleName();
+    }
+    
+    default Termination or(Termination other) {
+        return anyOf(this, other);
+    }
+    
+    default Termination and(Termination other) {
+        return allOf(this, other);
+    }
+    
+    /**
+     * Stop once this many function evaluations have been spent
+     */
+    static Termination maxEvaluations(long evaluations) {
+        return new Termination() {
+            @Override
+            public boolean isMet(Progress progress) {
+                return progress.getEvaluations() >= evaluations;
+            }
+            
+            @Override
+            public String describe() {
+                return "maxEvaluations(" + evaluations + ")";
+            }
+        };
+    }
+    
+    /**
+     * Stop once the run has lasted this many milliseconds
+     */
+    static Termination deadline(long millis) {
+        return new Termination() {
+            @Override
+            public boolean isMet(Progress progress) {
+                return progress.getElapsedNanos() >= millis * 1_000_000L;
+            }
+            
+            @Override
+            public String describe() {
+                return "deadline(" + millis + "ms)";
+            }
+        };
+    }
+    
+    /**
+     * Stop once the best fitness is at or below target
+     */
+    static Termination targetFitness(double target) {
+        return new Termination() {
+            @Override
+            public boolean isMet(Progress progress) {
+                return progress.getBestFitness() <= target;
+            }
+            
+            @Override
+            public String describe() {
+                return "targetFitness(" + target + ")";
+            }
+        };
+    }
+    
+    /**
+     * Stop when the best fitness has not improved by more than tolerance
+     * over the last window iterations
+     */
+    static Termination stagnation(int window, double tolerance) {
+        return new Stagnation(window, tolerance);
+    }
+    
+    /**
+     * Stop when population diversity (see Population.diversity()) falls below threshold
+     */
+    static Termination diversityBelow(double threshold) {
+        return new Termination() {
+            @Override
+            public boolean isMet(Progress progress) {
+                return progress.getDiversity() < threshold;
+            }
+            
+            @Override
+            public String describe() {
+                return "diversityBelow(" + threshold + ")";
+            }
+        };
+    }
+    
+    /**
+     * Met as soon as any criterion is met
+     */
+    static Termination anyOf(Termination... criteria) {
+        return new Composite(criteria, true);
+    }
+    
+    /**
+     * Met only when every criterion is met
+     */
+    static Termination allOf(Termination... criteria) {
+        return new Composite(criteria, false);
+    }
+    
+    /**
+     * Never met; the run ends only when the algorithm itself stops
+     */
+    static Termination never() {
+        return anyOf();
+    }
+    
+    final class Composite implements Termination {
+        private final Termination[] criteria;
+        private final boolean any;
+        private Termination fired;
+        
+        private Composite(Termination[] criteria, boolean any) {
+            this.criteria = criteria.clone();
+            this.any = any;
+        }
+        
+        @Override
+        public boolean isMet(Progress progress) {
+            fired = null;
+            if (criteria.length == 0) {
+                return false;
+            }
+            boolean all = true;
+            for (Termination criterion : criteria) {
+                // Evaluate every criterion so stateful ones keep tracking
+                boolean met = criterion.isMet(progress);
+                if (any && met && fired == null) {
+                    fired = criterion;
+                }
+                all &= met;
+            }
+            return any ? fired != null : all;
+        }
+        
+        @Override
+        public void reset() {
+            fired = null;
+            for (Termination criterion : criteria) {
+                criterion.reset();
+            }
+        }
+        
+        @Override
+        public String describe() {
+            if (any && fired != null) {
+                return fired.describe();
+            }
+            StringBuilder sb = new StringBuilder(any ? "anyOf(" : "allOf(");
+            for (int i = 0; i < criteria.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(criteria[i].describe());
+            }
+            return sb.append(')').toString();
+        }
+        
+        @Override
+        public String toString() {
+            return describe() + Arrays.toString(criteria);
+        }
+    }
+    
+    final class Stagnation implements Termination {
+        private final int window;
+        private final double tolerance;
+        private double reference;
+        private int referenceIteration;
+        
+        private Stagnation(int window, double tolerance) {
+            if (window < 1) {
+                throw new IllegalArgumentException("window must be at least 1");
+            }
+            this.window = window;
+            this.tolerance = tolerance;
+            reset();
+        }
+        
+        @Override
+        public boolean isMet(Progress progress) {
+            double best = progress.getBestFitness();
+            if (best < reference - tolerance) {
+                reference = best;
+                referenceIteration = progress.getIteration();
+                return false;
+            }
+            return progress.getIteration() - referenceIteration >= window;
+        }
+        
+        @Override
+        public void reset() {
+            reference = Double.POSITIVE_INFINITY;
+            referenceIteration = 0;
+        }
+        
+        @Override
+        public String describe() {
+            return "stagnation(" + window + ", " + tolerance + ")";
+        }
+    }
+}
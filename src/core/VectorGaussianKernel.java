@@ -0,0 +1,46 @@
+package core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Ziggurat fast path on the incubating Vector API: a lane of draws is
+ * split into layer and uniform, the layer bounds are gathered and the
+ * accept test is one compare. Only loaded reflectively by
+ * GaussianKernel.create(), so the rest of the code runs without the
+ * incubator module.
+ */
+final class VectorGaussianKernel implements GaussianKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    
+    @Override
+    public void accept(long[] bits, int[] layers, int count, double[] dest, int offset) {
+        for (int k = 0; k < count; k++) {
+            layers[k] = (int) bits[k] & (Ziggurat.LAYERS - 1);
+        }
+        int k = 0;
+        int bound = SPECIES.loopBound(count);
+        for (; k < bound; k += SPECIES.length()) {
+            // Exact: the top 53 bits fit a double's significand
+            DoubleVector u = (DoubleVector) LongVector.fromArray(LONGS, bits, k)
+                                                      .lanewise(VectorOperators.ASHR, 11)
+                                                      .convert(VectorOperators.L2D, 0);
+            u = u.mul(0x1.0p-52);
+            DoubleVector ratio = DoubleVector.fromArray(SPECIES, Ziggurat.RATIO, 0, layers, k);
+            DoubleVector x = DoubleVector.fromArray(SPECIES, Ziggurat.X, 0, layers, k);
+            VectorMask<Double> accepted = u.abs().lt(ratio);
+            DoubleVector.broadcast(SPECIES, Double.NaN)
+                        .blend(u.mul(x), accepted)
+                        .intoArray(dest, offset + k);
+        }
+        for (; k < count; k++) {
+            int i = layers[k];
+            double u = (bits[k] >> 11) * 0x1.0p-52;
+            dest[offset + k] = Math.abs(u) < Ziggurat.RATIO[i] ? u * Ziggurat.X[i] : Double.NaN;
+        }
+    }
+}
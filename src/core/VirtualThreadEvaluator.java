@@ -0,0 +1,53 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a batch by starting one virtual thread per chunk of points.
+ * Virtual threads are cheap enough that a chunk size of one is fine for
+ * expensive, blocking objectives; raise it for cheap ones.
+ */
+public class VirtualThreadEvaluator implements Evaluator {
+    private final int chunkSize;
+    
+    public VirtualThreadEvaluator(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        this.chunkSize = chunkSize;
+    }
+    
+    public VirtualThreadEvaluator() {
+        this(1);
+    }
+    
+    @Override
+    public void evaluate(Problem problem, double[] positions, double[] fitness, int count) {
+        if (count <= chunkSize) {
+            problem.evaluate(positions, fitness, 0, count);
+            return;
+        }
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < count; from += chunkSize) {
+                int start = from;
+                int end = Math.min(count, from + chunkSize);
+                futures.add(executor.submit(() -> problem.evaluate(positions, fitness, start, end)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Evaluation failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package core;
+
+/**
+ * Ziggurat sampler for the standard normal distribution (Marsaglia and
+ * Tsang 2000, in Doornik's double-precision form). 128 layers of equal
+ * area cover the density; about 98.8% of draws take one random long, a
+ * table lookup and a multiply, and only the rest pay for exp() or the
+ * tail. The tables are built once from the layer parameters.
+ *
+ * <p>Rng.nextGaussians runs the fast path over a block of draws at a time
+ * through a GaussianKernel and finishes the rejected ones here.
+ */
+final class Ziggurat {
+    static final int LAYERS = 128;
+    /** Start of the tail */
+    private static final double R = 3.442619855899;
+    /** Area of each layer */
+    private static final double V = 9.91256303526217e-3;
+    
+    /** Right edge of each layer, X[0] being that of the base strip's rectangle */
+    static final double[] X = new double[LAYERS + 1];
+    /** X[i + 1] / X[i]: below it a point of layer i is inside the density */
+    static final double[] RATIO = new double[LAYERS];
+    
+    static {
+        double f = Math.exp(-0.5 * R * R);
+        X[0] = V / f;
+        X[1] = R;
+        X[LAYERS] = 0;
+        for (int i = 2; i < LAYERS; i++) {
+            X[i] = Math.sqrt(-2 * Math.log(V / X[i - 1] + f));
+            f = Math.exp(-0.5 * X[i] * X[i]);
+        }
+        for (int i = 0; i < LAYERS; i++) {
+            RATIO[i] = X[i + 1] / X[i];
+        }
+    }
+    
+    private Ziggurat() {
+    }
+    
+    static double sample(Rng random) {
+        return sample(random, random.nextLong());
+    }
+    
+    /**
+     * Sample starting from an already drawn random long
+     */
+    static double sample(Rng random, long bits) {
+        while (true) {
+            // Low 7 bits pick the layer, the top 53 give u in [-1, 1)
+            int i = (int) bits & (LAYERS - 1);
+            double u = (bits >> 11) * 0x1.0p-52;
+            if (Math.abs(u) < RATIO[i]) {
+                return u * X[i];
+            }
+            if (i == 0) {
+                return tail(random, u < 0);
+            }
+            double x = u * X[i];
+            double f0 = Math.exp(-0.5 * (X[i] * X[i] - x * x));
+            double f1 = Math.exp(-0.5 * (X[i + 1] * X[i + 1] - x * x));
+            if (f1 + random.nextDouble() * (f0 - f1) < 1.0) {
+                return x;
+            }
+            bits = random.nextLong();
+        }
+    }
+    
+    /**
+     * Marsaglia's method for the tail beyond R
+     */
+    private static double tail(Rng random, boolean negative) {
+        double x;
+        double y;
+        do {
+            x = Math.log(1.0 - random.nextDouble()) / R;
+            y = Math.log(1.0 - random.nextDouble());
+        } while (-2 * y < x * x);
+        return negative ? x - R : R - x;
+    }
+}
@@ -0,0 +1,73 @@
+package distributed;
+
+import algorithms.IslandModel;
+import core.Solution;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a worker needs to run one island: the algorithm and its
+ * parameters, the problem, the migration settings, and for a reassigned
+ * island the best solutions it had reported before its worker died
+ */
+record Assignment(int island,
+                  int islandCount,
+                  String algorithm,
+                  Map<String, String> parameters,
+                  String problem,
+                  int dimensions,
+                  long seed,
+                  IslandModel.MigrationTopology migration,
+                  IslandModel.Replacement replacement,
+                  int interval,
+                  int migrants,
+                  List<Solution> seeds) {
+    
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(island);
+        out.writeInt(islandCount);
+        out.writeUTF(algorithm);
+        out.writeInt(parameters.size());
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+        out.writeUTF(problem);
+        out.writeInt(dimensions);
+        out.writeLong(seed);
+        out.writeByte(migration.ordinal());
+        out.writeByte(replacement.ordinal());
+        out.writeInt(interval);
+        out.writeInt(migrants);
+        Protocol.writeSolutions(out, seeds);
+    }
+    
+    static Assignment read(DataInputStream in) throws IOException {
+        int island = in.readInt();
+        int islandCount = in.readInt();
+        String algorithm = in.readUTF();
+        int parameterCount = in.readInt();
+        if (parameterCount < 0 || parameterCount > Protocol.MAX_PARAMETERS) {
+            throw new IOException("Corrupt assignment: " + parameterCount + " parameters");
+        }
+        Map<String, String> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < parameterCount; i++) {
+            parameters.put(in.readUTF(), in.readUTF());
+        }
+        String problem = in.readUTF();
+        int dimensions = in.readInt();
+        long seed = in.readLong();
+        IslandModel.MigrationTopology migration = Protocol.readEnum(in, IslandModel.MigrationTopology.values(),
+                                                                    "migration topology");
+        IslandModel.Replacement replacement = Protocol.readEnum(in, IslandModel.Replacement.values(), "replacement");
+        int interval = in.readInt();
+        int migrants = in.readInt();
+        List<Solution> seeds = Protocol.readSolutions(in);
+        return new Assignment(island, islandCount, algorithm, parameters, problem, dimensions, seed,
+                              migration, replacement, interval, migrants, seeds);
+    }
+}
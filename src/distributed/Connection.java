@@ -0,0 +1,102 @@
+package distributed;
+
+import core.Solution;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+/**
+ * One end of a coordinator-worker link. Sends are synchronized so several
+ * island threads can share the connection; reads belong to one thread.
+ */
+final class Connection implements Closeable {
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    
+    Connection(SocketChannel channel) {
+        this.channel = channel;
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+    
+    static Connection connect(SocketAddress address) throws IOException {
+        SocketChannel channel = address instanceof UnixDomainSocketAddress
+            ? SocketChannel.open(StandardProtocolFamily.UNIX)
+            : SocketChannel.open();
+        channel.connect(address);
+        return new Connection(channel);
+    }
+    
+    DataInputStream input() {
+        return in;
+    }
+    
+    /**
+     * Block for the next message type; the payload follows in input()
+     */
+    byte readType() throws IOException {
+        return in.readByte();
+    }
+    
+    synchronized void sendHello(String name) throws IOException {
+        out.writeByte(Protocol.HELLO);
+        out.writeInt(Protocol.MAGIC);
+        out.writeInt(Protocol.VERSION);
+        out.writeUTF(name);
+        out.flush();
+    }
+    
+    synchronized void sendAssign(Assignment assignment) throws IOException {
+        out.writeByte(Protocol.ASSIGN);
+        assignment.write(out);
+        out.flush();
+    }
+    
+    synchronized void sendMigrants(int from, int to, List<Solution> migrants) throws IOException {
+        out.writeByte(Protocol.MIGRANTS);
+        out.writeInt(from);
+        out.writeInt(to);
+        Protocol.writeSolutions(out, migrants);
+        out.flush();
+    }
+    
+    synchronized void sendReport(int island, int iteration, long evaluations, boolean finished,
+                                 Solution best) throws IOException {
+        out.writeByte(Protocol.REPORT);
+        out.writeInt(island);
+        out.writeInt(iteration);
+        out.writeLong(evaluations);
+        out.writeBoolean(finished);
+        Protocol.writeSolution(out, best);
+        out.flush();
+    }
+    
+    synchronized void sendHeartbeat() throws IOException {
+        out.writeByte(Protocol.HEARTBEAT);
+        out.flush();
+    }
+    
+    synchronized void sendStop() throws IOException {
+        out.writeByte(Protocol.STOP);
+        out.flush();
+    }
+    
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already broken; nothing left to release
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package distributed;
+
+import algorithms.AlgorithmFactory;
+import algorithms.IslandModel;
+import core.Migratable;
+import core.Solution;
+import problems.ProblemFactory;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator for an island model spread over worker processes. It hands
+ * each island to a worker, routes migrants between islands on different
+ * workers, and collects each island's best and evaluation count.
+ *
+ * <p>A worker counts as dead when its connection drops or it misses
+ * heartbeats for the timeout. Its unfinished islands then go to the
+ * least-loaded live worker (or to the next worker to connect). Each
+ * restarts from scratch with the remaining iterations, seeded with the
+ * best solution it had last reported.
+ *
+ * <pre>
+ * java distributed.Coordinator --algorithm de --problem schwefel --dimensions 30 \
+ *     --islands 8 --param populationSize=20 --param iterations=2000 \
+ *     --listen tcp:127.0.0.1:0 --spawn 4
+ * </pre>
+ * --spawn starts local worker JVMs with this JVM's class path and options.
+ * Without it, start workers separately (java distributed.Worker --connect ...).
+ */
+public class Coordinator {
+    private final String algorithm;
+    private final Map<String, String> parameters;
+    private final String problem;
+    private final int dimensions;
+    private final int islandCount;
+    private IslandModel.MigrationTopology migration;
+    private IslandModel.Replacement replacement;
+    private int interval;
+    private int migrants;
+    private long seed;
+    private int minWorkers;
+    private long maxEvaluations;
+    private long heartbeatTimeoutMillis;
+    
+    // Guarded by this
+    private final List<WorkerLink> workers = new ArrayList<>();
+    private IslandState[] islands;
+    private boolean assigning;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile boolean finished;
+    private volatile boolean abandoned;
+    
+    public Coordinator(String algorithm, Map<String, String> parameters, String problem, int dimensions,
+                       int islandCount) {
+        if (islandCount < 1) {
+            throw new IllegalArgumentException("islandCount must be at least 1");
+        }
+        // Fail here rather than on every worker
+        if (!(AlgorithmFactory.create(algorithm, parameters) instanceof Migratable)) {
+            throw new IllegalArgumentException(algorithm + " does not support migration");
+        }
+        ProblemFactory.create(problem, dimensions);
+        
+        this.algorithm = algorithm;
+        this.parameters = new LinkedHashMap<>(parameters);
+        this.parameters.remove("seed");
+        this.problem = problem;
+        this.dimensions = dimensions;
+        this.islandCount = islandCount;
+        this.migration = IslandModel.MigrationTopology.RING;
+        this.replacement = IslandModel.Replacement.WORST;
+        this.interval = 10;
+        this.migrants = 1;
+        this.seed = 1;
+        this.minWorkers = 1;
+        this.heartbeatTimeoutMillis = 5000;
+    }
+    
+    public void setMigrationTopology(IslandModel.MigrationTopology migration) {
+        this.migration = migration;
+    }
+    
+    public void setReplacement(IslandModel.Replacement replacement) {
+        this.replacement = replacement;
+    }
+    
+    public void setMigrationInterval(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1");
+        }
+        this.interval = interval;
+    }
+    
+    public void setMigrants(int migrants) {
+        if (migrants < 1) {
+            throw new IllegalArgumentException("migrants must be at least 1");
+        }
+        this.migrants = migrants;
+    }
+    
+    /**
+     * Base seed; island i starts from seed + i
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Hold back assignments until this many workers have connected, so the
+     * islands are spread over all of them
+     */
+    public void setMinWorkers(int minWorkers) {
+        this.minWorkers = minWorkers;
+    }
+    
+    /**
+     * Stop every island once all of them together used this many evaluations (0 = no limit)
+     */
+    public void setMaxEvaluations(long maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+    
+    public void setHeartbeatTimeoutMillis(long heartbeatTimeoutMillis) {
+        this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+    }
+    
+    /**
+     * Per-island progress as last reported
+     */
+    private static final class IslandState {
+        final int index;
+        WorkerLink owner;
+        int attempt;
+        int startIteration;
+        int iteration;
+        long evaluations;
+        long lostEvaluations;
+        boolean finished;
+        Solution best;
+        
+        IslandState(int index) {
+            this.index = index;
+        }
+    }
+    
+    /**
+     * Coordinator side of one worker connection
+     */
+    private final class WorkerLink implements Runnable {
+        final Connection connection;
+        final Thread reader;
+        volatile long lastSeen = System.nanoTime();
+        volatile boolean alive = true;
+        String name = "?";
+        
+        WorkerLink(Connection connection) {
+            this.connection = connection;
+            this.reader = new Thread(this, "coordinator-reader");
+            reader.setDaemon(true);
+        }
+        
+        @Override
+        public void run() {
+            try {
+                if (connection.readType() != Protocol.HELLO
+                        || connection.input().readInt() != Protocol.MAGIC
+                        || connection.input().readInt() != Protocol.VERSION) {
+                    throw new IOException("Not a compatible worker");
+                }
+                name = connection.input().readUTF();
+                joined(this);
+                
+                while (true) {
+                    byte type = connection.readType();
+                    lastSeen = System.nanoTime();
+                    switch (type) {
+                        case Protocol.HEARTBEAT:
+                            break;
+                        case Protocol.MIGRANTS: {
+                            int from = connection.input().readInt();
+                            int to = connection.input().readInt();
+                            route(from, to, Protocol.readSolutions(connection.input()));
+                            break;
+                        }
+                        case Protocol.REPORT: {
+                            int island = connection.input().readInt();
+                            int iteration = connection.input().readInt();
+                            long evaluations = connection.input().readLong();
+                            boolean islandFinished = connection.input().readBoolean();
+                            Solution best = Protocol.readSolution(connection.input());
+                            report(this, island, iteration, evaluations, islandFinished, best);
+                            break;
+                        }
+                        default:
+                            throw new IOException("Unexpected message type " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                // Worker exited
+            } catch (IOException e) {
+                if (!finished && alive) {
+                    System.err.println("coordinator: lost worker " + name + ": " + e.getMessage());
+                }
+            } finally {
+                died(this);
+            }
+        }
+    }
+    
+    /**
+     * Listen on address, run every island to completion (or until the
+     * evaluation budget is spent) and return the overall best
+     */
+    public Solution run(SocketAddress address, int spawn) throws IOException, InterruptedException {
+        synchronized (this) {
+            islands = new IslandState[islandCount];
+            for (int i = 0; i < islandCount; i++) {
+                islands[i] = new IslandState(i);
+            }
+        }
+        
+        boolean unix = address instanceof UnixDomainSocketAddress;
+        if (unix) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+        List<Process> processes = new ArrayList<>();
+        try (ServerSocketChannel server = unix
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open()) {
+            server.bind(address);
+            String endpoint = Protocol.endpoint(server.getLocalAddress());
+            System.err.println("coordinator: listening on " + endpoint);
+            
+            Thread acceptor = new Thread(() -> accept(server), "coordinator-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            Thread monitor = new Thread(this::monitor, "coordinator-monitor");
+            monitor.setDaemon(true);
+            monitor.start();
+            
+            for (int i = 0; i < spawn; i++) {
+                processes.add(spawnWorker(endpoint));
+            }
+            done.await();
+            if (abandoned) {
+                throw new IOException("All workers were lost before the islands finished");
+            }
+        } finally {
+            finished = true;
+            synchronized (this) {
+                for (WorkerLink link : workers) {
+                    link.connection.close();
+                }
+            }
+            for (Process process : processes) {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroy();
+                }
+            }
+            if (unix) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            }
+        }
+        return getBestSolution();
+    }
+    
+    private void accept(ServerSocketChannel server) {
+        try {
+            while (!finished) {
+                SocketChannel channel = server.accept();
+                new WorkerLink(new Connection(channel)).reader.start();
+            }
+        } catch (IOException e) {
+            // Server closed at the end of the run
+        }
+    }
+    
+    /**
+     * Close links whose worker has gone silent; their readers then
+     * fail and the islands are reassigned
+     */
+    private void monitor() {
+        long timeout = TimeUnit.MILLISECONDS.toNanos(heartbeatTimeoutMillis);
+        long lastWorker = System.nanoTime();
+        while (!finished) {
+            List<WorkerLink> silent = new ArrayList<>();
+            synchronized (this) {
+                for (WorkerLink link : workers) {
+                    if (link.alive && System.nanoTime() - link.lastSeen > timeout) {
+                        link.alive = false;
+                        silent.add(link);
+                    }
+                }
+                if (!workers.isEmpty() || !assigning) {
+                    lastWorker = System.nanoTime();
+                } else if (System.nanoTime() - lastWorker > timeout) {
+                    // Every worker is gone and none came back in time
+                    abandoned = true;
+                    finish();
+                }
+            }
+            for (WorkerLink link : silent) {
+                System.err.println("coordinator: worker " + link.name + " timed out");
+                link.connection.close();
+            }
+            try {
+                Thread.sleep(Worker.HEARTBEAT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    private Process spawnWorker(String endpoint) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Worker.class.getName());
+        command.add("--connect");
+        command.add(endpoint);
+        return new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .redirectInput(new File(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null"))
+            .start();
+    }
+    
+    private synchronized void joined(WorkerLink link) {
+        workers.add(link);
+        System.err.println("coordinator: worker " + link.name + " joined");
+        if (!assigning && workers.size() >= minWorkers) {
+            assigning = true;
+        }
+        if (assigning) {
+            assignPending();
+        }
+    }
+    
+    private void died(WorkerLink link) {
+        link.connection.close();
+        synchronized (this) {
+            link.alive = false;
+            workers.remove(link);
+            if (finished || islands == null) {
+                return;
+            }
+            for (IslandState island : islands) {
+                if (island.owner == link && !island.finished) {
+                    island.owner = null;
+                    island.lostEvaluations += island.evaluations;
+                    island.evaluations = 0;
+                    System.err.println("coordinator: reassigning island " + island.index);
+                }
+            }
+            if (assigning) {
+                assignPending();
+            }
+        }
+    }
+    
+    /**
+     * Hand every unowned, unfinished island to the least-loaded live worker
+     */
+    private void assignPending() {
+        for (IslandState island : islands) {
+            if (island.owner != null || island.finished || workers.isEmpty()) {
+                continue;
+            }
+            WorkerLink target = workers.get(0);
+            int fewest = Integer.MAX_VALUE;
+            for (WorkerLink link : workers) {
+                int load = 0;
+                for (IslandState other : islands) {
+                    if (other.owner == link && !other.finished) {
+                        load++;
+                    }
+                }
+                if (load < fewest) {
+                    fewest = load;
+                    target = link;
+                }
+            }
+            
+            Map<String, String> islandParams = new LinkedHashMap<>(parameters);
+            int iterations = Integer.parseInt(parameters.getOrDefault("iterations", "1000"));
+            islandParams.put("iterations", Integer.toString(Math.max(1, iterations - island.iteration)));
+            List<Solution> seeds = island.best != null ? List.of(island.best) : List.of();
+            Assignment assignment = new Assignment(island.index, islandCount, algorithm, islandParams, problem,
+                                                   dimensions, seed + island.index + (long) island.attempt * islandCount,
+                                                   migration, replacement, interval, migrants, seeds);
+            island.owner = target;
+            island.attempt++;
+            island.startIteration = island.iteration;
+            try {
+                target.connection.sendAssign(assignment);
+            } catch (IOException e) {
+                // Its reader will notice and reassign
+                island.owner = null;
+                target.connection.close();
+            }
+        }
+    }
+    
+    private void route(int from, int to, List<Solution> solutions) {
+        WorkerLink owner;
+        synchronized (this) {
+            if (to < 0 || to >= islandCount || islands[to].finished) {
+                return;
+            }
+            owner = islands[to].owner;
+        }
+        if (owner != null && owner.alive) {
+            try {
+                owner.connection.sendMigrants(from, to, solutions);
+            } catch (IOException e) {
+                // Migrants to a dying worker are simply lost
+            }
+        }
+    }
+    
+    private synchronized void report(WorkerLink link, int index, int iteration, long evaluations,
+                                     boolean islandFinished, Solution best) {
+        if (index < 0 || index >= islandCount) {
+            return;
+        }
+        IslandState island = islands[index];
+        if (island.owner != link) {
+            // Late report from a previous owner
+            return;
+        }
+        // A reassigned island counts its iterations on top of earlier attempts
+        island.iteration = island.startIteration + iteration;
+        island.evaluations = evaluations;
+        if (island.best == null || best.getFitness() < island.best.getFitness()) {
+            island.best = best;
+        }
+        if (islandFinished) {
+            island.finished = true;
+        }
+        
+        boolean allFinished = true;
+        for (IslandState state : islands) {
+            allFinished &= state.finished;
+        }
+        if (allFinished || (maxEvaluations > 0 && getEvaluations() >= maxEvaluations)) {
+            finish();
+        }
+    }
+    
+    private synchronized void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        for (WorkerLink link : workers) {
+            try {
+                link.connection.sendStop();
+            } catch (IOException e) {
+                // Exiting anyway
+            }
+        }
+        done.countDown();
+    }
+    
+    /**
+     * Evaluations spent by all islands, including attempts lost with dead workers
+     */
+    public synchronized long getEvaluations() {
+        long total = 0;
+        for (IslandState island : islands) {
+            total += island.evaluations + island.lostEvaluations;
+        }
+        return total;
+    }
+    
+    /**
+     * Best solution reported by any island so far
+     */
+    public synchronized Solution getBestSolution() {
+        Solution best = null;
+        for (IslandState island : islands) {
+            if (island.best != null && (best == null || island.best.getFitness() < best.getFitness())) {
+                best = island.best;
+            }
+        }
+        return best;
+    }
+    
+    public static void main(String[] args) {
+        String algorithm = null;
+        String problem = null;
+        int dimensions = 2;
+        int islandCount = 4;
+        String listen = "tcp:127.0.0.1:0";
+        int spawn = 0;
+        int minWorkers = -1;
+        Map<String, String> params = new LinkedHashMap<>();
+        Map<String, String> options = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+                String key = args[i].substring(2);
+                String value = args[i + 1];
+                switch (key) {
+                    case "algorithm":
+                        algorithm = value;
+                        break;
+                    case "problem":
+                        problem = value;
+                        break;
+                    case "dimensions":
+                        dimensions = Integer.parseInt(value);
+                        break;
+                    case "islands":
+                        islandCount = Integer.parseInt(value);
+                        break;
+                    case "listen":
+                        listen = value;
+                        break;
+                    case "spawn":
+                        spawn = Integer.parseInt(value);
+                        break;
+                    case "workers":
+                        minWorkers = Integer.parseInt(value);
+                        break;
+                    case "param": {
+                        int eq = value.indexOf('=');
+                        if (eq <= 0) {
+                            throw new IllegalArgumentException("Expected --param KEY=VALUE, got " + value);
+                        }
+                        params.put(value.substring(0, eq), value.substring(eq + 1));
+                        break;
+                    }
+                    default:
+                        options.put(key, value);
+                }
+            }
+            if (algorithm == null || problem == null) {
+                throw new IllegalArgumentException("--algorithm and --problem are required");
+            }
+            
+            Coordinator coordinator = new Coordinator(algorithm, params, problem, dimensions, islandCount);
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                String value = option.getValue();
+                switch (option.getKey()) {
+                    case "migration":
+                        coordinator.setMigrationTopology(IslandModel.MigrationTopology.valueOf(
+                            value.toUpperCase().replace('-', '_')));
+                        break;
+                    case "replacement":
+                        coordinator.setReplacement(IslandModel.Replacement.valueOf(value.toUpperCase()));
+                        break;
+                    case "interval":
+                        coordinator.setMigrationInterval(Integer.parseInt(value));
+                        break;
+                    case "migrants":
+                        coordinator.setMigrants(Integer.parseInt(value));
+                        break;
+                    case "seed":
+                        coordinator.setSeed(Long.parseLong(value));
+                        break;
+                    case "evaluations":
+                        coordinator.setMaxEvaluations(Long.parseLong(value));
+                        break;
+                    case "heartbeat-timeout":
+                        coordinator.setHeartbeatTimeoutMillis(Long.parseLong(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + option.getKey());
+                }
+            }
+            coordinator.setMinWorkers(minWorkers > 0 ? minWorkers : Math.max(1, spawn));
+            
+            Solution best = coordinator.run(Protocol.address(listen), spawn);
+            System.out.println("best_fitness=" + (best != null ? best.getFitness() : Double.NaN));
+            System.out.println("evaluations=" + coordinator.getEvaluations());
+            if (best != null) {
+                System.out.println("best_position=" + Arrays.toString(best.getPosition()));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println(
+                "usage: Coordinator --algorithm NAME --problem NAME [options]\n" +
+                "  --dimensions N          problem dimension (default 2)\n" +
+                "  --islands N             number of islands (default 4)\n" +
+                "  --param KEY=VALUE       island algorithm parameter, repeatable\n" +
+                "  --listen ENDPOINT       unix:PATH or [tcp:]HOST:PORT (default tcp:127.0.0.1:0)\n" +
+                "  --spawn N               start N local worker JVMs\n" +
+                "  --workers N             wait for N workers before assigning (default: --spawn or 1)\n" +
+                "  --migration TOPOLOGY    ring, fully-connected or random (default ring)\n" +
+                "  --replacement POLICY    worst or random (default worst)\n" +
+                "  --interval N            iterations between migrations (default 10)\n" +
+                "  --migrants N            individuals per migration (default 1)\n" +
+                "  --seed S                base seed; island i uses S + i (default 1)\n" +
+                "  --evaluations N         total evaluation budget over all islands\n" +
+                "  --heartbeat-timeout MS  declare a silent worker dead (default 5000)");
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(130);
+        }
+    }
+}
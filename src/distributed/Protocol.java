@@ -0,0 +1,134 @@
+package distributed;
+
+import core.Solution;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format shared by Coordinator and Worker. Every message is a
+ * one-byte type followed by a fixed layout of big-endian fields:
+ *
+ * <pre>
+ * HELLO      int magic, int version, UTF worker name
+ * ASSIGN     Assignment (see Assignment.write)
+ * MIGRANTS   int from island, int to island, solutions
+ * REPORT     int island, int iteration, long evaluations, byte finished, solution
+ * HEARTBEAT  (empty)
+ * STOP       (empty)
+ *
+ * solution   int dimensions, double fitness, double[dimensions] position
+ * solutions  int count, solution[count]
+ * </pre>
+ *
+ * <p>Messages carry no length prefix, so a reader trusts the counts in
+ * them; counts beyond MAX_DIMENSIONS, MAX_SOLUTIONS and MAX_PARAMETERS,
+ * and enum ordinals out of range, are rejected as corrupt before
+ * anything is allocated for them.
+ */
+final class Protocol {
+    static final int MAGIC = 0x53574F50;
+    static final int VERSION = 1;
+    
+    static final byte HELLO = 1;
+    static final byte ASSIGN = 2;
+    static final byte MIGRANTS = 3;
+    static final byte REPORT = 4;
+    static final byte HEARTBEAT = 5;
+    static final byte STOP = 6;
+    
+    /** Most coordinates a solution on the wire may have */
+    static final int MAX_DIMENSIONS = 1 << 16;
+    /** Most solutions a list on the wire may hold */
+    static final int MAX_SOLUTIONS = 1 << 16;
+    /** Most algorithm parameters an assignment may carry */
+    static final int MAX_PARAMETERS = 1 << 10;
+    
+    private Protocol() {
+    }
+    
+    static void writeSolution(DataOutputStream out, Solution solution) throws IOException {
+        double[] position = solution.getPosition();
+        out.writeInt(position.length);
+        out.writeDouble(solution.getFitness());
+        for (double x : position) {
+            out.writeDouble(x);
+        }
+    }
+    
+    static Solution readSolution(DataInputStream in) throws IOException {
+        int dimensions = in.readInt();
+        if (dimensions < 0 || dimensions > MAX_DIMENSIONS) {
+            throw new IOException("Corrupt solution: " + dimensions + " dimensions");
+        }
+        double fitness = in.readDouble();
+        Solution solution = new Solution(dimensions);
+        double[] position = solution.getPosition();
+        for (int d = 0; d < dimensions; d++) {
+            position[d] = in.readDouble();
+        }
+        solution.setFitness(fitness);
+        return solution;
+    }
+    
+    static void writeSolutions(DataOutputStream out, List<Solution> solutions) throws IOException {
+        out.writeInt(solutions.size());
+        for (Solution solution : solutions) {
+            writeSolution(out, solution);
+        }
+    }
+    
+    static List<Solution> readSolutions(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_SOLUTIONS) {
+            throw new IOException("Corrupt solution list: " + count + " entries");
+        }
+        List<Solution> solutions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            solutions.add(readSolution(in));
+        }
+        return solutions;
+    }
+    
+    /**
+     * Read an enum constant written as its ordinal in one byte
+     */
+    static <E extends Enum<E>> E readEnum(DataInputStream in, E[] values, String what) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= values.length) {
+            throw new IOException("Corrupt " + what + ": " + ordinal);
+        }
+        return values[ordinal];
+    }
+    
+    /**
+     * Parse an endpoint: "unix:/path/to/socket", "tcp:host:port" or "host:port"
+     */
+    static SocketAddress address(String endpoint) {
+        if (endpoint.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(endpoint.substring("unix:".length()));
+        }
+        String hostPort = endpoint.startsWith("tcp:") ? endpoint.substring("tcp:".length()) : endpoint;
+        int colon = hostPort.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected unix:PATH or [tcp:]HOST:PORT, got " + endpoint);
+        }
+        return new InetSocketAddress(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)));
+    }
+    
+    /**
+     * Inverse of address(), for handing a bound address to spawned workers
+     */
+    static String endpoint(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress) {
+            return "unix:" + ((UnixDomainSocketAddress) address).getPath();
+        }
+        InetSocketAddress inet = (InetSocketAddress) address;
+        return "tcp:" + inet.getHostString() + ":" + inet.getPort();
+    }
+}
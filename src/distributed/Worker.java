@@ -0,0 +1,207 @@
+package distributed;
+
+import algorithms.AlgorithmFactory;
+import algorithms.Migration;
+import core.Algorithm;
+import core.CountingProblem;
+import core.Migratable;
+import core.Rng;
+import core.Solution;
+import problems.ProblemFactory;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Worker process for distributed islands. Connects to a Coordinator, runs
+ * every island assigned to it on its own thread, sends emigrants (routed
+ * through the coordinator) and reports each island's best every migration
+ * interval. Exits when told to stop or when the connection drops.
+ *
+ * <pre>
+ * java distributed.Worker --connect tcp:127.0.0.1:7000
+ * java distributed.Worker --connect unix:/tmp/swarmop.sock
+ * </pre>
+ */
+public class Worker {
+    /** Interval between heartbeats sent to the coordinator */
+    static final long HEARTBEAT_MILLIS = 500;
+    
+    private final SocketAddress coordinator;
+    private final Map<Integer, LocalIsland> islands = new ConcurrentHashMap<>();
+    private volatile boolean stopped;
+    private Connection connection;
+    
+    public Worker(SocketAddress coordinator) {
+        this.coordinator = coordinator;
+    }
+    
+    /**
+     * Serve the coordinator until it sends STOP or goes away
+     */
+    public void run() throws IOException {
+        connection = Connection.connect(coordinator);
+        try {
+            connection.sendHello(ProcessHandle.current().pid() + "@" + hostName());
+            Thread heartbeat = new Thread(this::heartbeat, "worker-heartbeat");
+            heartbeat.setDaemon(true);
+            heartbeat.start();
+            
+            while (!stopped) {
+                byte type = connection.readType();
+                switch (type) {
+                    case Protocol.ASSIGN:
+                        start(Assignment.read(connection.input()));
+                        break;
+                    case Protocol.MIGRANTS: {
+                        connection.input().readInt();
+                        int to = connection.input().readInt();
+                        List<Solution> migrants = Protocol.readSolutions(connection.input());
+                        LocalIsland island = islands.get(to);
+                        if (island != null) {
+                            island.inbox.addAll(migrants);
+                        }
+                        break;
+                    }
+                    case Protocol.STOP:
+                        stopped = true;
+                        break;
+                    default:
+                        throw new IOException("Unexpected message type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // Coordinator closed the connection; treat it as a stop
+        } finally {
+            stopped = true;
+            for (LocalIsland island : islands.values()) {
+                try {
+                    island.thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            connection.close();
+        }
+    }
+    
+    private void start(Assignment assignment) {
+        LocalIsland island = new LocalIsland(assignment);
+        islands.put(assignment.island(), island);
+        island.thread.start();
+    }
+    
+    private void heartbeat() {
+        try {
+            while (!stopped) {
+                connection.sendHeartbeat();
+                Thread.sleep(HEARTBEAT_MILLIS);
+            }
+        } catch (IOException | InterruptedException e) {
+            // The reader notices the broken connection and shuts down
+        }
+    }
+    
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+    
+    /**
+     * One island running on this worker
+     */
+    private final class LocalIsland implements Runnable {
+        final Assignment assignment;
+        final ConcurrentLinkedQueue<Solution> inbox = new ConcurrentLinkedQueue<>();
+        final List<Solution> arrivals = new ArrayList<>();
+        final Rng random;
+        final Thread thread;
+        
+        LocalIsland(Assignment assignment) {
+            this.assignment = assignment;
+            // The algorithm seeds itself from the same value, so migration takes a split-off stream
+            this.random = Rng.create(assignment.seed()).split();
+            this.thread = new Thread(this, "island-" + assignment.island());
+            thread.setDaemon(true);
+        }
+        
+        @Override
+        public void run() {
+            Map<String, String> params = new HashMap<>(assignment.parameters());
+            params.put("seed", Long.toString(assignment.seed()));
+            Algorithm algorithm = AlgorithmFactory.create(assignment.algorithm(), params);
+            CountingProblem problem = new CountingProblem(
+                ProblemFactory.create(assignment.problem(), assignment.dimensions()));
+            Migratable migratable = (Migratable) algorithm;
+            int island = assignment.island();
+            
+            try {
+                algorithm.initialize(problem);
+                // A reassigned island picks up where its previous worker left off
+                arrivals.addAll(assignment.seeds());
+                Migration.accept(migratable, arrivals, assignment.replacement(), random);
+                arrivals.clear();
+                
+                boolean more = true;
+                while (!stopped && more) {
+                    Solution migrant;
+                    while ((migrant = inbox.poll()) != null) {
+                        arrivals.add(migrant);
+                    }
+                    Migration.accept(migratable, arrivals, assignment.replacement(), random);
+                    arrivals.clear();
+                    
+                    more = algorithm.step();
+                    if (more && algorithm.getIteration() % assignment.interval() == 0) {
+                        List<Solution> outgoing = Migration.emigrants(migratable, assignment.migrants());
+                        for (int to : Migration.destinations(assignment.migration(), island,
+                                                             assignment.islandCount(), random)) {
+                            connection.sendMigrants(island, to, outgoing);
+                        }
+                        connection.sendReport(island, algorithm.getIteration(), problem.getEvaluations(),
+                                              false, algorithm.getBestSolution());
+                    }
+                }
+                connection.sendReport(island, algorithm.getIteration(), problem.getEvaluations(),
+                                      !more, algorithm.getBestSolution());
+            } catch (IOException e) {
+                stopped = true;
+            } catch (RuntimeException e) {
+                // Drop the connection so the coordinator reassigns the island
+                System.err.println("worker: island " + island + ": " + e);
+                stopped = true;
+                connection.close();
+            }
+        }
+    }
+    
+    public static void main(String[] args) {
+        String endpoint = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--connect")) {
+                endpoint = args[i + 1];
+            }
+        }
+        if (endpoint == null) {
+            System.err.println("usage: Worker --connect unix:PATH | [tcp:]HOST:PORT");
+            System.exit(2);
+        }
+        try {
+            new Worker(Protocol.address(endpoint)).run();
+        } catch (IOException e) {
+            System.err.println("worker: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of non-negative long values (nanoseconds), in the
+ * style of HdrHistogram. Values below SUB_BUCKETS are counted exactly.
+ * Above that, each power of two is split into SUB_BUCKETS equal buckets,
+ * so a reported percentile is within 1/SUB_BUCKETS (about 3%) of the true
+ * value, from nanoseconds up to centuries.
+ *
+ * <p>All counts live in one preallocated array, so record() allocates
+ * nothing. It is lock-free and safe to call from several threads.
+ * Readers see a consistent-enough picture while values are still being
+ * recorded.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Count one value; negative values count as zero
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.incrementAndGet(index(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        long previous = max.get();
+        while (v > previous && !max.compareAndSet(previous, v)) {
+            previous = max.get();
+        }
+    }
+    
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+    
+    /**
+     * Smallest value that falls in bucket index
+     */
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Mean of the recorded values, NaN if there are none
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? Double.NaN : (double) sum.get() / n;
+    }
+    
+    /**
+     * Value below which the given percentage (0-100) of recorded values
+     * fall, as the midpoint of its bucket; 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        if (percentile == 100) {
+            return max.get();
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                long low = lowestValue(i);
+                long high = i + 1 < BUCKETS ? lowestValue(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(low + (high - low) / 2, max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    /**
+     * Forget everything recorded so far
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
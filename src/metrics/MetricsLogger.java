@@ -0,0 +1,55 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints a snapshot line of every run it watches at a fixed interval, from
+ * a daemon thread. Runs can be added and removed while it is logging.
+ */
+public class MetricsLogger implements AutoCloseable {
+    private final PrintStream out;
+    private final List<RunMetrics> runs = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    
+    public MetricsLogger(PrintStream out, long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("intervalMillis must be positive");
+        }
+        this.out = out;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-logger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::log, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public void add(RunMetrics metrics) {
+        runs.add(metrics);
+    }
+    
+    /**
+     * Stop watching a run, printing its final snapshot
+     */
+    public void remove(RunMetrics metrics) {
+        if (runs.remove(metrics)) {
+            out.println(metrics.snapshot());
+        }
+    }
+    
+    private void log() {
+        for (RunMetrics metrics : runs) {
+            out.println(metrics.snapshot());
+        }
+    }
+    
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,329 @@
+package metrics;
+
+import core.Algorithm;
+import core.Instrumented;
+import core.Problem;
+import core.RunObserver;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Live measurements of one algorithm run. These are the evaluation
+ * throughput, a histogram of step latencies, the share of time spent in
+ * the objective versus the framework, the population diversity, and the
+ * acceptance (or success) rate of Instrumented algorithms. They tell a
+ * slow objective apart from a slow framework while the run is going.
+ *
+ * <p>The run's thread reports to it as a RunObserver, through
+ * RunController.addObserver() or directly (as the GUI does). The
+ * problem passed to the algorithm must come from instrument(), so that
+ * evaluations are timed. The algorithm itself is only read on the run's
+ * thread, at most every SAMPLE_MILLIS, so the getters can be called from
+ * any thread (JMX, MetricsLogger) without racing a step.
+ *
+ * <p>Evaluation time is summed over every thread that evaluates. With a
+ * parallel evaluator, getEvaluationTimeFraction() can exceed 1, and then
+ * means the average number of busy evaluation threads.
+ */
+public class RunMetrics implements RunMetricsMBean, RunObserver {
+    /** Minimum interval between samples of the algorithm's state */
+    public static final long SAMPLE_MILLIS = 100;
+    
+    private final String name;
+    private final Algorithm algorithm;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private volatile String problem = "";
+    private volatile long start;
+    private volatile long end;
+    // Written only by the run's thread
+    private volatile long busyNanos;
+    private volatile long steps;
+    
+    // Sampled from the algorithm on the run's thread
+    private volatile int iteration;
+    private volatile double bestFitness = Double.NaN;
+    private volatile double diversity = Double.NaN;
+    private volatile double recentRate = Double.NaN;
+    private volatile double recentAcceptance = Double.NaN;
+    private volatile long proposals;
+    private volatile long acceptances;
+    private long lastSample;
+    private long lastEvaluations;
+    private long lastProposals;
+    private long lastAcceptances;
+    
+    private ObjectName registered;
+    
+    /**
+     * @param name identifies the run in logs and in the MBean name
+     */
+    public RunMetrics(String name, Algorithm algorithm) {
+        this.name = name;
+        this.algorithm = algorithm;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Wrap the problem so that every evaluation is counted and timed
+     */
+    public Problem instrument(Problem problem) {
+        this.problem = problem.getName();
+        return new TimedProblem(problem, this);
+    }
+    
+    void recordEvaluations(int count, long nanos) {
+        evaluations.add(count);
+        evaluationNanos.add(nanos);
+    }
+    
+    /**
+     * Clear everything and start the clock
+     */
+    @Override
+    public void started() {
+        latencies.reset();
+        evaluations.reset();
+        evaluationNanos.reset();
+        busyNanos = 0;
+        steps = 0;
+        iteration = 0;
+        bestFitness = Double.NaN;
+        diversity = Double.NaN;
+        recentRate = Double.NaN;
+        recentAcceptance = Double.NaN;
+        proposals = 0;
+        acceptances = 0;
+        lastEvaluations = 0;
+        lastProposals = 0;
+        lastAcceptances = 0;
+        end = 0;
+        start = System.nanoTime();
+        lastSample = start;
+    }
+    
+    @Override
+    public void initialized(long nanos) {
+        busyNanos += nanos;
+        sample(System.nanoTime());
+    }
+    
+    @Override
+    public void stepped(long nanos) {
+        latencies.record(nanos);
+        busyNanos += nanos;
+        steps++;
+        long now = System.nanoTime();
+        if (now - lastSample >= SAMPLE_MILLIS * 1_000_000L) {
+            sample(now);
+        }
+    }
+    
+    /**
+     * Take a last sample and stop the clock
+     */
+    @Override
+    public void finished() {
+        long now = System.nanoTime();
+        sample(now);
+        end = now;
+    }
+    
+    private void sample(long now) {
+        iteration = algorithm.getIteration();
+        if (algorithm.getBestSolution() != null) {
+            bestFitness = algorithm.getBestSolution().getFitness();
+        }
+        diversity = algorithm.getDiversity();
+        
+        long evaluated = evaluations.sum();
+        if (now > lastSample) {
+            recentRate = (evaluated - lastEvaluations) * 1e9 / (now - lastSample);
+        }
+        lastEvaluations = evaluated;
+        lastSample = now;
+        
+        if (algorithm instanceof Instrumented) {
+            Instrumented instrumented = (Instrumented) algorithm;
+            long proposed = instrumented.getProposals();
+            long accepted = instrumented.getAcceptances();
+            if (proposed > lastProposals) {
+                recentAcceptance = (double) (accepted - lastAcceptances) / (proposed - lastProposals);
+            }
+            proposals = proposed;
+            acceptances = accepted;
+            lastProposals = proposed;
+            lastAcceptances = accepted;
+        }
+    }
+    
+    /**
+     * Register as an MBean named swarmop:type=Run,name=NAME on the
+     * platform MBean server, replacing any earlier run of the same name
+     */
+    public synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("swarmop:type=Run,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+            registered = objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics for " + name, e);
+        }
+    }
+    
+    /**
+     * Remove the MBean, if registered
+     */
+    public synchronized void unregister() {
+        if (registered == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registered);
+        } catch (InstanceNotFoundException e) {
+            // Already replaced by a later run of the same name
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister metrics for " + name, e);
+        }
+        registered = null;
+    }
+    
+    /**
+     * One line summarizing the run so far
+     */
+    public String snapshot() {
+        return String.format("%s %s on %s: iteration %d, %d evaluations, %.0f/s (%.0f/s average), "
+                             + "step mean %.1f us p50 %.1f us p99 %.1f us max %.1f us, "
+                             + "%.0f%% in evaluation, diversity %.4g, acceptance %.3f (recent %.3f), best %.6g",
+                             name, getAlgorithm(), problem, iteration, getEvaluations(),
+                             recentRate, getAverageEvaluationsPerSecond(),
+                             getStepMeanMicros(), getStepP50Micros(), getStepP99Micros(), getStepMaxMicros(),
+                             100 * getEvaluationTimeFraction(), diversity,
+                             getAcceptanceRate(), recentAcceptance, bestFitness);
+    }
+    
+    @Override
+    public String getAlgorithm() {
+        return algorithm.getName();
+    }
+    
+    @Override
+    public String getProblem() {
+        return problem;
+    }
+    
+    @Override
+    public int getIteration() {
+        return iteration;
+    }
+    
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+    
+    @Override
+    public double getEvaluationsPerSecond() {
+        return recentRate;
+    }
+    
+    @Override
+    public double getAverageEvaluationsPerSecond() {
+        long started = start;
+        if (started == 0) {
+            return Double.NaN;
+        }
+        long elapsed = (end != 0 ? end : System.nanoTime()) - started;
+        return elapsed > 0 ? evaluations.sum() * 1e9 / elapsed : Double.NaN;
+    }
+    
+    @Override
+    public long getSteps() {
+        return steps;
+    }
+    
+    /**
+     * Step latencies in nanoseconds
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+    
+    @Override
+    public double getStepMeanMicros() {
+        return latencies.getMean() / 1e3;
+    }
+    
+    @Override
+    public double getStepP50Micros() {
+        return percentileMicros(50);
+    }
+    
+    @Override
+    public double getStepP90Micros() {
+        return percentileMicros(90);
+    }
+    
+    @Override
+    public double getStepP99Micros() {
+        return percentileMicros(99);
+    }
+    
+    @Override
+    public double getStepMaxMicros() {
+        return latencies.getCount() == 0 ? Double.NaN : latencies.getMax() / 1e3;
+    }
+    
+    private double percentileMicros(double percentile) {
+        return latencies.getCount() == 0 ? Double.NaN : latencies.getValueAtPercentile(percentile) / 1e3;
+    }
+    
+    @Override
+    public double getEvaluationTimeFraction() {
+        long busy = busyNanos;
+        return busy > 0 ? (double) evaluationNanos.sum() / busy : Double.NaN;
+    }
+    
+    @Override
+    public double getOverheadFraction() {
+        return Math.max(0.0, 1.0 - getEvaluationTimeFraction());
+    }
+    
+    @Override
+    public double getDiversity() {
+        return diversity;
+    }
+    
+    @Override
+    public double getAcceptanceRate() {
+        long proposed = proposals;
+        return proposed > 0 ? (double) acceptances / proposed : Double.NaN;
+    }
+    
+    @Override
+    public double getRecentAcceptanceRate() {
+        return recentAcceptance;
+    }
+    
+    @Override
+    public double getBestFitness() {
+        return bestFitness;
+    }
+    
+    @Override
+    public void resetLatencies() {
+        latencies.reset();
+    }
+}
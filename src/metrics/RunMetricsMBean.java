@@ -0,0 +1,66 @@
+package metrics;
+
+/**
+ * JMX view of a RunMetrics. Times are in microseconds; rates and
+ * fractions are NaN until there is something to base them on.
+ */
+public interface RunMetricsMBean {
+    String getAlgorithm();
+    
+    String getProblem();
+    
+    int getIteration();
+    
+    long getEvaluations();
+    
+    /**
+     * Evaluations per second over the latest sampling interval
+     */
+    double getEvaluationsPerSecond();
+    
+    /**
+     * Evaluations per second since the run started
+     */
+    double getAverageEvaluationsPerSecond();
+    
+    long getSteps();
+    
+    double getStepMeanMicros();
+    
+    double getStepP50Micros();
+    
+    double getStepP90Micros();
+    
+    double getStepP99Micros();
+    
+    double getStepMaxMicros();
+    
+    /**
+     * Share of the algorithm's running time spent inside the objective
+     */
+    double getEvaluationTimeFraction();
+    
+    /**
+     * Share of the algorithm's running time spent outside the objective
+     */
+    double getOverheadFraction();
+    
+    double getDiversity();
+    
+    /**
+     * Accepted over proposed moves since the run started, for Instrumented algorithms
+     */
+    double getAcceptanceRate();
+    
+    /**
+     * Accepted over proposed moves over the latest sampling interval
+     */
+    double getRecentAcceptanceRate();
+    
+    double getBestFitness();
+    
+    /**
+     * Start a fresh step latency histogram
+     */
+    void resetLatencies();
+}
@@ -0,0 +1,65 @@
+package metrics;
+
+import core.Problem;
+
+/**
+ * Decorator that adds the time spent in the delegate and the number of
+ * points it scored to a RunMetrics
+ */
+final class TimedProblem implements Problem {
+    private final Problem delegate;
+    private final RunMetrics metrics;
+    
+    TimedProblem(Problem delegate, RunMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public double evaluate(double[] position) {
+        long start = System.nanoTime();
+        double value = delegate.evaluate(position);
+        metrics.recordEvaluations(1, System.nanoTime() - start);
+        return value;
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
+        long start = System.nanoTime();
+        double value = delegate.evaluate(positions, offset);
+        metrics.recordEvaluations(1, System.nanoTime() - start);
+        return value;
+    }
+    
+    @Override
+    public void evaluate(double[] positions, double[] fitness, int from, int to) {
+        long start = System.nanoTime();
+        delegate.evaluate(positions, fitness, from, to);
+        metrics.recordEvaluations(to - from, System.nanoTime() - start);
+    }
+    
+    @Override
+    public int getDimensions() {
+        return delegate.getDimensions();
+    }
+    
+    @Override
+    public double getLowerBound() {
+        return delegate.getLowerBound();
+    }
+    
+    @Override
+    public double getUpperBound() {
+        return delegate.getUpperBound();
+    }
+    
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+    
+    @Override
+    public double[] getOptimum() {
+        return delegate.getOptimum();
+    }
+}
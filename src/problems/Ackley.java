@@ -20,10 +20,16 @@ public class Ackley implements Problem {
     
     @Override
     public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
         double sum1 = 0.0;
         double sum2 = 0.0;
         
-        for (double x : position) {
+        for (int i = offset; i < offset + dimensions; i++) {
+            double x = positions[i];
             sum1 += x * x;
             sum2 += Math.cos(2.0 * Math.PI * x);
         }
@@ -52,4 +58,9 @@ public class Ackley implements Problem {
     public String getName() {
         return "Ackley Function";
     }
+    
+    @Override
+    public double[] getOptimum() {
+        return new double[dimensions];
+    }
 }
\ No newline at end of file
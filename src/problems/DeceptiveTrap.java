@@ -1,6 +1,7 @@
 package problems;
 
 import core.Problem;
+import java.util.Arrays;
 
 /**
  * Deceptive Trap function - designed to mislead gradient-based methods
@@ -23,9 +24,15 @@ public class DeceptiveTrap implements Problem {
     
     @Override
     public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
         double fitness = 0.0;
         
-        for (double x : position) {
+        for (int i = offset; i < offset + dimensions; i++) {
+            double x = positions[i];
             // Each dimension has a trap
             if (Math.abs(x) < 1.0) {
                 // Deceptive region - looks good but isn't optimal
@@ -58,4 +65,12 @@ public class DeceptiveTrap implements Problem {
     public String getName() {
         return "Deceptive Trap";
     }
+    
+    @Override
+    public double[] getOptimum() {
+        // One of the 2^n corners
+        double[] optimum = new double[dimensions];
+        Arrays.fill(optimum, upperBound);
+        return optimum;
+    }
 }
\ No newline at end of file
@@ -23,11 +23,16 @@ public class Griewank implements Problem {
     
     @Override
     public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
         double sum = 0.0;
         double product = 1.0;
         
-        for (int i = 0; i < position.length; i++) {
-            double x = position[i];
+        for (int i = 0; i < dimensions; i++) {
+            double x = positions[offset + i];
             sum += (x * x) / 4000.0;
             product *= Math.cos(x / Math.sqrt(i + 1));
         }
@@ -54,4 +59,9 @@ public class Griewank implements Problem {
     public String getName() {
         return "Griewank Function";
     }
+    
+    @Override
+    public double[] getOptimum() {
+        return new double[dimensions];
+    }
 }
\ No newline at end of file
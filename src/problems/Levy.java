@@ -1,6 +1,7 @@
 package problems;
 
 import core.Problem;
+import java.util.Arrays;
 
 /**
  * Levy function - multimodal with deep local minima
@@ -23,20 +24,24 @@ public class Levy implements Problem {
     
     @Override
     public double evaluate(double[] position) {
-        double[] w = new double[position.length];
-        for (int i = 0; i < position.length; i++) {
-            w[i] = 1.0 + (position[i] - 1.0) / 4.0;
-        }
-        
-        double term1 = Math.pow(Math.sin(Math.PI * w[0]), 2);
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
+        // w_i = 1 + (x_i - 1) / 4, computed on the fly
+        double wFirst = 1.0 + (positions[offset] - 1.0) / 4.0;
+        double term1 = Math.pow(Math.sin(Math.PI * wFirst), 2);
         
         double sum = 0.0;
-        for (int i = 0; i < position.length - 1; i++) {
-            sum += Math.pow(w[i] - 1, 2) * (1 + 10 * Math.pow(Math.sin(Math.PI * w[i] + 1), 2));
+        for (int i = 0; i < dimensions - 1; i++) {
+            double w = 1.0 + (positions[offset + i] - 1.0) / 4.0;
+            sum += Math.pow(w - 1, 2) * (1 + 10 * Math.pow(Math.sin(Math.PI * w + 1), 2));
         }
         
-        double term3 = Math.pow(w[position.length - 1] - 1, 2) * 
-                      (1 + Math.pow(Math.sin(2 * Math.PI * w[position.length - 1]), 2));
+        double wLast = 1.0 + (positions[offset + dimensions - 1] - 1.0) / 4.0;
+        double term3 = Math.pow(wLast - 1, 2) * 
+                      (1 + Math.pow(Math.sin(2 * Math.PI * wLast), 2));
         
         return term1 + sum + term3;
     }
@@ -60,4 +65,11 @@ public class Levy implements Problem {
     public String getName() {
         return "Levy Function";
     }
+    
+    @Override
+    public double[] getOptimum() {
+        double[] optimum = new double[dimensions];
+        Arrays.fill(optimum, 1.0);
+        return optimum;
+    }
 }
\ No newline at end of file
@@ -26,10 +26,15 @@ public class Michalewicz implements Problem {
     
     @Override
     public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
         double sum = 0.0;
         
-        for (int i = 0; i < position.length; i++) {
-            double x = position[i];
+        for (int i = 0; i < dimensions; i++) {
+            double x = positions[offset + i];
             sum += Math.sin(x) * Math.pow(Math.sin((i + 1) * x * x / Math.PI), 2 * m);
         }
         
@@ -55,4 +60,10 @@ public class Michalewicz implements Problem {
     public String getName() {
         return "Michalewicz Function";
     }
+    
+    @Override
+    public double[] getOptimum() {
+        // Only tabulated for two dimensions
+        return dimensions == 2 ? new double[]{2.20, 1.57} : null;
+    }
 }
\ No newline at end of file
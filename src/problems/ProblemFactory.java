@@ -0,0 +1,64 @@
+package problems;
+
+import core.Problem;
+import java.util.List;
+
+/**
+ * Builds benchmark problems by name. Names are matched case-insensitively
+ * with spaces, dashes and underscores ignored, so "Deceptive Trap",
+ * "deceptive-trap" and "DECEPTIVE_TRAP" are the same problem.
+ *
+ * <p>A name may be prefixed with "shifted" and/or "rotated", outermost
+ * first ("shifted-rotated-rastrigin"), to wrap the problem in
+ * ShiftedProblem and RotatedProblem with TRANSFORM_SEED. So every run
+ * that names the same problem gets the same offset and rotation.
+ */
+public final class ProblemFactory {
+    /** Seed of the offsets and rotations built from name prefixes */
+    public static final long TRANSFORM_SEED = 2005;
+    
+    private ProblemFactory() {
+    }
+    
+    /**
+     * Canonical names of every problem this factory can build
+     */
+    public static List<String> names() {
+        return List.of("sphere", "rastrigin", "ackley", "schwefel",
+                       "griewank", "michalewicz", "levy", "deceptive-trap");
+    }
+    
+    public static Problem create(String name, int dimensions) {
+        String base = normalize(name);
+        if (base.startsWith("shifted")) {
+            return new ShiftedProblem(create(base.substring("shifted".length()), dimensions), TRANSFORM_SEED);
+        }
+        if (base.startsWith("rotated")) {
+            return new RotatedProblem(create(base.substring("rotated".length()), dimensions), TRANSFORM_SEED);
+        }
+        switch (base) {
+            case "sphere":
+                return new Sphere(dimensions);
+            case "rastrigin":
+                return new Rastrigin(dimensions);
+            case "ackley":
+                return new Ackley(dimensions);
+            case "schwefel":
+                return new Schwefel(dimensions);
+            case "griewank":
+                return new Griewank(dimensions);
+            case "michalewicz":
+                return new Michalewicz(dimensions);
+            case "levy":
+                return new Levy(dimensions);
+            case "deceptivetrap":
+                return new DeceptiveTrap(dimensions);
+            default:
+                throw new IllegalArgumentException("Unknown problem: " + name + " (known: " + names() + ")");
+        }
+    }
+    
+    static String normalize(String name) {
+        return name.toLowerCase().replaceAll("[\\s_-]", "");
+    }
+}
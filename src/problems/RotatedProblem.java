@@ -0,0 +1,183 @@
+package problems;
+
+import core.Problem;
+import core.Rng;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CEC-style rotation: f(c + M (x - c)) for a seeded random orthogonal
+ * matrix M. The centre c is the delegate's optimum, so the optimum stays
+ * where it was. For an unknown optimum, c is the centre of the box. After
+ * the rotation, no coordinate can be optimized on its own, which defeats
+ * algorithms that search one axis at a time. A function that is lower
+ * outside its bounds than at its optimum (Schwefel) is rotated into a
+ * different problem, as in the CEC suites.
+ *
+ * <p>M is drawn once per dimension and seed from the Haar distribution
+ * (Gram-Schmidt on a Gaussian matrix). It is then shared by every instance
+ * that asks for it, so a batch of runs pays the O(n^3) set-up only once.
+ * Each evaluation costs an O(n^2) product. M is stored column-major, so
+ * the product is a sequence of vectorizable axpy steps rather than dot
+ * products. The batch entry point rotates BLOCK points at a time over
+ * TILE output rows. Each stretch of M is then loaded once per block
+ * instead of once per point, while the block's output tiles stay in L1.
+ */
+public class RotatedProblem implements Problem {
+    /** Points rotated together by the batch entry point */
+    private static final int BLOCK = 16;
+    /** Output rows per pass, sized so BLOCK output tiles fit in L1 */
+    private static final int TILE = 256;
+    
+    private static final Map<Key, double[]> MATRICES = new ConcurrentHashMap<>();
+    
+    private record Key(int dimensions, long seed) {
+    }
+    
+    private final Problem delegate;
+    private final int dimensions;
+    private final double[] transposed;
+    private final double[] bias;
+    private final ThreadLocal<double[]> scratch;
+    
+    public RotatedProblem(Problem delegate, long seed) {
+        this.delegate = delegate;
+        this.dimensions = delegate.getDimensions();
+        this.transposed = MATRICES.computeIfAbsent(new Key(dimensions, seed),
+                                               key -> randomRotation(key.dimensions(), key.seed()));
+        this.scratch = ThreadLocal.withInitial(() -> new double[BLOCK * dimensions]);
+        
+        // c + M (x - c) = M x + (c - M c)
+        double[] centre = delegate.getOptimum();
+        if (centre == null) {
+            centre = new double[dimensions];
+            Arrays.fill(centre, (delegate.getLowerBound() + delegate.getUpperBound()) / 2);
+        }
+        this.bias = centre.clone();
+        double[] rotated = new double[dimensions];
+        rotate(centre, 0, 1, rotated);
+        for (int i = 0; i < dimensions; i++) {
+            bias[i] -= rotated[i];
+        }
+    }
+    
+    /**
+     * Uniformly random orthogonal n x n matrix; its rows are taken as the
+     * columns of M
+     */
+    static double[] randomRotation(int n, long seed) {
+        // Pinned, not the default kind, so the function does not depend on the run's generator
+        Rng random = Rng.create(Rng.Kind.L64X128_MIX, seed);
+        double[] m = new double[n * n];
+        random.nextGaussians(m, 0, m.length);
+        // Modified Gram-Schmidt on the rows
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            for (int k = 0; k < i; k++) {
+                int other = k * n;
+                double dot = 0.0;
+                for (int j = 0; j < n; j++) {
+                    dot += m[row + j] * m[other + j];
+                }
+                for (int j = 0; j < n; j++) {
+                    m[row + j] -= dot * m[other + j];
+                }
+            }
+            double norm = 0.0;
+            for (int j = 0; j < n; j++) {
+                norm += m[row + j] * m[row + j];
+            }
+            norm = Math.sqrt(norm);
+            for (int j = 0; j < n; j++) {
+                m[row + j] /= norm;
+            }
+        }
+        return m;
+    }
+    
+    public Problem getDelegate() {
+        return delegate;
+    }
+    
+    /**
+     * out[k * n + i] = (M x_k)_i for the count points packed from offset
+     */
+    private void rotate(double[] positions, int offset, int count, double[] out) {
+        int n = dimensions;
+        Arrays.fill(out, 0, count * n, 0.0);
+        // Column-oriented: out_k[tile] += x_k[j] * M[tile][j], with the
+        // transposed matrix making M[tile][j] contiguous. No reduction, so
+        // the JIT vectorizes the inner loop.
+        for (int tile = 0; tile < n; tile += TILE) {
+            int length = Math.min(TILE, n - tile);
+            for (int j = 0; j < n; j++) {
+                int column = j * n + tile;
+                for (int k = 0; k < count; k++) {
+                    double x = positions[offset + k * n + j];
+                    int row = k * n + tile;
+                    for (int i = 0; i < length; i++) {
+                        out[row + i] += x * transposed[column + i];
+                    }
+                }
+            }
+        }
+    }
+    
+    @Override
+    public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
+        double[] rotated = scratch.get();
+        rotate(positions, offset, 1, rotated);
+        for (int i = 0; i < dimensions; i++) {
+            rotated[i] += bias[i];
+        }
+        return delegate.evaluate(rotated, 0);
+    }
+    
+    @Override
+    public void evaluate(double[] positions, double[] fitness, int from, int to) {
+        int n = dimensions;
+        double[] rotated = scratch.get();
+        for (int start = from; start < to; start += BLOCK) {
+            int count = Math.min(BLOCK, to - start);
+            rotate(positions, start * n, count, rotated);
+            for (int k = 0; k < count; k++) {
+                int row = k * n;
+                for (int i = 0; i < n; i++) {
+                    rotated[row + i] += bias[i];
+                }
+                fitness[start + k] = delegate.evaluate(rotated, row);
+            }
+        }
+    }
+    
+    @Override
+    public int getDimensions() {
+        return dimensions;
+    }
+    
+    @Override
+    public double getLowerBound() {
+        return delegate.getLowerBound();
+    }
+    
+    @Override
+    public double getUpperBound() {
+        return delegate.getUpperBound();
+    }
+    
+    @Override
+    public String getName() {
+        return "Rotated " + delegate.getName();
+    }
+    
+    @Override
+    public double[] getOptimum() {
+        return delegate.getOptimum();
+    }
+}
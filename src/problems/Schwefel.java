@@ -1,6 +1,7 @@
 package problems;
 
 import core.Problem;
+import java.util.Arrays;
 
 /**
  * Schwefel function - highly deceptive!
@@ -24,8 +25,14 @@ public class Schwefel implements Problem {
     
     @Override
     public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
         double sum = 0.0;
-        for (double x : position) {
+        for (int i = offset; i < offset + dimensions; i++) {
+            double x = positions[i];
             sum += x * Math.sin(Math.sqrt(Math.abs(x)));
         }
         return 418.9829 * dimensions - sum;
@@ -50,4 +57,11 @@ public class Schwefel implements Problem {
     public String getName() {
         return "Schwefel Function";
     }
+    
+    @Override
+    public double[] getOptimum() {
+        double[] optimum = new double[dimensions];
+        Arrays.fill(optimum, 420.9687);
+        return optimum;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package problems;
+
+import core.Problem;
+import core.Rng;
+
+/**
+ * CEC-style shift: f(x - o) for a seeded random offset o. The offset
+ * moves a known optimum to a uniformly random point in the middle 80% of
+ * the bounds. An unknown optimum is moved by up to 10% of the range in
+ * each coordinate. So the optimum is never at the centre of the box or
+ * on a symmetric grid point. The same seed always gives the same offset.
+ * Batches are shifted BLOCK points at a time and passed on as batches, so
+ * a batched delegate (RotatedProblem) keeps its blocking.
+ */
+public class ShiftedProblem implements Problem {
+    /** Points shifted together by the batch entry point */
+    private static final int BLOCK = 16;
+    
+    private final Problem delegate;
+    private final int dimensions;
+    private final double[] shift;
+    private final ThreadLocal<double[]> scratch;
+    private final ThreadLocal<double[]> blockFitness;
+    
+    public ShiftedProblem(Problem delegate, long seed) {
+        this.delegate = delegate;
+        this.dimensions = delegate.getDimensions();
+        this.shift = new double[dimensions];
+        this.scratch = ThreadLocal.withInitial(() -> new double[BLOCK * dimensions]);
+        this.blockFitness = ThreadLocal.withInitial(() -> new double[BLOCK]);
+        
+        // Pinned, not the default kind, so the function does not depend on the run's generator
+        Rng random = Rng.create(Rng.Kind.L64X128_MIX, seed);
+        double lower = delegate.getLowerBound();
+        double range = delegate.getUpperBound() - lower;
+        double[] optimum = delegate.getOptimum();
+        for (int i = 0; i < dimensions; i++) {
+            if (optimum != null) {
+                double target = lower + range * (0.1 + 0.8 * random.nextDouble());
+                shift[i] = target - optimum[i];
+            } else {
+                shift[i] = range * 0.1 * (2 * random.nextDouble() - 1);
+            }
+        }
+    }
+    
+    public Problem getDelegate() {
+        return delegate;
+    }
+    
+    /**
+     * The offset o, which must not be modified
+     */
+    public double[] getShift() {
+        return shift;
+    }
+    
+    @Override
+    public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
+        double[] shifted = scratch.get();
+        for (int i = 0; i < dimensions; i++) {
+            shifted[i] = positions[offset + i] - shift[i];
+        }
+        return delegate.evaluate(shifted, 0);
+    }
+    
+    @Override
+    public void evaluate(double[] positions, double[] fitness, int from, int to) {
+        int n = dimensions;
+        double[] shifted = scratch.get();
+        double[] values = blockFitness.get();
+        for (int start = from; start < to; start += BLOCK) {
+            int count = Math.min(BLOCK, to - start);
+            for (int k = 0; k < count; k++) {
+                int row = k * n;
+                int offset = (start + k) * n;
+                for (int i = 0; i < n; i++) {
+                    shifted[row + i] = positions[offset + i] - shift[i];
+                }
+            }
+            delegate.evaluate(shifted, values, 0, count);
+            System.arraycopy(values, 0, fitness, start, count);
+        }
+    }
+    
+    @Override
+    public int getDimensions() {
+        return dimensions;
+    }
+    
+    @Override
+    public double getLowerBound() {
+        return delegate.getLowerBound();
+    }
+    
+    @Override
+    public double getUpperBound() {
+        return delegate.getUpperBound();
+    }
+    
+    @Override
+    public String getName() {
+        return "Shifted " + delegate.getName();
+    }
+    
+    @Override
+    public double[] getOptimum() {
+        double[] optimum = delegate.getOptimum();
+        if (optimum == null) {
+            return null;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            optimum[i] += shift[i];
+        }
+        return optimum;
+    }
+}
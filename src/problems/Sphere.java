@@ -20,8 +20,14 @@ public class Sphere implements Problem {
     
     @Override
     public double evaluate(double[] position) {
+        return evaluate(position, 0);
+    }
+    
+    @Override
+    public double evaluate(double[] positions, int offset) {
         double sum = 0.0;
-        for (double x : position) {
+        for (int i = offset; i < offset + dimensions; i++) {
+            double x = positions[i];
             sum += x * x;
         }
         return sum;
@@ -46,4 +52,9 @@ public class Sphere implements Problem {
     public String getName() {
         return "Sphere Function";
     }
+    
+    @Override
+    public double[] getOptimum() {
+        return new double[dimensions];
+    }
 }
\ No newline at end of file
@@ -0,0 +1,476 @@
+package runner;
+
+import algorithms.AlgorithmFactory;
+import core.Algorithm;
+import core.CachingProblem;
+import core.Checkpoint;
+import core.Checkpointer;
+import core.CountingProblem;
+import core.Problem;
+import core.Rng;
+import core.RunController;
+import core.Solution;
+import core.Termination;
+import metrics.MetricsLogger;
+import metrics.RunMetrics;
+import problems.ProblemFactory;
+import trace.TraceRecorder;
+import trace.TraceWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless experiment runner. Runs every repetition of an ExperimentSpec
+ * on a fixed thread pool and streams each result to a ResultWriter as
+ * soon as the run finishes.
+ *
+ * <p>Command line:
+ * <pre>
+ * java runner.BatchRunner --algorithm de --problem rastrigin --dimensions 30 \
+ *     --repetitions 30 --seed 1 --evaluations 300000 --time 60s --target 1e-8 \
+ *     --param F=0.5 --param strategy=current-to-pbest/1 \
+ *     --threads 8 --format jsonl --output results.jsonl
+ * </pre>
+ * A spec can also come from a properties file with the same keys
+ * (parameters as param.NAME=VALUE) via --spec FILE; later flags override it.
+ *
+ * <p>With --checkpoint-dir, run r is checkpointed to run-r.ckpt in that
+ * directory. Starting the same batch again resumes every run from its
+ * checkpoint, so an interrupted batch loses at most one interval per run.
+ *
+ * <p>With --metrics-every or --jmx, each run is measured by a RunMetrics,
+ * which times every step and evaluation. It is logged to stderr at the
+ * given interval, or exposed as the MBean swarmop:type=Run,name="run-r"
+ * while the run lasts.
+ *
+ * <p>With --trace-dir, the best-so-far curve of run r is written to
+ * run-r.trace in that directory as it runs, with a population snapshot
+ * every --trace-snapshots iterations. trace.TraceReport turns a set of
+ * traces into ECDF or ERT tables.
+ */
+public class BatchRunner {
+    private final ExperimentSpec spec;
+    private volatile MetricsLogger metricsLogger;
+    private volatile TraceWriter traceWriter;
+    
+    public BatchRunner(ExperimentSpec spec) {
+        spec.validate();
+        this.spec = spec;
+        if (spec.getCheckpointDir() != null) {
+            Algorithm algorithm = AlgorithmFactory.create(spec.getAlgorithm(), new HashMap<>(spec.getParameters()));
+            if (!algorithm.supportsCheckpoints()) {
+                throw new IllegalArgumentException(algorithm.getName() + " does not support --checkpoint-dir");
+            }
+        }
+    }
+    
+    /**
+     * Run all repetitions, writing each result as it completes.
+     * Returns the results ordered by run index.
+     */
+    public List<RunResult> run(ResultWriter writer) throws InterruptedException {
+        int repetitions = spec.getRepetitions();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(spec.getThreads(), repetitions));
+        if (spec.getMetricsInterval() > 0) {
+            metricsLogger = new MetricsLogger(System.err, spec.getMetricsInterval());
+        }
+        if (spec.getTraceDir() != null) {
+            try {
+                Files.createDirectories(Paths.get(spec.getTraceDir()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            traceWriter = new TraceWriter(spec.getTraceSnapshots());
+        }
+        try {
+            List<Future<RunResult>> futures = new ArrayList<>();
+            for (int run = 0; run < repetitions; run++) {
+                int index = run;
+                futures.add(executor.submit(() -> {
+                    RunResult result = runOnce(index);
+                    if (writer != null) {
+                        writer.write(result);
+                    }
+                    return result;
+                }));
+            }
+            
+            List<RunResult> results = new ArrayList<>();
+            for (Future<RunResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException("Run failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+            if (metricsLogger != null) {
+                metricsLogger.close();
+                metricsLogger = null;
+            }
+            if (traceWriter != null) {
+                traceWriter.close();
+                traceWriter = null;
+            }
+        }
+    }
+    
+    /**
+     * Execute a single repetition on the calling thread
+     */
+    public RunResult runOnce(int run) {
+        long seed = spec.getSeed(run);
+        Map<String, String> params = new HashMap<>(spec.getParameters());
+        params.putIfAbsent("seed", Long.toString(seed));
+        params.putIfAbsent("rng", spec.getRandomGenerator().toString());
+        boolean budgeted = spec.getMaxEvaluations() > 0 || spec.getMaxMillis() > 0;
+        if (budgeted) {
+            // The budget decides when to stop unless iterations are capped explicitly
+            params.putIfAbsent("iterations", Integer.toString(Integer.MAX_VALUE));
+        }
+        
+        Algorithm algorithm = AlgorithmFactory.create(spec.getAlgorithm(), params);
+        Problem target = ProblemFactory.create(spec.getProblem(), spec.getDimensions());
+        if (spec.getCacheSize() > 0) {
+            // Inside the counter: cache hits still count towards the budget
+            target = new CachingProblem(target, spec.getCacheSize());
+        }
+        MetricsLogger logger = metricsLogger;
+        RunMetrics metrics = null;
+        if (spec.isJmx() || logger != null) {
+            // Outside the cache, so cache hits count as (cheap) evaluations
+            metrics = new RunMetrics("run-" + run, algorithm);
+            target = metrics.instrument(target);
+        }
+        CountingProblem problem = new CountingProblem(target);
+        
+        if (spec.getMaxEvaluations() > 0) {
+            // Points past the budget are never evaluated, even mid-step
+            problem.setBudget(spec.getMaxEvaluations());
+        }
+        
+        RunController controller = new RunController(algorithm, problem, termination());
+        Checkpointer checkpointer = null;
+        if (spec.getCheckpointDir() != null) {
+            Path path = Paths.get(spec.getCheckpointDir(), "run-" + run + ".ckpt");
+            try {
+                Files.createDirectories(path.getParent());
+                if (Files.exists(path)) {
+                    controller.setResume(Checkpoint.load(path));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            checkpointer = new Checkpointer(path, spec.getCheckpointInterval());
+            controller.setCheckpointer(checkpointer);
+        }
+        if (metrics != null) {
+            controller.addObserver(metrics);
+            if (spec.isJmx()) {
+                metrics.register();
+            }
+            if (logger != null) {
+                logger.add(metrics);
+            }
+        }
+        TraceWriter tracer = traceWriter;
+        if (tracer != null) {
+            Path path = Paths.get(spec.getTraceDir(), "run-" + run + ".trace");
+            try {
+                TraceRecorder recorder = tracer.open(path, algorithm, problem, "run " + run + " seed " + seed);
+                controller.addObserver(recorder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        try {
+            controller.run();
+        } finally {
+            if (metrics != null) {
+                metrics.unregister();
+                if (logger != null) {
+                    logger.remove(metrics);
+                }
+            }
+            if (checkpointer != null) {
+                checkpointer.close();
+            }
+            if (algorithm instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) algorithm).close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not shut down " + algorithm.getName(), e);
+                }
+            }
+        }
+        
+        Solution best = algorithm.getBestSolution();
+        return new RunResult(run, seed, algorithm.getName(), problem.getName(), spec.getDimensions(),
+                             algorithm.getIteration(), problem.getEvaluations(), best.getFitness(),
+                             spec.isIncludePositions() ? best.getPosition().clone() : null,
+                             controller.getElapsedNanos() / 1_000_000L, controller.getStopReason());
+    }
+    
+    /**
+     * Stopping rule for one run: whichever limit of the spec is hit first
+     */
+    private Termination termination() {
+        List<Termination> criteria = new ArrayList<>();
+        if (spec.getMaxEvaluations() > 0) {
+            criteria.add(Termination.maxEvaluations(spec.getMaxEvaluations()));
+        }
+        if (spec.getMaxMillis() > 0) {
+            criteria.add(Termination.deadline(spec.getMaxMillis()));
+        }
+        if (spec.getTargetFitness() > Double.NEGATIVE_INFINITY) {
+            criteria.add(Termination.targetFitness(spec.getTargetFitness()));
+        }
+        if (spec.getStagnationWindow() > 0) {
+            criteria.add(Termination.stagnation(spec.getStagnationWindow(), spec.getStagnationTolerance()));
+        }
+        if (spec.getMinDiversity() > 0) {
+            criteria.add(Termination.diversityBelow(spec.getMinDiversity()));
+        }
+        return Termination.anyOf(criteria.toArray(new Termination[0]));
+    }
+    
+    public static void main(String[] args) {
+        try {
+            Options options = Options.parse(args);
+            if (options.help) {
+                printUsage();
+                return;
+            }
+            Writer out = options.output == null
+                       ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                       : Files.newBufferedWriter(Paths.get(options.output), StandardCharsets.UTF_8);
+            try (ResultWriter writer = ResultWriter.create(options.format, out)) {
+                new BatchRunner(options.spec).run(writer);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            printUsage();
+            System.exit(2);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(130);
+        }
+    }
+    
+    private static void printUsage() {
+        System.err.println(
+            "usage: BatchRunner --algorithm NAME --problem NAME [options]\n" +
+            "  --algorithm NAME     " + AlgorithmFactory.names() + "\n" +
+            "  --problem NAME       " + ProblemFactory.names() + "\n" +
+            "                       prefixed with shifted- and/or rotated- for CEC-style variants\n" +
+            "  --dimensions N       problem dimension (default 2)\n" +
+            "  --param KEY=VALUE    algorithm parameter, repeatable\n" +
+            "  --repetitions N      independent runs (default 1)\n" +
+            "  --seed S             base seed; run r uses S + r (default 1)\n" +
+            "  --seeds S1,S2,...    explicit per-run seeds\n" +
+            "  --rng NAME           l64x128mix (default) or xoshiro256pp\n" +
+            "  --evaluations N      evaluation budget per run\n" +
+            "  --time DURATION      wall-clock budget per run, e.g. 500ms, 30s, 2m\n" +
+            "  --target F           stop a run once its best fitness is <= F\n" +
+            "  --stagnation N       stop a run after N iterations without improvement\n" +
+            "  --tolerance T        improvement smaller than T counts as none (default 0)\n" +
+            "  --min-diversity D    stop a run once population diversity drops below D\n" +
+            "  --cache N            memoize up to N evaluated points per run\n" +
+            "  --checkpoint-dir DIR checkpoint runs to DIR, resuming any found there\n" +
+            "  --checkpoint-every N iterations between checkpoints (default 100)\n" +
+            "  --metrics-every T    log every run's metrics to stderr every T, e.g. 5s\n" +
+            "  --jmx                expose each run's metrics as an MBean\n" +
+            "  --trace-dir DIR      write each run's convergence trace to DIR\n" +
+            "  --trace-snapshots N  iterations between population snapshots in traces\n" +
+            "  --threads N          concurrent runs (default: available processors)\n" +
+            "  --format csv|jsonl   output format (default from --output, else csv)\n" +
+            "  --output FILE        output file (default stdout)\n" +
+            "  --positions          include the best position in each result\n" +
+            "  --spec FILE          read any of the above from a properties file");
+    }
+    
+    /**
+     * Parsed command line
+     */
+    static class Options {
+        ExperimentSpec spec = new ExperimentSpec();
+        String format;
+        String output;
+        boolean help;
+        
+        static Options parse(String[] args) throws IOException {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help") || arg.equals("-h")) {
+                    options.help = true;
+                    return options;
+                }
+                if (arg.equals("--positions")) {
+                    options.spec.setIncludePositions(true);
+                    continue;
+                }
+                if (arg.equals("--jmx")) {
+                    options.spec.setJmx(true);
+                    continue;
+                }
+                if (!arg.startsWith("--") || i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+                }
+                String key = arg.substring(2);
+                String value = args[++i];
+                if (key.equals("spec")) {
+                    Properties properties = new Properties();
+                    try (InputStream in = new FileInputStream(value)) {
+                        properties.load(in);
+                    }
+                    for (String name : properties.stringPropertyNames()) {
+                        options.apply(name, properties.getProperty(name));
+                    }
+                } else {
+                    options.apply(key, value);
+                }
+            }
+            if (options.format == null) {
+                options.format = options.output != null && options.output.endsWith(".jsonl") ? "jsonl" : "csv";
+            }
+            return options;
+        }
+        
+        void apply(String key, String value) {
+            if (key.startsWith("param.")) {
+                spec.setParameter(key.substring("param.".length()), value);
+                return;
+            }
+            switch (key) {
+                case "algorithm":
+                    spec.setAlgorithm(value);
+                    break;
+                case "problem":
+                    spec.setProblem(value);
+                    break;
+                case "dimensions":
+                case "dimension":
+                    spec.setDimensions(Integer.parseInt(value));
+                    break;
+                case "param": {
+                    int eq = value.indexOf('=');
+                    if (eq <= 0) {
+                        throw new IllegalArgumentException("Expected --param KEY=VALUE, got " + value);
+                    }
+                    spec.setParameter(value.substring(0, eq), value.substring(eq + 1));
+                    break;
+                }
+                case "repetitions":
+                    spec.setRepetitions(Integer.parseInt(value));
+                    break;
+                case "seed":
+                    spec.setSeed(Long.parseLong(value));
+                    break;
+                case "seeds": {
+                    List<Long> seeds = new ArrayList<>();
+                    for (String s : value.split(",")) {
+                        seeds.add(Long.parseLong(s.trim()));
+                    }
+                    spec.setSeeds(seeds);
+                    break;
+                }
+                case "rng":
+                    spec.setRandomGenerator(Rng.Kind.parse(value));
+                    break;
+                case "evaluations":
+                    spec.setMaxEvaluations(Long.parseLong(value));
+                    break;
+                case "time":
+                    spec.setMaxMillis(parseMillis(value));
+                    break;
+                case "target":
+                    spec.setTargetFitness(Double.parseDouble(value));
+                    break;
+                case "stagnation":
+                    spec.setStagnation(Integer.parseInt(value), spec.getStagnationTolerance());
+                    break;
+                case "tolerance":
+                    spec.setStagnation(spec.getStagnationWindow(), Double.parseDouble(value));
+                    break;
+                case "min-diversity":
+                    spec.setMinDiversity(Double.parseDouble(value));
+                    break;
+                case "cache":
+                    spec.setCacheSize(Integer.parseInt(value));
+                    break;
+                case "checkpoint-dir":
+                    spec.setCheckpointDir(value);
+                    break;
+                case "checkpoint-every":
+                    spec.setCheckpointInterval(Integer.parseInt(value));
+                    break;
+                case "metrics-every":
+                    spec.setMetricsInterval(parseMillis(value));
+                    break;
+                case "jmx":
+                    spec.setJmx(Boolean.parseBoolean(value));
+                    break;
+                case "trace-dir":
+                    spec.setTraceDir(value);
+                    break;
+                case "trace-snapshots":
+                    spec.setTraceSnapshots(Integer.parseInt(value));
+                    break;
+                case "threads":
+                    spec.setThreads(Integer.parseInt(value));
+                    break;
+                case "format":
+                    format = value;
+                    break;
+                case "output":
+                    output = value;
+                    break;
+                case "positions":
+                    spec.setIncludePositions(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        
+        static long parseMillis(String value) {
+            String v = value.trim().toLowerCase();
+            if (v.endsWith("ms")) {
+                return Long.parseLong(v.substring(0, v.length() - 2));
+            } else if (v.endsWith("s")) {
+                return Math.round(Double.parseDouble(v.substring(0, v.length() - 1)) * 1000);
+            } else if (v.endsWith("m")) {
+                return Math.round(Double.parseDouble(v.substring(0, v.length() - 1)) * 60_000);
+            } else if (v.endsWith("h")) {
+                return Math.round(Double.parseDouble(v.substring(0, v.length() - 1)) * 3_600_000);
+            }
+            return Long.parseLong(v);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package runner;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * One CSV row per run, header first. The best position, when present,
+ * is a single field with coordinates separated by semicolons.
+ */
+public class CsvResultWriter implements ResultWriter {
+    private final Writer out;
+    private boolean headerWritten;
+    
+    public CsvResultWriter(Writer out) {
+        this.out = out;
+    }
+    
+    @Override
+    public synchronized void write(RunResult result) throws IOException {
+        if (!headerWritten) {
+            out.write("run,seed,algorithm,problem,dimensions,iterations,evaluations,best_fitness,elapsed_ms,stop_reason,best_position\n");
+            headerWritten = true;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(result.run()).append(',')
+          .append(result.seed()).append(',')
+          .append(quote(result.algorithm())).append(',')
+          .append(quote(result.problem())).append(',')
+          .append(result.dimensions()).append(',')
+          .append(result.iterations()).append(',')
+          .append(result.evaluations()).append(',')
+          .append(result.bestFitness()).append(',')
+          .append(result.elapsedMillis()).append(',')
+          .append(quote(result.stopReason())).append(',');
+        double[] position = result.bestPosition();
+        if (position != null) {
+            for (int i = 0; i < position.length; i++) {
+                if (i > 0) sb.append(';');
+                sb.append(position[i]);
+            }
+        }
+        sb.append('\n');
+        out.write(sb.toString());
+        out.flush();
+    }
+    
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,335 @@
+package runner;
+
+import core.Rng;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything needed to repeat one experiment: which algorithm with which
+ * parameters on which problem, how many independent runs with which
+ * seeds, and the budget each run gets. Setters return this so a spec can
+ * be built in one expression.
+ */
+public class ExperimentSpec {
+    private String algorithm;
+    private Map<String, String> parameters;
+    private String problem;
+    private int dimensions;
+    private int repetitions;
+    private long seed;
+    private List<Long> seeds;
+    private long maxEvaluations;
+    private long maxMillis;
+    private double targetFitness;
+    private int stagnationWindow;
+    private double stagnationTolerance;
+    private double minDiversity;
+    private int cacheSize;
+    private String checkpointDir;
+    private int checkpointInterval;
+    private Rng.Kind randomGenerator;
+    private long metricsInterval;
+    private boolean jmx;
+    private String traceDir;
+    private int traceSnapshots;
+    private int threads;
+    private boolean includePositions;
+    
+    public ExperimentSpec() {
+        this.parameters = new LinkedHashMap<>();
+        this.dimensions = 2;
+        this.repetitions = 1;
+        this.seed = 1;
+        this.seeds = new ArrayList<>();
+        this.targetFitness = Double.NEGATIVE_INFINITY;
+        this.checkpointInterval = 100;
+        this.randomGenerator = Rng.Kind.L64X128_MIX;
+        this.threads = Runtime.getRuntime().availableProcessors();
+    }
+    
+    public ExperimentSpec setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+        return this;
+    }
+    
+    public ExperimentSpec setParameter(String key, String value) {
+        this.parameters.put(key, value);
+        return this;
+    }
+    
+    public ExperimentSpec setProblem(String problem) {
+        this.problem = problem;
+        return this;
+    }
+    
+    public ExperimentSpec setDimensions(int dimensions) {
+        this.dimensions = dimensions;
+        return this;
+    }
+    
+    public ExperimentSpec setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+        return this;
+    }
+    
+    /**
+     * Base seed; run r uses seed + r unless explicit seeds are given
+     */
+    public ExperimentSpec setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    
+    /**
+     * Explicit per-run seeds; overrides the base seed and the repetition count
+     */
+    public ExperimentSpec setSeeds(List<Long> seeds) {
+        this.seeds = new ArrayList<>(seeds);
+        return this;
+    }
+    
+    /**
+     * Stop a run once it has used this many function evaluations (0 = no limit)
+     */
+    public ExperimentSpec setMaxEvaluations(long maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+        return this;
+    }
+    
+    /**
+     * Stop a run once it has run for this many milliseconds (0 = no limit)
+     */
+    public ExperimentSpec setMaxMillis(long maxMillis) {
+        this.maxMillis = maxMillis;
+        return this;
+    }
+    
+    /**
+     * Stop a run once its best fitness is at or below target
+     */
+    public ExperimentSpec setTargetFitness(double targetFitness) {
+        this.targetFitness = targetFitness;
+        return this;
+    }
+    
+    /**
+     * Stop a run when its best fitness has not improved by more than
+     * tolerance for window iterations (window 0 = never)
+     */
+    public ExperimentSpec setStagnation(int window, double tolerance) {
+        this.stagnationWindow = window;
+        this.stagnationTolerance = tolerance;
+        return this;
+    }
+    
+    /**
+     * Stop a run once its population diversity falls below this (0 = never)
+     */
+    public ExperimentSpec setMinDiversity(double minDiversity) {
+        this.minDiversity = minDiversity;
+        return this;
+    }
+    
+    /**
+     * Memoize up to this many points per run so repeated positions are
+     * not re-evaluated (0 = no cache)
+     */
+    public ExperimentSpec setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+    
+    /**
+     * Checkpoint each run into this directory, and resume runs whose
+     * checkpoint is already there (null = no checkpoints)
+     */
+    public ExperimentSpec setCheckpointDir(String checkpointDir) {
+        this.checkpointDir = checkpointDir;
+        return this;
+    }
+    
+    /**
+     * Iterations between checkpoints
+     */
+    public ExperimentSpec setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+        return this;
+    }
+    
+    /**
+     * Random number generator algorithm every run draws from
+     */
+    public ExperimentSpec setRandomGenerator(Rng.Kind randomGenerator) {
+        this.randomGenerator = randomGenerator;
+        return this;
+    }
+    
+    /**
+     * Log a metrics snapshot of every running run to stderr at this
+     * interval in milliseconds (0 = no log)
+     */
+    public ExperimentSpec setMetricsInterval(long metricsInterval) {
+        this.metricsInterval = metricsInterval;
+        return this;
+    }
+    
+    /**
+     * Expose each run's metrics as an MBean while it runs
+     */
+    public ExperimentSpec setJmx(boolean jmx) {
+        this.jmx = jmx;
+        return this;
+    }
+    
+    /**
+     * Directory to write a convergence trace of each run to (null = none)
+     */
+    public ExperimentSpec setTraceDir(String traceDir) {
+        this.traceDir = traceDir;
+        return this;
+    }
+    
+    /**
+     * Iterations between population snapshots in traces (0 = none)
+     */
+    public ExperimentSpec setTraceSnapshots(int traceSnapshots) {
+        this.traceSnapshots = traceSnapshots;
+        return this;
+    }
+    
+    /**
+     * Number of runs executed concurrently
+     */
+    public ExperimentSpec setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+    
+    /**
+     * Whether results carry the best position as well as its fitness
+     */
+    public ExperimentSpec setIncludePositions(boolean includePositions) {
+        this.includePositions = includePositions;
+        return this;
+    }
+    
+    public String getAlgorithm() {
+        return algorithm;
+    }
+    
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+    
+    public String getProblem() {
+        return problem;
+    }
+    
+    public int getDimensions() {
+        return dimensions;
+    }
+    
+    public int getRepetitions() {
+        return seeds.isEmpty() ? repetitions : seeds.size();
+    }
+    
+    /**
+     * Seed of the given run
+     */
+    public long getSeed(int run) {
+        return seeds.isEmpty() ? seed + run : seeds.get(run);
+    }
+    
+    public long getMaxEvaluations() {
+        return maxEvaluations;
+    }
+    
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+    
+    public double getTargetFitness() {
+        return targetFitness;
+    }
+    
+    public int getStagnationWindow() {
+        return stagnationWindow;
+    }
+    
+    public double getStagnationTolerance() {
+        return stagnationTolerance;
+    }
+    
+    public double getMinDiversity() {
+        return minDiversity;
+    }
+    
+    public int getCacheSize() {
+        return cacheSize;
+    }
+    
+    public String getCheckpointDir() {
+        return checkpointDir;
+    }
+    
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+    
+    public Rng.Kind getRandomGenerator() {
+        return randomGenerator;
+    }
+    
+    public long getMetricsInterval() {
+        return metricsInterval;
+    }
+    
+    public boolean isJmx() {
+        return jmx;
+    }
+    
+    public String getTraceDir() {
+        return traceDir;
+    }
+    
+    public int getTraceSnapshots() {
+        return traceSnapshots;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public boolean isIncludePositions() {
+        return includePositions;
+    }
+    
+    /**
+     * Reject specs that cannot run
+     */
+    public void validate() {
+        if (algorithm == null || problem == null) {
+            throw new IllegalArgumentException("An experiment needs an algorithm and a problem");
+        }
+        if (dimensions < 1 || getRepetitions() < 1 || threads < 1) {
+            throw new IllegalArgumentException("dimensions, repetitions and threads must be positive");
+        }
+        if (maxEvaluations < 0 || maxMillis < 0) {
+            throw new IllegalArgumentException("Budgets must not be negative");
+        }
+        if (metricsInterval < 0) {
+            throw new IllegalArgumentException("The metrics interval must not be negative");
+        }
+        if (traceSnapshots < 0) {
+            throw new IllegalArgumentException("The trace snapshot interval must not be negative");
+        }
+        if (stagnationWindow < 0 || stagnationTolerance < 0 || minDiversity < 0 || cacheSize < 0) {
+            throw new IllegalArgumentException("Stagnation, diversity and cache limits must not be negative");
+        }
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("The checkpoint interval must be positive");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package runner;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * One JSON object per line per run
+ */
+public class JsonLinesResultWriter implements ResultWriter {
+    private final Writer out;
+    
+    public JsonLinesResultWriter(Writer out) {
+        this.out = out;
+    }
+    
+    @Override
+    public synchronized void write(RunResult result) throws IOException {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"run\":").append(result.run())
+          .append(",\"seed\":").append(result.seed())
+          .append(",\"algorithm\":").append(string(result.algorithm()))
+          .append(",\"problem\":").append(string(result.problem()))
+          .append(",\"dimensions\":").append(result.dimensions())
+          .append(",\"iterations\":").append(result.iterations())
+          .append(",\"evaluations\":").append(result.evaluations())
+          .append(",\"best_fitness\":").append(number(result.bestFitness()))
+          .append(",\"elapsed_ms\":").append(result.elapsedMillis())
+          .append(",\"stop_reason\":").append(string(result.stopReason()));
+        double[] position = result.bestPosition();
+        if (position != null) {
+            sb.append(",\"best_position\":[");
+            for (int i = 0; i < position.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(number(position[i]));
+            }
+            sb.append(']');
+        }
+        sb.append("}\n");
+        out.write(sb.toString());
+        out.flush();
+    }
+    
+    private static String number(double value) {
+        // JSON has no NaN or infinity
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+    
+    private static String string(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,28 @@
+package runner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams run results somewhere as they complete. Implementations must
+ * be safe to call from several runner threads at once.
+ */
+public interface ResultWriter extends Closeable {
+    void write(RunResult result) throws IOException;
+    
+    /**
+     * Writer for the given format name: "csv" or "jsonl"
+     */
+    static ResultWriter create(String format, Writer out) {
+        switch (format.toLowerCase()) {
+            case "csv":
+                return new CsvResultWriter(out);
+            case "jsonl":
+            case "json":
+                return new JsonLinesResultWriter(out);
+            default:
+                throw new IllegalArgumentException("Unknown result format: " + format);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package runner;
+
+/**
+ * Outcome of one run of an experiment
+ */
+public record RunResult(int run,
+                        long seed,
+                        String algorithm,
+                        String problem,
+                        int dimensions,
+                        int iterations,
+                        long evaluations,
+                        double bestFitness,
+                        double[] bestPosition,
+                        long elapsedMillis,
+                        String stopReason) {
+}
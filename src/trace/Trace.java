@@ -0,0 +1,218 @@
+package trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The best-so-far curve of one run, read back from a trace file.
+ * Snapshots are skipped; only their number is kept. A file without an
+ * END record (the run crashed or was cut short) reads as far as it was
+ * written, and isComplete() is false.
+ */
+public class Trace {
+    private final String algorithm;
+    private final String problem;
+    private final int dimensions;
+    private final String label;
+    private int size;
+    private long[] evaluations = new long[16];
+    private long[] nanos = new long[16];
+    private double[] fitness = new double[16];
+    private int snapshots;
+    private boolean complete;
+    private long totalEvaluations;
+    private long totalNanos;
+    private long droppedEvents;
+    
+    private Trace(String algorithm, String problem, int dimensions, String label) {
+        this.algorithm = algorithm;
+        this.problem = problem;
+        this.dimensions = dimensions;
+        this.label = label;
+    }
+    
+    public static Trace read(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(file, 1 << 16)))) {
+            if (in.readInt() != TraceFormat.MAGIC) {
+                throw new IOException(path + " is not a trace file");
+            }
+            int version = in.readUnsignedByte();
+            if (version != TraceFormat.VERSION) {
+                throw new IOException(path + " has unsupported trace version " + version);
+            }
+            Trace trace = new Trace(in.readUTF(), in.readUTF(), in.readInt(), in.readUTF());
+            trace.readRecords(in);
+            return trace;
+        }
+    }
+    
+    private void readRecords(DataInputStream in) throws IOException {
+        long lastEvaluations = 0;
+        long lastNanos = 0;
+        long lastBits = 0;
+        while (true) {
+            int type;
+            try {
+                type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                if (readRecord(type, in, lastEvaluations, lastNanos, lastBits)) {
+                    return;
+                }
+            } catch (EOFException e) {
+                // Cut off mid-record; keep the records before it
+                break;
+            }
+            if (type == TraceFormat.EVENTS && size > 0) {
+                lastEvaluations = evaluations[size - 1];
+                lastNanos = nanos[size - 1];
+                lastBits = Double.doubleToRawLongBits(fitness[size - 1]);
+            }
+        }
+        if (size > 0) {
+            totalEvaluations = evaluations[size - 1];
+            totalNanos = nanos[size - 1];
+        }
+    }
+    
+    /**
+     * Read one record; returns true for END
+     */
+    private boolean readRecord(int type, DataInputStream in, long lastEvaluations, long lastNanos,
+                               long lastBits) throws IOException {
+        switch (type) {
+            case TraceFormat.EVENTS: {
+                int count = (int) TraceFormat.readVarLong(in);
+                ensure(size + count);
+                for (int i = size; i < size + count; i++) {
+                    lastEvaluations += TraceFormat.readVarLong(in);
+                    evaluations[i] = lastEvaluations;
+                }
+                for (int i = size; i < size + count; i++) {
+                    lastNanos += TraceFormat.readVarLong(in);
+                    nanos[i] = lastNanos;
+                }
+                for (int i = size; i < size + count; i++) {
+                    lastBits ^= TraceFormat.readVarLong(in);
+                    fitness[i] = Double.longBitsToDouble(lastBits);
+                }
+                size += count;
+                return false;
+            }
+            case TraceFormat.SNAPSHOT: {
+                TraceFormat.readVarLong(in);
+                long points = TraceFormat.readVarLong(in);
+                long dims = TraceFormat.readVarLong(in);
+                in.skipNBytes(8 * (points + points * dims));
+                snapshots++;
+                return false;
+            }
+            case TraceFormat.END:
+                totalEvaluations = TraceFormat.readVarLong(in);
+                totalNanos = TraceFormat.readVarLong(in);
+                double best = in.readDouble();
+                droppedEvents = TraceFormat.readVarLong(in);
+                TraceFormat.readVarLong(in);
+                if (size == 0 || best < fitness[size - 1]) {
+                    // Dropped events can leave the last improvement out of the curve
+                    ensure(size + 1);
+                    evaluations[size] = totalEvaluations;
+                    nanos[size] = totalNanos;
+                    fitness[size] = best;
+                    size++;
+                }
+                complete = true;
+                return true;
+            default:
+                throw new IOException("Unknown trace record type " + type);
+        }
+    }
+    
+    private void ensure(int capacity) {
+        if (capacity > evaluations.length) {
+            int grown = Math.max(capacity, evaluations.length * 2);
+            evaluations = Arrays.copyOf(evaluations, grown);
+            nanos = Arrays.copyOf(nanos, grown);
+            fitness = Arrays.copyOf(fitness, grown);
+        }
+    }
+    
+    /**
+     * Evaluations used when the best first reached target or below, or -1
+     */
+    public long evaluationsToReach(double target) {
+        for (int i = 0; i < size; i++) {
+            if (fitness[i] <= target) {
+                return evaluations[i];
+            }
+        }
+        return -1;
+    }
+    
+    public String getAlgorithm() {
+        return algorithm;
+    }
+    
+    public String getProblem() {
+        return problem;
+    }
+    
+    public int getDimensions() {
+        return dimensions;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    /**
+     * Number of improvements recorded
+     */
+    public int size() {
+        return size;
+    }
+    
+    public long getEvaluations(int i) {
+        return evaluations[i];
+    }
+    
+    public long getNanos(int i) {
+        return nanos[i];
+    }
+    
+    public double getFitness(int i) {
+        return fitness[i];
+    }
+    
+    public int getSnapshots() {
+        return snapshots;
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    /**
+     * Evaluations used by the whole run
+     */
+    public long getTotalEvaluations() {
+        return totalEvaluations;
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+    
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+}
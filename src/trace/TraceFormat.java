@@ -0,0 +1,59 @@
+package trace;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Constants and varint coding shared by the trace writer and reader.
+ *
+ * <p>A trace file is a gzip stream. It starts with MAGIC, VERSION, the
+ * algorithm and problem names, the dimension and a free-form label. Then
+ * come records, each introduced by a type byte:
+ * <pre>
+ * EVENTS    count, then three columns of count varints each:
+ *           evaluation deltas, nanosecond deltas, and the raw bits of
+ *           each best fitness XORed with the previous one
+ * SNAPSHOT  evaluations, size, dimensions, size fitness doubles,
+ *           size * dimensions position doubles
+ * END       evaluations, nanoseconds, best fitness (double),
+ *           events dropped, snapshots dropped
+ * </pre>
+ * Deltas and XORs carry over from one EVENTS record to the next. Best
+ * fitness only improves, so successive values share their sign, exponent
+ * and leading mantissa bits, and the XORs encode in a few bytes.
+ */
+final class TraceFormat {
+    static final int MAGIC = 0x53575452;
+    static final int VERSION = 1;
+    
+    static final byte EVENTS = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte END = 3;
+    
+    private TraceFormat() {
+    }
+    
+    /**
+     * Unsigned LEB128: seven bits per byte, low bits first
+     */
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,247 @@
+package trace;
+
+import core.Algorithm;
+import core.CountingProblem;
+import core.Population;
+import core.RunObserver;
+import core.Solution;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Records the best-so-far curve of one run, and optionally population
+ * snapshots, for a TraceWriter to store. Created by TraceWriter.open()
+ * and added to the run's RunController.
+ *
+ * <p>An event (evaluations, nanoseconds since start, best fitness) is
+ * recorded after initialization and after every step that improves the
+ * best. Events go into a preallocated single-producer single-consumer
+ * ring. The run's thread only writes a slot and publishes the new head.
+ * It never locks, allocates or waits on I/O. If the writer falls behind
+ * and the ring fills up, events are dropped and counted. The run's final
+ * state is always stored in the END record, so the curve still ends in
+ * the right place. Snapshots use a ring of two preallocated buffers and
+ * are also dropped while both are waiting.
+ */
+public class TraceRecorder implements RunObserver {
+    private final Algorithm algorithm;
+    private final CountingProblem problem;
+    private final int snapshotInterval;
+    
+    // Event ring: slots [tail, head) are waiting for the writer
+    private final int mask;
+    private final long[] evaluations;
+    private final long[] nanos;
+    private final double[] fitness;
+    private volatile long head;
+    private volatile long tail;
+    
+    // Snapshot ring of two
+    private final Snapshot[] snapshots = {new Snapshot(), new Snapshot()};
+    private volatile long snapshotHead;
+    private volatile long snapshotTail;
+    
+    // Run thread only, published to the writer by done
+    private long start;
+    private double best;
+    private long steps;
+    private long droppedEvents;
+    private long droppedSnapshots;
+    private long finalEvaluations;
+    private long finalNanos;
+    private volatile boolean done;
+    
+    // Writer thread only
+    private final DataOutputStream out;
+    private long lastEvaluations;
+    private long lastNanos;
+    private long lastBits;
+    
+    TraceRecorder(Algorithm algorithm, CountingProblem problem, int capacity, int snapshotInterval,
+                  DataOutputStream out) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.algorithm = algorithm;
+        this.problem = problem;
+        this.snapshotInterval = snapshotInterval;
+        this.mask = capacity - 1;
+        this.evaluations = new long[capacity];
+        this.nanos = new long[capacity];
+        this.fitness = new double[capacity];
+        this.out = out;
+    }
+    
+    @Override
+    public void started() {
+        start = System.nanoTime();
+        best = Double.POSITIVE_INFINITY;
+    }
+    
+    @Override
+    public void initialized(long nanos) {
+        observe();
+    }
+    
+    @Override
+    public void stepped(long nanos) {
+        observe();
+        steps++;
+        if (snapshotInterval > 0 && steps % snapshotInterval == 0) {
+            snapshot();
+        }
+    }
+    
+    @Override
+    public void finished() {
+        observe();
+        finalEvaluations = problem.getEvaluations();
+        finalNanos = System.nanoTime() - start;
+        done = true;
+    }
+    
+    private void observe() {
+        Solution current = algorithm.getBestSolution();
+        if (current == null || !(current.getFitness() < best)) {
+            return;
+        }
+        best = current.getFitness();
+        long h = head;
+        if (h - tail > mask) {
+            droppedEvents++;
+            return;
+        }
+        int slot = (int) (h & mask);
+        evaluations[slot] = problem.getEvaluations();
+        nanos[slot] = System.nanoTime() - start;
+        fitness[slot] = best;
+        head = h + 1;
+    }
+    
+    private void snapshot() {
+        long h = snapshotHead;
+        if (h - snapshotTail >= snapshots.length) {
+            droppedSnapshots++;
+            return;
+        }
+        Snapshot snapshot = snapshots[(int) (h & 1)];
+        snapshot.evaluations = problem.getEvaluations();
+        Population population = algorithm.getCurrentPopulation();
+        if (population != null) {
+            snapshot.fill(population);
+        } else {
+            snapshot.fill(algorithm.getCurrentSolutions());
+        }
+        snapshotHead = h + 1;
+    }
+    
+    /**
+     * Write whatever is waiting; called by the writer thread only.
+     * Returns true once the run has ended and its END record is written.
+     */
+    boolean drain() throws IOException {
+        // Read done before head, so that every event published before done is seen
+        boolean ended = done;
+        long t = tail;
+        long h = head;
+        if (h > t) {
+            int count = (int) (h - t);
+            out.writeByte(TraceFormat.EVENTS);
+            TraceFormat.writeVarLong(out, count);
+            for (long i = t; i < h; i++) {
+                long value = evaluations[(int) (i & mask)];
+                TraceFormat.writeVarLong(out, value - lastEvaluations);
+                lastEvaluations = value;
+            }
+            for (long i = t; i < h; i++) {
+                long value = nanos[(int) (i & mask)];
+                TraceFormat.writeVarLong(out, value - lastNanos);
+                lastNanos = value;
+            }
+            for (long i = t; i < h; i++) {
+                long bits = Double.doubleToRawLongBits(fitness[(int) (i & mask)]);
+                TraceFormat.writeVarLong(out, bits ^ lastBits);
+                lastBits = bits;
+            }
+            tail = h;
+        }
+        
+        long st = snapshotTail;
+        while (st < snapshotHead) {
+            snapshots[(int) (st & 1)].write(out);
+            st++;
+            snapshotTail = st;
+        }
+        
+        if (ended) {
+            out.writeByte(TraceFormat.END);
+            TraceFormat.writeVarLong(out, finalEvaluations);
+            TraceFormat.writeVarLong(out, finalNanos);
+            out.writeDouble(best);
+            TraceFormat.writeVarLong(out, droppedEvents);
+            TraceFormat.writeVarLong(out, droppedSnapshots);
+            out.close();
+        }
+        return ended;
+    }
+    
+    /**
+     * Close the file of a run that never finished; it has no END record
+     */
+    void abandon() throws IOException {
+        out.close();
+    }
+    
+    /**
+     * One population copy; the arrays are reused and only grow
+     */
+    private static final class Snapshot {
+        long evaluations;
+        int size;
+        int dimensions;
+        double[] fitness = new double[0];
+        double[] positions = new double[0];
+        
+        void fill(Population population) {
+            size = population.size();
+            dimensions = population.getDimensions();
+            ensure();
+            System.arraycopy(population.fitness(), 0, fitness, 0, size);
+            System.arraycopy(population.positions(), 0, positions, 0, size * dimensions);
+        }
+        
+        void fill(List<Solution> solutions) {
+            size = solutions.size();
+            dimensions = size == 0 ? 0 : solutions.get(0).getDimensions();
+            ensure();
+            for (int i = 0; i < size; i++) {
+                Solution solution = solutions.get(i);
+                fitness[i] = solution.getFitness();
+                System.arraycopy(solution.getPosition(), 0, positions, i * dimensions, dimensions);
+            }
+        }
+        
+        private void ensure() {
+            if (fitness.length < size) {
+                fitness = new double[size];
+            }
+            if (positions.length < size * dimensions) {
+                positions = new double[size * dimensions];
+            }
+        }
+        
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(TraceFormat.SNAPSHOT);
+            TraceFormat.writeVarLong(out, evaluations);
+            TraceFormat.writeVarLong(out, size);
+            TraceFormat.writeVarLong(out, dimensions);
+            for (int i = 0; i < size; i++) {
+                out.writeDouble(fitness[i]);
+            }
+            for (int i = 0; i < size * dimensions; i++) {
+                out.writeDouble(positions[i]);
+            }
+        }
+    }
+}
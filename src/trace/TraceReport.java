@@ -0,0 +1,165 @@
+package trace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Summarizes a set of traces, one per run, as CSV on stdout.
+ *
+ * <p>Command line:
+ * <pre>
+ * java trace.TraceReport ert --targets 1e2,1,1e-2,1e-8 traces/*.trace
+ * java trace.TraceReport ecdf --targets 1e2,1,1e-2,1e-8 --points 40 traces/*.trace
+ * </pre>
+ * ert prints, per target, the expected running time: the evaluations
+ * spent by all runs (up to the hit for successful runs, all of them for
+ * the others) divided by the number of successful runs. ecdf prints, for
+ * log-spaced evaluation budgets, the fraction of (run, target) pairs
+ * reached within that budget, as in COCO's runtime distributions.
+ */
+public class TraceReport {
+    private final List<Trace> traces;
+    private final double[] targets;
+    
+    public TraceReport(List<Trace> traces, double[] targets) {
+        if (traces.isEmpty() || targets.length == 0) {
+            throw new IllegalArgumentException("A report needs at least one trace and one target");
+        }
+        this.traces = traces;
+        this.targets = targets;
+    }
+    
+    /**
+     * Expected running time to reach target; infinite if no run reached it
+     */
+    public double expectedRunningTime(double target) {
+        long spent = 0;
+        int hits = 0;
+        for (Trace trace : traces) {
+            long hit = trace.evaluationsToReach(target);
+            if (hit >= 0) {
+                spent += hit;
+                hits++;
+            } else {
+                spent += trace.getTotalEvaluations();
+            }
+        }
+        return hits == 0 ? Double.POSITIVE_INFINITY : (double) spent / hits;
+    }
+    
+    public void writeErt(PrintStream out) {
+        out.println("target,ert,successes,runs");
+        for (double target : targets) {
+            int hits = 0;
+            for (Trace trace : traces) {
+                if (trace.evaluationsToReach(target) >= 0) {
+                    hits++;
+                }
+            }
+            out.println(String.format(Locale.ROOT, "%s,%s,%d,%d", target, expectedRunningTime(target),
+                                      hits, traces.size()));
+        }
+    }
+    
+    /**
+     * One row per budget, from 1 evaluation to the longest run
+     */
+    public void writeEcdf(PrintStream out, int points) {
+        long[] hits = new long[traces.size() * targets.length];
+        long longest = 1;
+        int n = 0;
+        for (Trace trace : traces) {
+            longest = Math.max(longest, trace.getTotalEvaluations());
+            for (double target : targets) {
+                hits[n++] = trace.evaluationsToReach(target);
+            }
+        }
+        
+        out.println("evaluations,fraction");
+        double scale = Math.log(longest) / Math.max(1, points - 1);
+        long previous = 0;
+        for (int i = 0; i < points; i++) {
+            long budget = i == points - 1 ? longest : Math.round(Math.exp(i * scale));
+            if (budget <= previous) {
+                continue;
+            }
+            previous = budget;
+            int reached = 0;
+            for (long hit : hits) {
+                if (hit >= 0 && hit <= budget) {
+                    reached++;
+                }
+            }
+            out.println(String.format(Locale.ROOT, "%d,%.6f", budget, (double) reached / hits.length));
+        }
+    }
+    
+    public static void main(String[] args) {
+        try {
+            if (args.length < 1 || args[0].equals("--help") || args[0].equals("-h")) {
+                printUsage();
+                return;
+            }
+            String mode = args[0];
+            if (!mode.equals("ert") && !mode.equals("ecdf")) {
+                throw new IllegalArgumentException("Unknown report: " + mode);
+            }
+            double[] targets = null;
+            int points = 50;
+            List<Trace> traces = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--targets") && i + 1 < args.length) {
+                    String[] parts = args[++i].split(",");
+                    targets = new double[parts.length];
+                    for (int t = 0; t < parts.length; t++) {
+                        targets[t] = Double.parseDouble(parts[t].trim());
+                    }
+                } else if (arg.equals("--points") && i + 1 < args.length) {
+                    points = Integer.parseInt(args[++i]);
+                    if (points < 2) {
+                        throw new IllegalArgumentException("--points must be at least 2");
+                    }
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                } else {
+                    Trace trace = Trace.read(Paths.get(arg));
+                    if (!trace.isComplete()) {
+                        System.err.println("warning: " + arg + " is truncated; using what was written");
+                    }
+                    traces.add(trace);
+                }
+            }
+            if (targets == null) {
+                throw new IllegalArgumentException("--targets is required");
+            }
+            
+            TraceReport report = new TraceReport(traces, targets);
+            if (mode.equals("ert")) {
+                report.writeErt(System.out);
+            } else {
+                report.writeEcdf(System.out, points);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            printUsage();
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    private static void printUsage() {
+        System.err.println(
+            "usage: TraceReport ert|ecdf --targets F1,F2,... [--points N] TRACE...\n" +
+            "  ert                  expected evaluations to reach each target\n" +
+            "  ecdf                 fraction of (run, target) pairs reached per budget\n" +
+            "  --targets F1,F2,...  fitness targets\n" +
+            "  --points N           budgets in the ecdf, log-spaced (default 50)");
+    }
+}
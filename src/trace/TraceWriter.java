@@ -0,0 +1,144 @@
+package trace;
+
+import core.Algorithm;
+import core.CountingProblem;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores the traces of any number of concurrent runs from one daemon
+ * thread. The thread cycles over the open TraceRecorders, drains their
+ * rings into their files and closes each file once its run has ended.
+ * Runs never share a lock or a buffer with each other or with the
+ * writer, so tracing thousands of runs costs each step loop only a
+ * comparison and, on improvement, a few stores. The thread starts with
+ * the first open().
+ */
+public class TraceWriter implements AutoCloseable {
+    /** Default number of events a recorder buffers before dropping */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** How long the writer sleeps when there is nothing to drain */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    
+    private final int capacity;
+    private final int snapshotInterval;
+    private final ConcurrentLinkedQueue<TraceRecorder> opened = new ConcurrentLinkedQueue<>();
+    private final List<TraceRecorder> active = new ArrayList<>();
+    private Thread thread;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    
+    /**
+     * @param snapshotInterval steps between population snapshots, 0 for none
+     */
+    public TraceWriter(int capacity, int snapshotInterval) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        if (snapshotInterval < 0) {
+            throw new IllegalArgumentException("snapshotInterval must not be negative");
+        }
+        this.capacity = capacity;
+        this.snapshotInterval = snapshotInterval;
+    }
+    
+    public TraceWriter(int snapshotInterval) {
+        this(DEFAULT_CAPACITY, snapshotInterval);
+    }
+    
+    /**
+     * Create the trace file and a recorder feeding it; add the recorder
+     * to the run's RunController before running it
+     *
+     * @param label free-form description of the run, e.g. its seed
+     */
+    public TraceRecorder open(Path path, Algorithm algorithm, CountingProblem problem, String label)
+            throws IOException {
+        if (closed) {
+            throw new IllegalStateException("TraceWriter is closed");
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new GZIPOutputStream(Files.newOutputStream(path), 1 << 16), 1 << 16));
+        out.writeInt(TraceFormat.MAGIC);
+        out.writeByte(TraceFormat.VERSION);
+        out.writeUTF(algorithm.getName());
+        out.writeUTF(problem.getName());
+        out.writeInt(problem.getDimensions());
+        out.writeUTF(label);
+        TraceRecorder recorder = new TraceRecorder(algorithm, problem, capacity, snapshotInterval, out);
+        opened.add(recorder);
+        startThread();
+        return recorder;
+    }
+    
+    private synchronized void startThread() {
+        if (thread == null) {
+            thread = new Thread(this::drainLoop, "trace-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    private void drainLoop() {
+        try {
+            while (true) {
+                boolean stopping = closed;
+                TraceRecorder recorder;
+                while ((recorder = opened.poll()) != null) {
+                    active.add(recorder);
+                }
+                for (Iterator<TraceRecorder> it = active.iterator(); it.hasNext(); ) {
+                    if (it.next().drain()) {
+                        it.remove();
+                    }
+                }
+                if (stopping && opened.isEmpty()) {
+                    // Runs that never finished keep what was drained, without an END record
+                    for (TraceRecorder unfinished : active) {
+                        unfinished.abandon();
+                    }
+                    active.clear();
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+    
+    /**
+     * Write everything recorded so far and close every file. Call after
+     * the traced runs have finished, or their traces end without END.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread;
+        synchronized (this) {
+            thread = this.thread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Could not write trace", failure);
+        }
+    }
+}
@@ -2,22 +2,30 @@ package visualization;
 
 import core.Algorithm;
 import core.Problem;
-import algorithms.*;
-import problems.*;
+import algorithms.AlgorithmFactory;
+import problems.ProblemFactory;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.*;
+import java.util.Collections;
 
 public class ControlPanel extends JPanel {
     private JComboBox<String> algorithmCombo;
     private JComboBox<String> problemCombo;
+    private JComboBox<String> dimensionsCombo;
+    private JComboBox<String> viewCombo;
+    private JSpinner sliceXSpinner;
+    private JSpinner sliceYSpinner;
     private JButton startButton;
     private JButton pauseButton;
     private JButton resetButton;
     private JButton stepButton;
     private JSlider speedSlider;
     private JCheckBox heatmapCheckbox;
+    private JCheckBox trailsCheckbox;
     private JLabel speedLabel;
+    private int sliceX = 1;
+    private int sliceY = 2;
+    private boolean resettingSlice;
     
     private Algorithm currentAlgorithm;
     private Problem currentProblem;
@@ -32,6 +40,8 @@ public class ControlPanel extends JPanel {
         void onProblemChanged(Problem problem);
         void onSpeedChanged(int speed);
         void onHeatmapToggled(boolean show);
+        void onTrailsToggled(boolean show);
+        void onViewChanged(boolean principal, int xAxis, int yAxis);
     }
     
     public ControlPanel() {
@@ -62,7 +72,8 @@ public class ControlPanel extends JPanel {
             "Particle Swarm Optimization",
             "Genetic Algorithm",
             "Differential Evolution",
-            "Ant Colony Optimization"
+            "Ant Colony Optimization",
+            "CMA-ES"
         };
         algorithmCombo = createComboBox(algorithms);
         algorithmCombo.addActionListener(e -> updateAlgorithm());
@@ -79,11 +90,44 @@ public class ControlPanel extends JPanel {
             "Griewank",
             "Michalewicz",
             "Levy",
-            "Deceptive Trap"
+            "Deceptive Trap",
+            "Shifted Rotated Rastrigin",
+            "Shifted Rotated Ackley"
         };
         problemCombo = createComboBox(problems);
         problemCombo.addActionListener(e -> updateProblem());
         add(problemCombo);
+        add(Box.createRigidArea(new Dimension(0, 15)));
+        
+        // Dimension selection
+        add(createLabel("Dimensions:"));
+        String[] dimensions = {"2", "5", "10", "30", "50", "100"};
+        dimensionsCombo = createComboBox(dimensions);
+        dimensionsCombo.addActionListener(e -> updateProblem());
+        add(dimensionsCombo);
+        add(Box.createRigidArea(new Dimension(0, 15)));
+        
+        // View selection: which plane through the domain is drawn
+        add(createLabel("View:"));
+        String[] views = {"Slice through best", "Principal components"};
+        viewCombo = createComboBox(views);
+        viewCombo.addActionListener(e -> updateView());
+        add(viewCombo);
+        add(Box.createRigidArea(new Dimension(0, 5)));
+        
+        JPanel slicePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        slicePanel.setMaximumSize(new Dimension(230, 30));
+        slicePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        slicePanel.setOpaque(false);
+        sliceXSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 2, 1));
+        sliceYSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 2, 1));
+        sliceXSpinner.addChangeListener(e -> updateSliceAxes());
+        sliceYSpinner.addChangeListener(e -> updateSliceAxes());
+        slicePanel.add(createLabel("Axes: x"));
+        slicePanel.add(sliceXSpinner);
+        slicePanel.add(createLabel("x"));
+        slicePanel.add(sliceYSpinner);
+        add(slicePanel);
         add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Control buttons
@@ -127,7 +171,9 @@ public class ControlPanel extends JPanel {
         speedSlider.setForeground(Color.WHITE);
         speedSlider.addChangeListener(e -> {
             if (listener != null) listener.onSpeedChanged(speedSlider.getValue());
-            speedLabel.setText("Delay: " + (101 - speedSlider.getValue()) + " ms");
+            speedLabel.setText(speedSlider.getValue() >= 100
+                               ? "Delay: none (full speed)"
+                               : "Delay: " + (101 - speedSlider.getValue()) + " ms");
         });
         add(speedSlider);
         
@@ -146,6 +192,14 @@ public class ControlPanel extends JPanel {
         });
         add(heatmapCheckbox);
         
+        trailsCheckbox = new JCheckBox("Show Trails");
+        trailsCheckbox.setForeground(Color.WHITE);
+        trailsCheckbox.setOpaque(false);
+        trailsCheckbox.addActionListener(e -> {
+            if (listener != null) listener.onTrailsToggled(trailsCheckbox.isSelected());
+        });
+        add(trailsCheckbox);
+        
         add(Box.createVerticalGlue());
         
         // Info
@@ -154,7 +208,9 @@ public class ControlPanel extends JPanel {
                         "• Select algorithm and problem\n" +
                         "• Click Start to run\n" +
                         "• Use Step for manual control\n" +
-                        "• Adjust speed with slider\n\n" +
+                        "• Adjust speed with slider\n" +
+                        "• Scroll to zoom, drag to pan,\n" +
+                        "  double-click to zoom out\n\n" +
                         "Yellow dot = Best solution\n" +
                         "Cyan dots = Current population");
         infoArea.setEditable(false);
@@ -192,33 +248,7 @@ public class ControlPanel extends JPanel {
     
     private void updateAlgorithm() {
         String selected = (String) algorithmCombo.getSelectedItem();
-        
-        switch (selected) {
-            case "Random Search":
-                currentAlgorithm = new RandomSearch(1000, 30);
-                break;
-            case "Hill Climber":
-                currentAlgorithm = new HillClimber(1000, 1.0);
-                break;
-            case "Simulated Annealing":
-                currentAlgorithm = new SimulatedAnnealing(1000, 100.0, 0.99, 1.0);
-                break;
-            case "Stochastic Local Search":
-                currentAlgorithm = new StochasticLocalSearch(1000, 10, 1.0);
-                break;
-            case "Particle Swarm Optimization":
-                currentAlgorithm = new ParticleSwarmOptimization(1000, 30);
-                break;
-            case "Genetic Algorithm":
-                currentAlgorithm = new GeneticAlgorithm(1000, 40);
-                break;
-            case "Differential Evolution":
-                currentAlgorithm = new DifferentialEvolution(1000, 40);
-                break;
-            case "Ant Colony Optimization":
-                currentAlgorithm = new AntColonyOptimization(1000, 30);
-                break;
-        }
+        currentAlgorithm = AlgorithmFactory.create(selected, Collections.emptyMap());
         
         if (listener != null) {
             listener.onAlgorithmChanged(currentAlgorithm);
@@ -227,36 +257,54 @@ public class ControlPanel extends JPanel {
     
     private void updateProblem() {
         String selected = (String) problemCombo.getSelectedItem();
+        int dimensions = Integer.parseInt((String) dimensionsCombo.getSelectedItem());
+        currentProblem = ProblemFactory.create(selected, dimensions);
         
-        switch (selected) {
-            case "Sphere":
-                currentProblem = new Sphere(2);
-                break;
-            case "Rastrigin":
-                currentProblem = new Rastrigin(2);
-                break;
-            case "Ackley":
-                currentProblem = new Ackley(2);
-                break;
-            case "Schwefel":
-                currentProblem = new Schwefel(2);
-                break;
-            case "Griewank":
-                currentProblem = new Griewank(2);
-                break;
-            case "Michalewicz":
-                currentProblem = new Michalewicz(2);
-                break;
-            case "Levy":
-                currentProblem = new Levy(2);
-                break;
-            case "Deceptive Trap":
-                currentProblem = new DeceptiveTrap(2);
-                break;
-        }
+        // Start over from the slice along the first two coordinates
+        resettingSlice = true;
+        sliceX = 1;
+        sliceY = 2;
+        sliceXSpinner.setValue(sliceX);
+        sliceYSpinner.setValue(sliceY);
+        ((SpinnerNumberModel) sliceXSpinner.getModel()).setMaximum(dimensions);
+        ((SpinnerNumberModel) sliceYSpinner.getModel()).setMaximum(dimensions);
+        resettingSlice = false;
         
         if (listener != null) {
             listener.onProblemChanged(currentProblem);
+            updateView();
+        }
+    }
+    
+    /**
+     * Keep the two slice axes apart: choosing the other spinner's axis swaps them
+     */
+    private void updateSliceAxes() {
+        if (resettingSlice) {
+            return;
+        }
+        int x = (Integer) sliceXSpinner.getValue();
+        int y = (Integer) sliceYSpinner.getValue();
+        if (x == y) {
+            // The swap fires this again with distinct axes
+            if (x != sliceX) {
+                sliceYSpinner.setValue(sliceX);
+            } else {
+                sliceXSpinner.setValue(sliceY);
+            }
+            return;
+        }
+        sliceX = x;
+        sliceY = y;
+        updateView();
+    }
+    
+    private void updateView() {
+        boolean principal = viewCombo.getSelectedIndex() == 1;
+        sliceXSpinner.setEnabled(!principal);
+        sliceYSpinner.setEnabled(!principal);
+        if (listener != null) {
+            listener.onViewChanged(principal, sliceX - 1, sliceY - 1);
         }
     }
     
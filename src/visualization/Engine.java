@@ -0,0 +1,261 @@
+package visualization;
+
+import core.Algorithm;
+import core.Population;
+import core.Problem;
+import core.Solution;
+import metrics.RunMetrics;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs the GUI's algorithm on a thread of its own, so that a slow step
+ * never blocks the Event Dispatch Thread and painting never slows the
+ * run. The EDT only posts commands (load, start, pause, step, delay).
+ * The engine thread is the only one that touches the algorithm.
+ *
+ * <p>Results go back through a single-slot exchange. After a step, the
+ * engine copies the algorithm's state into an immutable Snapshot and
+ * swaps it into an AtomicReference, replacing any the panel has not
+ * drawn yet. It does this at most once per FRAME_NANOS while running
+ * (and after every manual step), so an unthrottled run spends almost
+ * all its time stepping, however small the steps.
+ */
+final class Engine implements Runnable {
+    /** Minimum interval between snapshots while running, about 60 per second */
+    static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    
+    /**
+     * Told on the EDT when the engine stops on its own
+     */
+    interface Listener {
+        /**
+         * @param failure what a step threw, or null if the algorithm finished
+         */
+        void stopped(Throwable failure);
+    }
+    
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final Listener listener;
+    private final Thread thread;
+    
+    // Engine thread only
+    private Algorithm algorithm;
+    private Problem problem;
+    private RunMetrics metrics;
+    private boolean running;
+    private long delayNanos;
+    private long lastPublished;
+    private int lastIteration;
+    
+    Engine(Listener listener) {
+        this.listener = listener;
+        this.thread = new Thread(this, "engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Latest published state, or null before anything was loaded
+     */
+    Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+    
+    /**
+     * Stop, close the previous algorithm if it holds resources, and
+     * initialize algorithm on problem; either may be null
+     */
+    void load(Algorithm algorithm, Problem problem) {
+        post(() -> {
+            running = false;
+            if (this.algorithm != algorithm) {
+                close(this.algorithm);
+            }
+            this.algorithm = algorithm;
+            this.problem = problem;
+            if (algorithm == null || problem == null) {
+                snapshot.set(null);
+                return;
+            }
+            initialize();
+            publish(System.nanoTime());
+        });
+    }
+    
+    void start() {
+        post(() -> {
+            if (algorithm != null && problem != null) {
+                running = true;
+                lastPublished = System.nanoTime();
+                lastIteration = algorithm.getIteration();
+            }
+        });
+    }
+    
+    void pause() {
+        post(() -> {
+            running = false;
+            publish(System.nanoTime());
+        });
+    }
+    
+    /**
+     * Pause, then take one step
+     */
+    void step() {
+        post(() -> {
+            running = false;
+            if (algorithm != null && problem != null) {
+                lastPublished = System.nanoTime();
+                lastIteration = algorithm.getIteration();
+                if (!stepAlgorithm()) {
+                    return;
+                }
+                publish(System.nanoTime());
+            }
+        });
+    }
+    
+    /**
+     * Pause between steps while running; 0 steps as fast as possible
+     */
+    void setDelay(long nanos) {
+        post(() -> delayNanos = nanos);
+    }
+    
+    private void post(Runnable command) {
+        commands.add(command);
+        LockSupport.unpark(thread);
+    }
+    
+    @Override
+    public void run() {
+        while (true) {
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    stop(e);
+                }
+            }
+            if (!running) {
+                LockSupport.park(this);
+                continue;
+            }
+            
+            if (!stepAlgorithm()) {
+                continue;
+            }
+            long now = System.nanoTime();
+            if (now - lastPublished >= FRAME_NANOS) {
+                publish(now);
+            }
+            if (delayNanos > 0) {
+                // A command cuts the pause short
+                LockSupport.parkNanos(this, delayNanos);
+            }
+        }
+    }
+    
+    /**
+     * Initialize the algorithm on a timed view of the problem, with fresh
+     * metrics exposed over JMX as swarmop:type=Run,name="gui"
+     */
+    private void initialize() {
+        if (metrics != null) {
+            metrics.unregister();
+        }
+        metrics = new RunMetrics("gui", algorithm);
+        metrics.register();
+        metrics.started();
+        long start = System.nanoTime();
+        try {
+            algorithm.initialize(metrics.instrument(problem));
+        } catch (RuntimeException e) {
+            stop(e);
+            return;
+        }
+        metrics.initialized(System.nanoTime() - start);
+        lastIteration = algorithm.getIteration();
+    }
+    
+    /**
+     * One step; stops the engine and returns false once the algorithm
+     * is done or has failed
+     */
+    private boolean stepAlgorithm() {
+        long start = System.nanoTime();
+        boolean continuing;
+        try {
+            continuing = algorithm.step();
+        } catch (RuntimeException e) {
+            stop(e);
+            return false;
+        }
+        metrics.stepped(System.nanoTime() - start);
+        if (!continuing) {
+            metrics.finished();
+            stop(null);
+        }
+        return continuing;
+    }
+    
+    private void stop(Throwable failure) {
+        running = false;
+        publish(System.nanoTime());
+        SwingUtilities.invokeLater(() -> listener.stopped(failure));
+    }
+    
+    /**
+     * Copy the algorithm's state into a new Snapshot and swap it in
+     */
+    private void publish(long now) {
+        if (algorithm == null || problem == null) {
+            return;
+        }
+        double[] positions;
+        int count;
+        int dimensions = problem.getDimensions();
+        Population population = algorithm.getCurrentPopulation();
+        if (population != null) {
+            count = population.size();
+            dimensions = population.getDimensions();
+            positions = new double[count * dimensions];
+            System.arraycopy(population.positions(), 0, positions, 0, positions.length);
+        } else {
+            List<Solution> solutions = algorithm.getCurrentSolutions();
+            count = solutions == null ? 0 : solutions.size();
+            positions = new double[count * dimensions];
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(solutions.get(i).getPosition(), 0, positions, i * dimensions, dimensions);
+            }
+        }
+        
+        Solution best = algorithm.getBestSolution();
+        int iteration = algorithm.getIteration();
+        double rate = now > lastPublished ? (iteration - lastIteration) * 1e9 / (now - lastPublished) : 0.0;
+        snapshot.set(new Snapshot(algorithm.getName(), problem.getName(), iteration,
+                                  best == null ? Double.NaN : best.getFitness(),
+                                  best == null ? null : best.getPosition().clone(),
+                                  positions, count, dimensions, running ? rate : 0.0, running));
+        lastPublished = now;
+        lastIteration = iteration;
+    }
+    
+    private static void close(Algorithm algorithm) {
+        if (algorithm instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) algorithm).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not shut down " + algorithm.getName(), e);
+            }
+        }
+    }
+}
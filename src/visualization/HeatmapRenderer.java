@@ -0,0 +1,342 @@
+package visualization;
+
+import core.Problem;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draws a problem's fitness landscape on a Plane through its domain, for
+ * any view of the plane, from a pyramid of tiles. Level L splits the
+ * plane's [low, high] square into 2^L x 2^L tiles of TILE x TILE
+ * evaluated points. A view is drawn from the level whose
+ * tiles are at least as fine as the screen, so zooming in keeps showing
+ * one evaluation per pixel or better.
+ *
+ * <p>Tiles are computed on demand by a background pool, each as one
+ * batch per row through the problem's batch entry point. They are kept
+ * in a bounded LRU cache keyed by (level, x, y), so panning over tiles
+ * already seen is instant. The bound grows with the number of tiles in
+ * view, so the tiles a draw shows and the ones it requests always fit
+ * together; a tile arriving never evicts one the same view still needs. Until a tile arrives, its area is drawn
+ * from the nearest cached ancestor, so the picture is coarse at first
+ * and sharpens in place. Requests for tiles that scrolled out of view
+ * before a worker got to them are dropped.
+ *
+ * <p>Moving the plane (a slice following the best solution, say) does
+ * not clear the cache: tiles of earlier planes stay on screen while the
+ * tiles in view are recomputed, and each replaces its predecessor when
+ * it arrives. Only a new problem, or new plane bounds, start from
+ * nothing.
+ *
+ * <p>Tiles keep their raw fitness values. Colors are normalized to the
+ * range of the tiles in view, and a tile is recolored (on the EDT, when
+ * drawn) only when that range changes. draw() and setPlane() must be
+ * called on the EDT.
+ */
+final class HeatmapRenderer {
+    /** Edge of a tile in evaluated points */
+    static final int TILE = 256;
+    /** Deepest level; tiles there span 2^-MAX_LEVEL of the domain */
+    static final int MAX_LEVEL = 30;
+    /** Fewest tiles kept, however small the view; each takes about 0.5 MB */
+    private static final int CACHE_TILES = 128;
+    
+    private record Key(int level, int x, int y) {
+    }
+    
+    /**
+     * What tiles are computed from; version counts the planes set so far
+     */
+    private record Source(Problem problem, Plane plane, int version) {
+    }
+    
+    /**
+     * Fitness values of one tile, row 0 at the top, and their coloring
+     */
+    private static final class Tile {
+        final float[] values;
+        final double min;
+        final double max;
+        final int version;
+        // EDT only
+        BufferedImage image;
+        double coloredLow = Double.NaN;
+        double coloredHigh = Double.NaN;
+        
+        Tile(float[] values, double min, double max, int version) {
+            this.values = values;
+            this.min = min;
+            this.max = max;
+            this.version = version;
+        }
+    }
+    
+    private final Runnable onUpdate;
+    private final ExecutorService pool;
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Set<Key> pending = ConcurrentHashMap.newKeySet();
+    private final Map<Key, Tile> cache = new LinkedHashMap<>(CACHE_TILES * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Tile> eldest) {
+            return size() > capacity;
+        }
+    };
+    // Guarded by cache
+    private int capacity = CACHE_TILES;
+    private volatile Set<Key> wanted = Set.of();
+    private volatile Source source;
+    
+    /**
+     * @param onUpdate called from a worker thread whenever a tile is ready
+     */
+    HeatmapRenderer(Runnable onUpdate) {
+        this.onUpdate = onUpdate;
+        this.pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "heatmap");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Draw problem on plane from now on. Tiles of another problem or of
+     * a plane with other bounds are forgotten.
+     */
+    void setPlane(Problem problem, Plane plane) {
+        Source previous = source;
+        if (previous != null && previous.problem() == problem && previous.plane() == plane) {
+            return;
+        }
+        source = new Source(problem, plane, previous == null ? 0 : previous.version() + 1);
+        if (previous == null || previous.problem() != problem
+                || previous.plane().low() != plane.low() || previous.plane().high() != plane.high()) {
+            // After the new source, so that a worker that sees this generation sees that source
+            generation.incrementAndGet();
+            synchronized (cache) {
+                cache.clear();
+            }
+            wanted = Set.of();
+        }
+    }
+    
+    /**
+     * Draw the view [x0, x1] x [y0, y1] of the plane into the
+     * width x height pixels at the origin of g, and request the tiles
+     * that are still missing
+     */
+    void draw(Graphics2D g, double x0, double x1, double y0, double y1, int width, int height) {
+        Source current = source;
+        if (current == null || width < 1 || height < 1) {
+            return;
+        }
+        double lower = current.plane().low();
+        double range = current.plane().high() - lower;
+        double pixelsPerDomain = Math.max(width * range / (x1 - x0), height * range / (y1 - y0));
+        int level = (int) Math.ceil(Math.log(pixelsPerDomain / TILE) / Math.log(2));
+        level = Math.max(0, Math.min(MAX_LEVEL, level));
+        int tiles = 1 << level;
+        double tileSize = range / tiles;
+        
+        // Tile indices in view; y counts down from the top of the domain
+        int first = clamp((int) Math.floor((x0 - lower) / tileSize), tiles);
+        int last = clamp((int) Math.ceil((x1 - lower) / tileSize) - 1, tiles);
+        int top = clamp((int) Math.floor((lower + range - y1) / tileSize), tiles);
+        int bottom = clamp((int) Math.ceil((lower + range - y0) / tileSize) - 1, tiles);
+        
+        // Look up each visible tile, or the nearest ancestor or earlier tile to stand in for it
+        Set<Key> missing = new HashSet<>();
+        int columns = last - first + 1;
+        Tile[] shown = new Tile[columns * (bottom - top + 1)];
+        int[] shownLevel = new int[shown.length];
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        synchronized (cache) {
+            for (int ty = top; ty <= bottom; ty++) {
+                for (int tx = first; tx <= last; tx++) {
+                    int index = (ty - top) * columns + tx - first;
+                    for (int l = level; l >= 0; l--) {
+                        int shift = level - l;
+                        Tile tile = cache.get(new Key(l, tx >> shift, ty >> shift));
+                        if (tile != null) {
+                            shown[index] = tile;
+                            shownLevel[index] = l;
+                            low = Math.min(low, tile.min);
+                            high = Math.max(high, tile.max);
+                            break;
+                        }
+                    }
+                    if (shown[index] == null || shownLevel[index] != level
+                            || shown[index].version != current.version()) {
+                        missing.add(new Key(level, tx, ty));
+                    }
+                }
+            }
+            // The root tile can stand in for any other, so make sure it is up to date
+            Key root = new Key(0, 0, 0);
+            Tile rootTile = cache.get(root);
+            if (rootTile == null || rootTile.version != current.version()) {
+                missing.add(root);
+            }
+            
+            // Room for every tile just looked up plus every tile requested, so
+            // arrivals only evict tiles this view does not show
+            capacity = Math.max(CACHE_TILES, 2 * shown.length + level + 1);
+            Iterator<Key> eldest = cache.keySet().iterator();
+            while (cache.size() > capacity) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        request(missing);
+        
+        double scaleX = width / (x1 - x0);
+        double scaleY = height / (y1 - y0);
+        for (int ty = top; ty <= bottom; ty++) {
+            for (int tx = first; tx <= last; tx++) {
+                int index = (ty - top) * columns + tx - first;
+                Tile tile = shown[index];
+                if (tile == null) {
+                    continue;
+                }
+                color(tile, low, high);
+                
+                // Screen rectangle of the tile, rounded so that neighbours meet exactly
+                int dx1 = (int) Math.round((lower + tx * tileSize - x0) * scaleX);
+                int dx2 = (int) Math.round((lower + (tx + 1) * tileSize - x0) * scaleX);
+                int dy1 = (int) Math.round((y1 - (lower + range - ty * tileSize)) * scaleY);
+                int dy2 = (int) Math.round((y1 - (lower + range - (ty + 1) * tileSize)) * scaleY);
+                
+                // Part of the drawn image it covers: all of it, or a fraction of an ancestor
+                int span = 1 << (level - shownLevel[index]);
+                double part = (double) TILE / span;
+                int sx1 = (int) Math.floor((tx & (span - 1)) * part);
+                int sy1 = (int) Math.floor((ty & (span - 1)) * part);
+                int sx2 = Math.max(sx1 + 1, (int) Math.ceil(((tx & (span - 1)) + 1) * part));
+                int sy2 = Math.max(sy1 + 1, (int) Math.ceil(((ty & (span - 1)) + 1) * part));
+                g.drawImage(tile.image, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+            }
+        }
+    }
+    
+    private static int clamp(int index, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, index));
+    }
+    
+    /**
+     * Queue the missing tiles not already queued; queued tiles no longer
+     * wanted are skipped when their turn comes, and the others are
+     * computed for the plane current at that time
+     */
+    private void request(Set<Key> missing) {
+        wanted = missing;
+        for (Key key : missing) {
+            if (pending.add(key)) {
+                pool.execute(() -> {
+                    try {
+                        int started = generation.get();
+                        Source target = source;
+                        if (wanted.contains(key)) {
+                            Tile tile = compute(target, key);
+                            if (generation.get() == started) {
+                                synchronized (cache) {
+                                    Tile cached = cache.get(key);
+                                    if (cached == null || cached.version < tile.version) {
+                                        cache.put(key, tile);
+                                    }
+                                }
+                                onUpdate.run();
+                            }
+                        }
+                    } finally {
+                        pending.remove(key);
+                    }
+                });
+            }
+        }
+    }
+    
+    /**
+     * Evaluate the TILE x TILE pixel centers of one tile, a row at a time
+     */
+    private static Tile compute(Source source, Key key) {
+        Problem problem = source.problem();
+        Plane plane = source.plane();
+        int dimensions = problem.getDimensions();
+        double lower = plane.low();
+        double range = plane.high() - lower;
+        double tileSize = range / (1 << key.level());
+        double left = lower + key.x() * tileSize;
+        double top = lower + range - key.y() * tileSize;
+        double step = tileSize / TILE;
+        
+        float[] values = new float[TILE * TILE];
+        double[] positions = new double[TILE * dimensions];
+        double[] fitness = new double[TILE];
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < TILE; row++) {
+            double v = top - (row + 0.5) * step;
+            for (int i = 0; i < TILE; i++) {
+                plane.point(left + (i + 0.5) * step, v, positions, i * dimensions);
+            }
+            problem.evaluate(positions, fitness, 0, TILE);
+            for (int i = 0; i < TILE; i++) {
+                double value = fitness[i];
+                values[row * TILE + i] = (float) value;
+                if (value < min) {
+                    min = value;
+                }
+                if (value > max) {
+                    max = value;
+                }
+            }
+        }
+        return new Tile(values, min, max, source.version());
+    }
+    
+    /**
+     * Make sure the tile's image is colored for the range [low, high]
+     */
+    private static void color(Tile tile, double low, double high) {
+        if (tile.image != null && tile.coloredLow == low && tile.coloredHigh == high) {
+            return;
+        }
+        if (tile.image == null) {
+            tile.image = new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_RGB);
+        }
+        int[] raster = ((DataBufferInt) tile.image.getRaster().getDataBuffer()).getData();
+        double scale = high > low ? 1.0 / (high - low) : 0.0;
+        float[] values = tile.values;
+        for (int i = 0; i < raster.length; i++) {
+            raster[i] = color((values[i] - low) * scale);
+        }
+        tile.coloredLow = low;
+        tile.coloredHigh = high;
+    }
+    
+    /**
+     * Dark purple for normalized fitness 1 up to a lighter purple for 0
+     */
+    private static int color(double normalized) {
+        float intensity = (float) (1.0 - normalized);
+        if (!(intensity >= 0f)) {
+            intensity = 0f;
+        } else if (intensity > 1f) {
+            intensity = 1f;
+        }
+        int r = (int) (intensity * 0.3f * 255 + 0.5f);
+        int g = (int) (intensity * 0.1f * 255 + 0.5f);
+        int b = (int) (intensity * 0.5f * 255 + 0.5f);
+        return (r << 16) | (g << 8) | b;
+    }
+}
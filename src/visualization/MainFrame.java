@@ -4,12 +4,12 @@ import core.Algorithm;
 import core.Problem;
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.TimeUnit;
 
 public class MainFrame extends JFrame implements ControlPanel.ControlListener {
     private VisualizationPanel visualizationPanel;
     private ControlPanel controlPanel;
-    private Timer timer;
-    private boolean running = false;
+    private Engine engine;
     private Algorithm currentAlgorithm;
     private Problem currentProblem;
     
@@ -18,8 +18,13 @@ public class MainFrame extends JFrame implements ControlPanel.ControlListener {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
         
+        // The algorithm runs on the engine thread; the panel draws its snapshots
+        engine = new Engine(this::engineStopped);
+        engine.setDelay(TimeUnit.MILLISECONDS.toNanos(51));
+        
         // Create panels
         visualizationPanel = new VisualizationPanel();
+        visualizationPanel.setEngine(engine);
         controlPanel = new ControlPanel();
         controlPanel.setControlListener(this);
         
@@ -27,9 +32,6 @@ public class MainFrame extends JFrame implements ControlPanel.ControlListener {
         add(visualizationPanel, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.EAST);
         
-        // Setup timer
-        timer = new Timer(50, e -> step());
-        
         pack();
         setLocationRelativeTo(null);
     }
@@ -39,32 +41,20 @@ public class MainFrame extends JFrame implements ControlPanel.ControlListener {
         if (currentAlgorithm == null || currentProblem == null) {
             return;
         }
-        
-        // Initialize if not already done
-        if (currentAlgorithm.getIteration() == 0) {
-            currentAlgorithm.initialize(currentProblem);
-        }
-        
-        running = true;
-        timer.start();
+        engine.start();
         controlPanel.setRunning(true);
     }
     
     @Override
     public void onPause() {
-        running = false;
-        timer.stop();
+        engine.pause();
         controlPanel.setRunning(false);
     }
     
     @Override
     public void onReset() {
         onPause();
-        if (currentAlgorithm != null && currentProblem != null) {
-            currentAlgorithm.reset();
-            currentAlgorithm.initialize(currentProblem);
-            visualizationPanel.repaint();
-        }
+        engine.load(currentAlgorithm, currentProblem);
     }
     
     @Override
@@ -72,28 +62,15 @@ public class MainFrame extends JFrame implements ControlPanel.ControlListener {
         if (currentAlgorithm == null || currentProblem == null) {
             return;
         }
-        
-        // Initialize if not already done
-        if (currentAlgorithm.getIteration() == 0) {
-            currentAlgorithm.initialize(currentProblem);
-        }
-        
-        // Perform one step
-        currentAlgorithm.step();
-        visualizationPanel.repaint();
+        engine.step();
+        controlPanel.setRunning(false);
     }
     
     @Override
     public void onAlgorithmChanged(Algorithm algorithm) {
         onPause();
         currentAlgorithm = algorithm;
-        visualizationPanel.setAlgorithm(algorithm);
-        
-        if (currentProblem != null) {
-            currentAlgorithm.initialize(currentProblem);
-        }
-        
-        visualizationPanel.repaint();
+        engine.load(currentAlgorithm, currentProblem);
     }
     
     @Override
@@ -101,18 +78,14 @@ public class MainFrame extends JFrame implements ControlPanel.ControlListener {
         onPause();
         currentProblem = problem;
         visualizationPanel.setProblem(problem);
-        
-        if (currentAlgorithm != null) {
-            currentAlgorithm.initialize(currentProblem);
-        }
-        
-        visualizationPanel.repaint();
+        engine.load(currentAlgorithm, currentProblem);
     }
     
     @Override
     public void onSpeedChanged(int speed) {
-        int delay = 101 - speed;
-        timer.setDelay(delay);
+        // Full speed steps without pausing
+        int delay = speed >= 100 ? 0 : 101 - speed;
+        engine.setDelay(TimeUnit.MILLISECONDS.toNanos(delay));
     }
     
     @Override
@@ -120,15 +93,23 @@ public class MainFrame extends JFrame implements ControlPanel.ControlListener {
         visualizationPanel.setShowHeatmap(show);
     }
     
-    private void step() {
-        if (currentAlgorithm != null) {
-            boolean continuing = currentAlgorithm.step();
-            visualizationPanel.repaint();
-            
-            // Stop if algorithm is done
-            if (!continuing) {
-                onPause();
-            }
+    @Override
+    public void onTrailsToggled(boolean show) {
+        visualizationPanel.setShowTrails(show);
+    }
+    
+    @Override
+    public void onViewChanged(boolean principal, int xAxis, int yAxis) {
+        visualizationPanel.setView(principal, xAxis, yAxis);
+    }
+    
+    /**
+     * The engine stopped by itself: the algorithm finished or a step failed
+     */
+    private void engineStopped(Throwable failure) {
+        controlPanel.setRunning(false);
+        if (failure != null) {
+            JOptionPane.showMessageDialog(this, failure.toString(), "Algorithm failed", JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -138,4 +119,4 @@ public class MainFrame extends JFrame implements ControlPanel.ControlListener {
             frame.setVisible(true);
         });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,246 @@
+package visualization;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws a snapshot's population, and optionally its recent trails, into
+ * one translucent overlay image, which the panel then draws with a single
+ * drawImage. Every particle is the same pre-rendered sprite, stamped into
+ * a plane of alpha bytes. All particles share one color, so a pixel is
+ * just an alpha value, and stamping blends alphas through a lookup table.
+ * The alpha plane becomes the overlay's raster in one pass at the end.
+ * Nothing is allocated per particle or per frame.
+ *
+ * <p>Positions are projected onto the plane once per snapshot, into the
+ * newest row of a ring buffer of the last TRAIL_LENGTH snapshots. Trails
+ * are the older rows, drawn as dots that fade with age. The plane
+ * coordinates of a point stay valid while the plane keeps its axes and
+ * offsets (a slice whose anchor moves, say). Any other change to the
+ * plane, or a change in population size, starts the history over.
+ *
+ * <p>Trails are kept in an alpha plane of their own. Each new snapshot
+ * fades it by one step and adds one row of dots, so a frame costs the
+ * same however long the trails are. Only a pan or zoom redraws the trails
+ * from the ring buffer.
+ *
+ * <p>Must be used on the EDT.
+ */
+final class ParticleRenderer {
+    /** Snapshots remembered for each particle, the current one included */
+    static final int TRAIL_LENGTH = 16;
+    /** Color of particles and trails, without alpha */
+    private static final int RGB = 0x00FFC8;
+    /** Alpha a trail dot loses per snapshot */
+    private static final int TRAIL_FADE = 6;
+    /** Alpha of the newest trail dot; it fades to 0 as it leaves the ring buffer */
+    private static final int TRAIL_ALPHA = TRAIL_FADE * (TRAIL_LENGTH - 1);
+    
+    // The sprite, as offsets from the particle's pixel and the alpha at each
+    private static final int[] SPRITE_X;
+    private static final int[] SPRITE_Y;
+    private static final int[] SPRITE_ALPHA;
+    /** OVER[(a << 8) | b]: alpha a composited over alpha b */
+    private static final byte[] OVER = new byte[256 * 256];
+    
+    static {
+        for (int a = 0; a < 256; a++) {
+            for (int b = 0; b < 256; b++) {
+                OVER[(a << 8) | b] = (byte) (a + b - (a * b + 127) / 255);
+            }
+        }
+        
+        // The glow and the dot the panel used to draw for each solution, rendered once
+        int size = 10;
+        int center = size / 2;
+        BufferedImage sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(new Color(0, 255, 200, 50));
+        g.fillOval(center - 4, center - 4, 8, 8);
+        g.setColor(new Color(0, 255, 200, 180));
+        g.fillOval(center - 2, center - 2, 4, 4);
+        g.dispose();
+        
+        int[] xs = new int[size * size];
+        int[] ys = new int[size * size];
+        int[] alphas = new int[size * size];
+        int n = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int alpha = sprite.getRGB(x, y) >>> 24;
+                if (alpha > 0) {
+                    xs[n] = x - center;
+                    ys[n] = y - center;
+                    alphas[n] = alpha;
+                    n++;
+                }
+            }
+        }
+        SPRITE_X = Arrays.copyOf(xs, n);
+        SPRITE_Y = Arrays.copyOf(ys, n);
+        SPRITE_ALPHA = Arrays.copyOf(alphas, n);
+    }
+    
+    private Snapshot snapshot;
+    private Plane plane;
+    private int count;
+    // Ring buffer: row r holds u (or v) of every particle at [r * count, (r + 1) * count)
+    private double[] us = new double[0];
+    private double[] vs = new double[0];
+    private int newest;
+    private int rows;
+    private long recorded;
+    
+    private BufferedImage overlay;
+    private int[] raster;
+    private byte[] alphas;
+    
+    // Trail layer, up to date with the first layered rows recorded, in the view it was drawn for
+    private byte[] trailAlphas;
+    private long layered = -1;
+    private double layerX;
+    private double layerY;
+    private double layerSpan;
+    
+    /**
+     * Record snapshot's positions on plane, unless they are already recorded
+     */
+    void update(Snapshot snapshot, Plane plane) {
+        if (snapshot == this.snapshot && plane == this.plane) {
+            return;
+        }
+        boolean sameCoordinates = this.plane != null && plane.sameCoordinates(this.plane);
+        if (snapshot.count() != count || !sameCoordinates) {
+            count = snapshot.count();
+            if (us.length != TRAIL_LENGTH * count) {
+                us = new double[TRAIL_LENGTH * count];
+                vs = new double[TRAIL_LENGTH * count];
+            }
+            rows = 0;
+            layered = -1;
+        } else if (snapshot == this.snapshot) {
+            // Same points, and the new plane gives them the same coordinates
+            this.plane = plane;
+            return;
+        }
+        this.snapshot = snapshot;
+        this.plane = plane;
+        
+        newest = rows == 0 ? 0 : (newest + 1) % TRAIL_LENGTH;
+        rows = Math.min(rows + 1, TRAIL_LENGTH);
+        recorded++;
+        double[] positions = snapshot.positions();
+        int dimensions = snapshot.dimensions();
+        int row = newest * count;
+        for (int i = 0; i < count; i++) {
+            us[row + i] = plane.u(positions, i * dimensions);
+            vs[row + i] = plane.v(positions, i * dimensions);
+        }
+    }
+    
+    /**
+     * Draw the recorded particles, and their trails if asked, for the view
+     * [viewX, viewX + viewSpan] x [viewY, viewY + viewSpan] of the plane
+     * into the width x height pixels at the origin of g
+     */
+    void draw(Graphics2D g, double viewX, double viewY, double viewSpan, int width, int height, boolean trails) {
+        if (rows == 0 || width < 1 || height < 1) {
+            return;
+        }
+        if (overlay == null || overlay.getWidth() != width || overlay.getHeight() != height) {
+            overlay = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            raster = ((DataBufferInt) overlay.getRaster().getDataBuffer()).getData();
+            alphas = new byte[width * height];
+            trailAlphas = new byte[width * height];
+            layered = -1;
+        }
+        if (trails) {
+            drawTrails(viewX, viewY, viewSpan, width, height);
+            System.arraycopy(trailAlphas, 0, alphas, 0, alphas.length);
+        } else {
+            layered = -1;
+            Arrays.fill(alphas, (byte) 0);
+        }
+        
+        double scaleX = width / viewSpan;
+        double scaleY = height / viewSpan;
+        int row = newest * count;
+        for (int i = 0; i < count; i++) {
+            double sx = (us[row + i] - viewX) * scaleX;
+            double sy = height - (vs[row + i] - viewY) * scaleY;
+            if (!(sx > -8 && sx < width + 8 && sy > -8 && sy < height + 8)) {
+                continue;
+            }
+            int x = (int) sx;
+            int y = (int) sy;
+            boolean inside = x >= 8 && x < width - 8 && y >= 8 && y < height - 8;
+            for (int k = 0; k < SPRITE_ALPHA.length; k++) {
+                int px = x + SPRITE_X[k];
+                int py = y + SPRITE_Y[k];
+                if (inside || px >= 0 && px < width && py >= 0 && py < height) {
+                    blend(alphas, py * width + px, SPRITE_ALPHA[k]);
+                }
+            }
+        }
+        for (int i = 0; i < raster.length; i++) {
+            raster[i] = (alphas[i] << 24) | RGB;
+        }
+        g.drawImage(overlay, 0, 0, null);
+    }
+    
+    /**
+     * Bring the trail layer up to date: one fade and one row of dots per
+     * snapshot recorded since, or all rows again for a new view
+     */
+    private void drawTrails(double viewX, double viewY, double viewSpan, int width, int height) {
+        long behind = recorded - layered;
+        if (layered < 0 || behind >= rows || viewX != layerX || viewY != layerY || viewSpan != layerSpan) {
+            // Oldest first, so that younger dots blend over older ones
+            Arrays.fill(trailAlphas, (byte) 0);
+            for (int age = rows - 1; age > 0; age--) {
+                drawDots(age, TRAIL_ALPHA - TRAIL_FADE * (age - 1), viewX, viewY, viewSpan, width, height);
+            }
+        } else {
+            for (int age = (int) behind; age > 0; age--) {
+                for (int i = 0; i < trailAlphas.length; i++) {
+                    int faded = (trailAlphas[i] & 0xFF) - TRAIL_FADE;
+                    trailAlphas[i] = (byte) (faded > 0 ? faded : 0);
+                }
+                drawDots(age, TRAIL_ALPHA, viewX, viewY, viewSpan, width, height);
+            }
+        }
+        layered = recorded;
+        layerX = viewX;
+        layerY = viewY;
+        layerSpan = viewSpan;
+    }
+    
+    /**
+     * One pixel of the given alpha in the trail layer for each particle's
+     * position age snapshots ago
+     */
+    private void drawDots(int age, int alpha, double viewX, double viewY, double viewSpan, int width, int height) {
+        int row = (newest - age + TRAIL_LENGTH) % TRAIL_LENGTH * count;
+        double scaleX = width / viewSpan;
+        double scaleY = height / viewSpan;
+        for (int i = 0; i < count; i++) {
+            double sx = (us[row + i] - viewX) * scaleX;
+            double sy = height - (vs[row + i] - viewY) * scaleY;
+            if (sx >= 0 && sx < width && sy >= 0 && sy < height) {
+                blend(trailAlphas, (int) sy * width + (int) sx, alpha);
+            }
+        }
+    }
+    
+    /**
+     * Composite alpha over the pixel at index
+     */
+    private static void blend(byte[] plane, int index, int alpha) {
+        plane[index] = OVER[(alpha << 8) | (plane[index] & 0xFF)];
+    }
+}
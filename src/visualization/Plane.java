@@ -0,0 +1,191 @@
+package visualization;
+
+import core.Problem;
+import java.util.Arrays;
+
+/**
+ * A 2-D plane through a problem's domain, which is how the panel shows a
+ * problem of any dimension. Plane point (u, v) is the domain point
+ * origin + u * xAxis + v * yAxis, and a domain point is drawn at its
+ * coordinates along the two axes. The axes are orthonormal, and the view
+ * spans [low, high] along each.
+ *
+ * <p>A slice is spanned by two coordinate axes through an anchor point,
+ * so u and v are plain coordinates and the heatmap is the landscape with
+ * every other coordinate held at the anchor's. A principal plane goes
+ * through the population mean along the population's two directions of
+ * greatest variance.
+ *
+ * @param origin domain point at (0, 0)
+ */
+record Plane(double[] origin, double[] xAxis, double[] yAxis, double low, double high) {
+    /** Power iterations per principal axis */
+    private static final int ITERATIONS = 50;
+    
+    /**
+     * Slice along coordinates x and y through anchor, or through the
+     * middle of the domain if anchor is null
+     */
+    static Plane slice(Problem problem, double[] anchor, int x, int y) {
+        int dimensions = problem.getDimensions();
+        if (x < 0 || y < 0 || x >= dimensions || y >= dimensions || x == y) {
+            throw new IllegalArgumentException("Slice axes must be two different coordinates below " + dimensions);
+        }
+        double[] origin = new double[dimensions];
+        if (anchor == null) {
+            Arrays.fill(origin, (problem.getLowerBound() + problem.getUpperBound()) / 2);
+        } else {
+            System.arraycopy(anchor, 0, origin, 0, dimensions);
+        }
+        origin[x] = 0;
+        origin[y] = 0;
+        return new Plane(origin, unit(dimensions, x), unit(dimensions, y),
+                         problem.getLowerBound(), problem.getUpperBound());
+    }
+    
+    /**
+     * Plane of the two principal components of count points packed
+     * row-major in positions. Power iteration starts from previous's axes
+     * when it has the same dimension, so the plane turns smoothly from one
+     * population to the next instead of flipping signs.
+     */
+    static Plane principal(Problem problem, double[] positions, int count, Plane previous) {
+        int dimensions = problem.getDimensions();
+        double[] mean = new double[dimensions];
+        for (int i = 0; i < count; i++) {
+            for (int d = 0; d < dimensions; d++) {
+                mean[d] += positions[i * dimensions + d];
+            }
+        }
+        for (int d = 0; d < dimensions; d++) {
+            mean[d] = count == 0 ? (problem.getLowerBound() + problem.getUpperBound()) / 2 : mean[d] / count;
+        }
+        
+        // Covariance, up to a constant factor that does not change its eigenvectors
+        double[] covariance = new double[dimensions * dimensions];
+        double[] centered = new double[dimensions];
+        for (int i = 0; i < count; i++) {
+            for (int d = 0; d < dimensions; d++) {
+                centered[d] = positions[i * dimensions + d] - mean[d];
+            }
+            for (int r = 0; r < dimensions; r++) {
+                double scaled = centered[r];
+                for (int c = 0; c < dimensions; c++) {
+                    covariance[r * dimensions + c] += scaled * centered[c];
+                }
+            }
+        }
+        
+        boolean continuing = previous != null && previous.origin.length == dimensions;
+        double[] xAxis = component(covariance, dimensions,
+                                   continuing ? previous.xAxis.clone() : unit(dimensions, 0), null);
+        double[] yAxis = component(covariance, dimensions,
+                                   continuing ? previous.yAxis.clone() : unit(dimensions, 1), xAxis);
+        double half = (problem.getUpperBound() - problem.getLowerBound()) / 2;
+        return new Plane(mean, xAxis, yAxis, -half, half);
+    }
+    
+    /**
+     * Leading eigenvector of the symmetric matrix, orthogonal to exclude if
+     * that is not null. Keeps the starting direction when the matrix has no
+     * variance left orthogonal to exclude.
+     */
+    private static double[] component(double[] matrix, int dimensions, double[] start, double[] exclude) {
+        double[] vector = start;
+        for (int axis = 0; !orthonormalize(vector, exclude); axis++) {
+            vector = unit(dimensions, axis);
+        }
+        double[] next = new double[dimensions];
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int r = 0; r < dimensions; r++) {
+                double sum = 0;
+                for (int c = 0; c < dimensions; c++) {
+                    sum += matrix[r * dimensions + c] * vector[c];
+                }
+                next[r] = sum;
+            }
+            if (!orthonormalize(next, exclude)) {
+                break;
+            }
+            double[] swap = vector;
+            vector = next;
+            next = swap;
+        }
+        return vector;
+    }
+    
+    /**
+     * Remove vector's component along exclude and scale it to length 1;
+     * false, leaving it unusable, if nothing is left
+     */
+    private static boolean orthonormalize(double[] vector, double[] exclude) {
+        if (exclude != null) {
+            double dot = dot(vector, exclude);
+            for (int d = 0; d < vector.length; d++) {
+                vector[d] -= dot * exclude[d];
+            }
+        }
+        double norm = Math.sqrt(dot(vector, vector));
+        if (!(norm > 1e-12)) {
+            return false;
+        }
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] /= norm;
+        }
+        return true;
+    }
+    
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int d = 0; d < a.length; d++) {
+            sum += a[d] * b[d];
+        }
+        return sum;
+    }
+    
+    private static double[] unit(int dimensions, int axis) {
+        double[] vector = new double[dimensions];
+        vector[axis] = 1;
+        return vector;
+    }
+    
+    /**
+     * Coordinate of the domain point at positions[offset..] along xAxis
+     */
+    double u(double[] positions, int offset) {
+        return along(xAxis, positions, offset);
+    }
+    
+    /**
+     * Coordinate of the domain point at positions[offset..] along yAxis
+     */
+    double v(double[] positions, int offset) {
+        return along(yAxis, positions, offset);
+    }
+    
+    private double along(double[] axis, double[] positions, int offset) {
+        double sum = 0;
+        for (int d = 0; d < axis.length; d++) {
+            sum += (positions[offset + d] - origin[d]) * axis[d];
+        }
+        return sum;
+    }
+    
+    /**
+     * Whether every domain point has the same (u, v) on both planes, as
+     * for two slices along the same coordinates through different anchors
+     */
+    boolean sameCoordinates(Plane other) {
+        return Arrays.equals(xAxis, other.xAxis) && Arrays.equals(yAxis, other.yAxis)
+               && dot(origin, xAxis) == dot(other.origin, xAxis) && dot(origin, yAxis) == dot(other.origin, yAxis);
+    }
+    
+    /**
+     * Write the domain point at (u, v) into positions[offset..]
+     */
+    void point(double u, double v, double[] positions, int offset) {
+        for (int d = 0; d < origin.length; d++) {
+            positions[offset + d] = origin[d] + u * xAxis[d] + v * yAxis[d];
+        }
+    }
+}
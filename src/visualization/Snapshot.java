@@ -0,0 +1,16 @@
+package visualization;
+
+/**
+ * What the engine thread publishes for the panel to draw: a copy of the
+ * algorithm's state after some step. A snapshot is never modified after
+ * it is published, so the panel can read it without locks while the
+ * engine keeps stepping.
+ *
+ * @param positions the population, row-major, count rows of dimensions
+ * @param bestPosition null until the algorithm has a best solution
+ * @param stepsPerSecond iteration rate since the previous snapshot
+ * @param running whether the engine is stepping on its own
+ */
+record Snapshot(String algorithm, String problem, int iteration, double bestFitness, double[] bestPosition,
+                double[] positions, int count, int dimensions, double stepsPerSecond, boolean running) {
+}
@@ -1,74 +1,222 @@
 package visualization;
 
-import core.Algorithm;
 import core.Problem;
-import core.Solution;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.geom.*;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Draws the snapshots an Engine publishes. A Swing timer checks for a
+ * new one every frame and repaints only when there is one, so the panel
+ * never reads the algorithm itself and never waits for a step.
+ *
+ * <p>Problems of any dimension are drawn on a Plane: a slice along two
+ * chosen coordinates through the best solution, or the population's two
+ * principal components. Solutions are drawn at their projections onto
+ * it. The plane follows the run at most every REPLAN_MILLIS, so the
+ * heatmap has time to catch up with one plane before the next.
+ */
 public class VisualizationPanel extends JPanel {
-    private Algorithm algorithm;
+    /** Frame interval of the repaint timer, in milliseconds */
+    private static final int FRAME_MILLIS = 16;
+    /** Zoom factor per wheel notch */
+    private static final double ZOOM_STEP = 1.25;
+    /** Deepest zoom, as a fraction of the plane's width */
+    private static final double MIN_SPAN = 1e-9;
+    /** Shortest interval between moves of the plane, in milliseconds */
+    private static final long REPLAN_MILLIS = 250;
+    
+    private Engine engine;
+    private Snapshot drawn;
+    private Timer frameTimer;
     private Problem problem;
-    private double[][] heatmapCache;
-    private int resolution = 100;
+    private final HeatmapRenderer heatmap = new HeatmapRenderer(this::repaint);
+    private final ParticleRenderer particles = new ParticleRenderer();
     private boolean showHeatmap = true;
     private boolean showTrails = false;
     
+    // Plane: a slice along coordinates sliceX and sliceY, or the principal components
+    private boolean principal;
+    private int sliceX = 0;
+    private int sliceY = 1;
+    private Plane plane;
+    private long planned;
+    private boolean planeBehind;
+    
+    // View: [viewX, viewX + viewSpan] x [viewY, viewY + viewSpan] of the plane
+    private double viewX;
+    private double viewY;
+    private double viewSpan;
+    private Point dragFrom;
+    
     public VisualizationPanel() {
         setPreferredSize(new Dimension(800, 800));
         setBackground(Color.BLACK);
+        
+        // Wheel zooms about the cursor, dragging pans, double-click shows the whole domain
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+            
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragFrom = e.getPoint();
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragFrom != null && plane != null) {
+                    pan((dragFrom.x - e.getX()) * viewSpan / getWidth(),
+                        (e.getY() - dragFrom.y) * viewSpan / getHeight());
+                    dragFrom = e.getPoint();
+                }
+            }
+            
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    resetView();
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
     }
     
-    public void setAlgorithm(Algorithm algorithm) {
-        this.algorithm = algorithm;
+    /**
+     * Draw the engine's snapshots from now on, at most once per frame
+     */
+    void setEngine(Engine engine) {
+        this.engine = engine;
+        if (frameTimer == null) {
+            frameTimer = new Timer(FRAME_MILLIS, e -> {
+                if (this.engine.getSnapshot() != drawn
+                        || planeBehind && System.currentTimeMillis() - planned >= REPLAN_MILLIS) {
+                    repaint();
+                }
+            });
+            frameTimer.start();
+        }
     }
     
     public void setProblem(Problem problem) {
         this.problem = problem;
-        generateHeatmap();
+        if (sliceX >= problem.getDimensions() || sliceY >= problem.getDimensions()) {
+            sliceX = 0;
+            sliceY = 1;
+        }
+        plane = null;
+        replan(null);
+        resetView();
     }
     
-    public void setShowHeatmap(boolean show) {
-        this.showHeatmap = show;
+    /**
+     * Draw the principal components of the population, or else the slice
+     * along coordinates xAxis and yAxis (from 0) through the best solution
+     */
+    public void setView(boolean principal, int xAxis, int yAxis) {
+        this.principal = principal;
+        this.sliceX = xAxis;
+        this.sliceY = yAxis;
+        if (problem == null) {
+            return;
+        }
+        Plane previous = plane;
+        plane = null;
+        replan(drawn);
+        if (previous.low() != plane.low() || previous.high() != plane.high()) {
+            resetView();
+        }
         repaint();
     }
     
-    public void setShowTrails(boolean show) {
-        this.showTrails = show;
+    /**
+     * Show the whole plane
+     */
+    public void resetView() {
+        if (plane != null) {
+            viewX = plane.low();
+            viewY = plane.low();
+            viewSpan = plane.high() - plane.low();
+        }
         repaint();
     }
     
-    private void generateHeatmap() {
-        if (problem == null) return;
-        
-        heatmapCache = new double[resolution][resolution];
-        double minFitness = Double.MAX_VALUE;
-        double maxFitness = Double.MIN_VALUE;
-        
-        // Calculate fitness for each point
-        for (int i = 0; i < resolution; i++) {
-            for (int j = 0; j < resolution; j++) {
-                double x = problem.getLowerBound() + 
-                          (problem.getUpperBound() - problem.getLowerBound()) * i / (resolution - 1);
-                double y = problem.getLowerBound() + 
-                          (problem.getUpperBound() - problem.getLowerBound()) * j / (resolution - 1);
-                
-                double fitness = problem.evaluate(new double[]{x, y});
-                heatmapCache[i][j] = fitness;
-                
-                minFitness = Math.min(minFitness, fitness);
-                maxFitness = Math.max(maxFitness, fitness);
-            }
+    /**
+     * Move the plane to the snapshot's best solution or population, unless
+     * it moved less than REPLAN_MILLIS ago; then planeBehind asks the frame
+     * timer to try again
+     */
+    private void replan(Snapshot snapshot) {
+        long now = System.currentTimeMillis();
+        if (plane != null && now - planned < REPLAN_MILLIS) {
+            planeBehind = true;
+            return;
         }
-        
-        // Normalize
-        for (int i = 0; i < resolution; i++) {
-            for (int j = 0; j < resolution; j++) {
-                heatmapCache[i][j] = (heatmapCache[i][j] - minFitness) / (maxFitness - minFitness);
-            }
+        planeBehind = false;
+        if (snapshot != null && snapshot.dimensions() != problem.getDimensions()) {
+            snapshot = null;
+        }
+        Plane next;
+        if (principal) {
+            next = snapshot == null
+                   ? Plane.principal(problem, new double[0], 0, plane)
+                   : Plane.principal(problem, snapshot.positions(), snapshot.count(), plane);
+        } else {
+            next = Plane.slice(problem, snapshot == null ? null : snapshot.bestPosition(), sliceX, sliceY);
+        }
+        // Keep the plane, and the heatmap's tiles, if the anchor only moved within it
+        if (plane == null || !Arrays.equals(next.origin(), plane.origin())
+                || !Arrays.equals(next.xAxis(), plane.xAxis()) || !Arrays.equals(next.yAxis(), plane.yAxis())) {
+            plane = next;
+            planned = now;
+            heatmap.setPlane(problem, plane);
+        }
+    }
+    
+    /**
+     * Magnify the view by factor, keeping the domain point under (screenX, screenY) in place
+     */
+    private void zoom(double factor, int screenX, int screenY) {
+        if (plane == null) {
+            return;
         }
+        double range = plane.high() - plane.low();
+        double span = Math.max(range * MIN_SPAN, Math.min(range, viewSpan / factor));
+        double x = viewX + viewSpan * screenX / getWidth();
+        double y = viewY + viewSpan * (getHeight() - screenY) / getHeight();
+        viewX = x - (x - viewX) * span / viewSpan;
+        viewY = y - (y - viewY) * span / viewSpan;
+        viewSpan = span;
+        pan(0, 0);
+    }
+    
+    /**
+     * Move the view by (dx, dy) in plane units, keeping it inside the plane
+     */
+    private void pan(double dx, double dy) {
+        double lower = plane.low();
+        double upper = plane.high();
+        viewX = Math.max(lower, Math.min(upper - viewSpan, viewX + dx));
+        viewY = Math.max(lower, Math.min(upper - viewSpan, viewY + dy));
+        repaint();
+    }
+    
+    public void setShowHeatmap(boolean show) {
+        this.showHeatmap = show;
+        repaint();
+    }
+    
+    public void setShowTrails(boolean show) {
+        this.showTrails = show;
+        repaint();
     }
     
     @Override
@@ -77,27 +225,35 @@ public class VisualizationPanel extends JPanel {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
-        if (problem == null || algorithm == null) {
+        // Everything below draws this one snapshot, however many the engine publishes meanwhile
+        Snapshot snapshot = engine == null ? null : engine.getSnapshot();
+        drawn = snapshot;
+        if (problem == null || snapshot == null) {
             drawWelcomeMessage(g2d);
             return;
         }
+        if (snapshot.dimensions() != problem.getDimensions()) {
+            // Still the previous problem's run
+            return;
+        }
+        replan(snapshot);
         
         // Draw heatmap
-        if (showHeatmap && heatmapCache != null) {
+        if (showHeatmap) {
             drawHeatmap(g2d);
         }
-        
+       
        // Draw global optimum marker
         drawGlobalOptimum(g2d);
         
         // Draw solutions
-        drawSolutions(g2d);
+        drawSolutions(g2d, snapshot);
         
         // Draw best solution
-        drawBestSolution(g2d);
+        drawBestSolution(g2d, snapshot);
         
         // Draw info
-        drawInfo(g2d);
+        drawInfo(g2d, snapshot);
     }
     
     private void drawWelcomeMessage(Graphics2D g2d) {
@@ -111,43 +267,22 @@ public class VisualizationPanel extends JPanel {
     }
     
     private void drawHeatmap(Graphics2D g2d) {
-        int cellWidth = getWidth() / resolution;
-        int cellHeight = getHeight() / resolution;
-        
-        for (int i = 0; i < resolution; i++) {
-            for (int j = 0; j < resolution; j++) {
-                float intensity = (float) (1.0 - heatmapCache[i][j]);
-                Color color = new Color(intensity * 0.3f, intensity * 0.1f, intensity * 0.5f);
-                g2d.setColor(color);
-                g2d.fillRect(i * cellWidth, (resolution - 1 - j) * cellHeight, 
-                           cellWidth + 1, cellHeight + 1);
-            }
-        }
+        heatmap.draw(g2d, viewX, viewX + viewSpan, viewY, viewY + viewSpan, getWidth(), getHeight());
     }
     
-    private void drawSolutions(Graphics2D g2d) {
-        List<Solution> solutions = algorithm.getCurrentSolutions();
-        if (solutions == null || solutions.isEmpty()) return;
+    private void drawSolutions(Graphics2D g2d, Snapshot snapshot) {
+        if (snapshot.dimensions() < 2) return;
         
-        for (Solution sol : solutions) {
-            Point2D.Double point = toScreenCoordinates(sol.getPosition());
-            
-            // Draw solution point
-            g2d.setColor(new Color(0, 255, 200, 180));
-            int size = 4;
-            g2d.fillOval((int)point.x - size/2, (int)point.y - size/2, size, size);
-            
-            // Draw glow
-            g2d.setColor(new Color(0, 255, 200, 50));
-            g2d.fillOval((int)point.x - size, (int)point.y - size, size*2, size*2);
-        }
+        // One overlay image for the whole population, and its trails
+        particles.update(snapshot, plane);
+        particles.draw(g2d, viewX, viewY, viewSpan, getWidth(), getHeight(), showTrails);
     }
     
-    private void drawBestSolution(Graphics2D g2d) {
-        Solution best = algorithm.getBestSolution();
+    private void drawBestSolution(Graphics2D g2d, Snapshot snapshot) {
+        double[] best = snapshot.bestPosition();
         if (best == null) return;
         
-        Point2D.Double point = toScreenCoordinates(best.getPosition());
+        Point2D.Double point = toScreenCoordinates(best, 0);
         
         // Draw pulsing ring
         int size = 16;
@@ -163,13 +298,13 @@ public class VisualizationPanel extends JPanel {
         g2d.setColor(new Color(255, 255, 0, 80));
         g2d.fillOval((int)point.x - size, (int)point.y - size, size*2, size*2);
     }
-
+    
     private void drawGlobalOptimum(Graphics2D g2d) {
         // Get the known global optimum position for this problem
         double[] optimumPos = getGlobalOptimumPosition();
         if (optimumPos == null) return;
         
-        Point2D.Double point = toScreenCoordinates(optimumPos);
+        Point2D.Double point = toScreenCoordinates(optimumPos, 0);
         
         // Draw a green crosshair marker
         g2d.setColor(new Color(0, 255, 0, 150));
@@ -188,49 +323,41 @@ public class VisualizationPanel extends JPanel {
     
     private double[] getGlobalOptimumPosition() {
         if (problem == null) return null;
-        
-        String problemName = problem.getName();
-        switch (problemName) {
-            case "Sphere Function":
-            case "Rastrigin Function":
-            case "Ackley Function":
-            case "Griewank Function":
-                return new double[]{0.0, 0.0};
-            case "Schwefel Function":
-                return new double[]{420.9687, 420.9687};
-            case "Michalewicz Function":
-                return new double[]{2.20, 1.57};
-            case "Levy Function":
-                return new double[]{1.0, 1.0};
-            case "Deceptive Trap":
-                // For deceptive trap, the optimum is at the boundary
-                // Let's show one of them
-                return new double[]{5.0, 5.0};
-            default:
-                return null;
-        }
+        return problem.getOptimum();
     }
     
-    private void drawInfo(Graphics2D g2d) {
+    private void drawInfo(Graphics2D g2d, Snapshot snapshot) {
         g2d.setColor(Color.WHITE);
         g2d.setFont(new Font("Monospaced", Font.BOLD, 14));
         
         int y = 25;
         int x = 15;
         
-        g2d.drawString("Algorithm: " + algorithm.getName(), x, y);
+        g2d.drawString("Algorithm: " + snapshot.algorithm(), x, y);
+        y += 20;
+        g2d.drawString("Problem: " + snapshot.problem() + " (" + snapshot.dimensions() + "-D)", x, y);
         y += 20;
-        g2d.drawString("Problem: " + problem.getName(), x, y);
+        g2d.drawString(principal
+                       ? "View: principal components"
+                       : "View: slice x" + (sliceX + 1) + ", x" + (sliceY + 1) + " through best", x, y);
         y += 20;
-        g2d.drawString("Iteration: " + algorithm.getIteration(), x, y);
+        g2d.drawString("Iteration: " + snapshot.iteration(), x, y);
         y += 20;
+        if (snapshot.running()) {
+            g2d.drawString(String.format("Speed: %.0f it/s", snapshot.stepsPerSecond()), x, y);
+            y += 20;
+        }
+        double range = plane.high() - plane.low();
+        if (viewSpan < range) {
+            g2d.drawString(String.format("Zoom: %.3gx", range / viewSpan), x, y);
+            y += 20;
+        }
         
-        Solution best = algorithm.getBestSolution();
+        double[] best = snapshot.bestPosition();
         if (best != null) {
-            g2d.drawString(String.format("Best Fitness: %.6f", best.getFitness()), x, y);
+            g2d.drawString(String.format("Best Fitness: %.6f", snapshot.bestFitness()), x, y);
             y += 20;
-            g2d.drawString(String.format("Position: [%.3f, %.3f]", 
-                best.getPosition()[0], best.getPosition()[1]), x, y);
+            g2d.drawString(String.format("Position: [%.3f, %.3f]", plane.u(best, 0), plane.v(best, 0)), x, y);
         }
         
         // Draw problem-specific optimum info
@@ -238,64 +365,19 @@ public class VisualizationPanel extends JPanel {
         g2d.setFont(new Font("Monospaced", Font.PLAIN, 12));
         g2d.setColor(new Color(100, 255, 100));
         
-        String problemName = problem.getName();
-        switch (problemName) {
-            case "Sphere Function":
-                g2d.drawString("Global Optimum: (0.0, 0.0)", x, y);
-                y += 15;
-                g2d.drawString("Target Fitness: 0.0", x, y);
-                break;
-            case "Rastrigin Function":
-                g2d.drawString("Global Optimum: (0.0, 0.0)", x, y);
-                y += 15;
-                g2d.drawString("Target Fitness: 0.0", x, y);
-                break;
-            case "Ackley Function":
-                g2d.drawString("Global Optimum: (0.0, 0.0)", x, y);
-                y += 15;
-                g2d.drawString("Target Fitness: 0.0", x, y);
-                break;
-            case "Schwefel Function":
-                g2d.drawString("Global Optimum: (420.97, 420.97)", x, y);
-                y += 15;
-                g2d.drawString("Target Fitness: 0.0", x, y);
-                break;
-            case "Griewank Function":
-                g2d.drawString("Global Optimum: (0.0, 0.0)", x, y);
-                y += 15;
-                g2d.drawString("Target Fitness: 0.0", x, y);
-                break;
-            case "Michalewicz Function":
-                g2d.drawString("Global Optimum: ~(2.20, 1.57)", x, y);
-                y += 15;
-                g2d.drawString("Target Fitness: ~-1.80", x, y);
-                break;
-            case "Levy Function":
-                g2d.drawString("Global Optimum: (1.0, 1.0)", x, y);
-                y += 15;
-                g2d.drawString("Target Fitness: 0.0", x, y);
-                break;
-            case "Deceptive Trap":
-                g2d.drawString("Global Optimum: at boundaries", x, y);
-                y += 15;
-                g2d.drawString("(±5.0, ±5.0)", x, y);
-                break;
-            default:
-                g2d.drawString("See problem definition", x, y);
-                break;
+        double[] optimum = problem.getOptimum();
+        if (optimum != null && optimum.length >= 2) {
+            g2d.drawString(String.format("Global Optimum: (%.2f, %.2f)", optimum[0], optimum[1]), x, y);
+            y += 15;
+            g2d.drawString(String.format("Target Fitness: %.2f", problem.evaluate(optimum)), x, y);
+        } else {
+            g2d.drawString("See problem definition", x, y);
         }
     }
-    private Point2D.Double toScreenCoordinates(double[] position) {
-        if (position.length < 2) return new Point2D.Double(0, 0);
-        
-        double x = position[0];
-        double y = position[1];
-        
-        // Map from problem space to screen space
-        double screenX = (x - problem.getLowerBound()) / 
-                        (problem.getUpperBound() - problem.getLowerBound()) * getWidth();
-        double screenY = getHeight() - (y - problem.getLowerBound()) / 
-                        (problem.getUpperBound() - problem.getLowerBound()) * getHeight();
+    private Point2D.Double toScreenCoordinates(double[] positions, int offset) {
+        // Project onto the plane, then map from the view to screen space
+        double screenX = (plane.u(positions, offset) - viewX) / viewSpan * getWidth();
+        double screenY = getHeight() - (plane.v(positions, offset) - viewY) / viewSpan * getHeight();
         
         return new Point2D.Double(screenX, screenY);
     }